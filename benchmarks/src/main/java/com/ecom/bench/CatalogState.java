@@ -0,0 +1,103 @@
+package com.ecom.bench;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.ecom.ShoppingCartApplication;
+import com.ecom.loadtest.CatalogGenerator;
+import com.ecom.service.CategoryService;
+import com.ecom.service.ImageStorageService;
+import com.ecom.service.ProductService;
+
+// The whole application context on an in-memory H2 database, seeded once per trial
+// with catalogSize products spread over CATEGORIES categories by the application's
+// CatalogGenerator. The generator is seeded, so every run and every release
+// benchmarks the same rows.
+@State(Scope.Benchmark)
+public class CatalogState {
+
+	static final int CATEGORIES = 20;
+
+	@Param({ "1000", "20000" })
+	public int catalogSize;
+
+	public ConfigurableApplicationContext context;
+
+	public ProductService productService;
+
+	public CategoryService categoryService;
+
+	public ImageStorageService imageStorageService;
+
+	public List<Integer> categoryIds;
+
+	public int maxProductId;
+
+	private Path uploadDir;
+
+	@Setup(Level.Trial)
+	public void start() throws IOException {
+		uploadDir = Files.createTempDirectory("ecom-bench-uploads");
+
+		Map<String, Object> properties = new HashMap<>();
+		properties.put("spring.datasource.url", "jdbc:h2:mem:bench;DB_CLOSE_DELAY=-1;MODE=MSSQLServer");
+		properties.put("spring.datasource.driver-class-name", "org.h2.Driver");
+		properties.put("spring.datasource.username", "sa");
+		properties.put("spring.datasource.password", "");
+		properties.put("spring.jpa.properties.hibernate.dialect", "org.hibernate.dialect.H2Dialect");
+		properties.put("spring.jpa.show-sql", "false");
+		properties.put("logging.level.root", "WARN");
+		properties.put("logging.level.org.hibernate.SQL", "WARN");
+		properties.put("logging.level.org.hibernate.type.descriptor.sql.BasicBinder", "WARN");
+		properties.put("logging.level.org.springframework.orm.jpa", "WARN");
+		properties.put("logging.level.org.springframework.transaction", "WARN");
+		properties.put("ecom.upload.dir", uploadDir.toString());
+
+		// Passed as command-line arguments so they override application.properties
+		String[] args = properties.entrySet().stream()
+				.map(property -> "--" + property.getKey() + "=" + property.getValue())
+				.toArray(String[]::new);
+		context = new SpringApplicationBuilder(ShoppingCartApplication.class)
+				.web(WebApplicationType.NONE)
+				.run(args);
+		productService = context.getBean(ProductService.class);
+		categoryService = context.getBean(CategoryService.class);
+		imageStorageService = context.getBean(ImageStorageService.class);
+
+		seed(context.getBean(JdbcTemplate.class));
+	}
+
+	@TearDown(Level.Trial)
+	public void stop() throws IOException {
+		context.close();
+		try (Stream<Path> files = Files.walk(uploadDir)) {
+			for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+				Files.deleteIfExists(file);
+			}
+		}
+	}
+
+	private void seed(JdbcTemplate jdbcTemplate) {
+		categoryIds = new CatalogGenerator(jdbcTemplate, 42).generate(CATEGORIES, catalogSize);
+		maxProductId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM product", Integer.class);
+		productService.refreshCatalog();
+	}
+
+}
@@ -0,0 +1,34 @@
+package com.ecom.bench;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.ecom.model.Category;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CategoryServiceBenchmark {
+
+	// Served from the query cache after the first call
+	@Benchmark
+	public List<Category> getAllCategory(CatalogState catalog) {
+		return catalog.categoryService.getAllCategory();
+	}
+
+	@Benchmark
+	public Category getCategoryById(CatalogState catalog) {
+		return catalog.categoryService.getCategoryById(catalog.categoryIds.get(0));
+	}
+
+}
@@ -0,0 +1,71 @@
+package com.ecom.bench;
+
+import java.io.IOException;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockMultipartFile;
+
+// The image save path behind AdminController.saveImageFile: hashing, writing and
+// de-duplicating an upload. Content is random bytes; the store does not decode it.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ImageStorageBenchmark {
+
+	@State(Scope.Thread)
+	public static class Upload {
+
+		@Param({ "65536" })
+		public int imageBytes;
+
+		byte[] content;
+
+		long sequence;
+
+		@Setup
+		public void setUp() {
+			content = new byte[imageBytes];
+			new SplittableRandom(11).nextBytes(content);
+		}
+
+		// Different bytes every call, so every store writes a new blob
+		MockMultipartFile unique() {
+			long value = ++sequence;
+			for (int i = 0; i < Long.BYTES; i++) {
+				content[i] = (byte) (value >>> (i * 8));
+			}
+			return new MockMultipartFile("image", "upload.jpg", "image/jpeg", content);
+		}
+
+		MockMultipartFile same() {
+			return new MockMultipartFile("image", "upload.jpg", "image/jpeg", content);
+		}
+
+	}
+
+	@Benchmark
+	public String storeNewImage(CatalogState catalog, Upload upload) throws IOException {
+		return catalog.imageStorageService.store(upload.unique(), "product_img");
+	}
+
+	// A vendor image uploaded again: hashed and written to a temp file, then dropped
+	@Benchmark
+	public String storeDuplicateImage(CatalogState catalog, Upload upload) throws IOException {
+		return catalog.imageStorageService.store(upload.same(), "product_img");
+	}
+
+}
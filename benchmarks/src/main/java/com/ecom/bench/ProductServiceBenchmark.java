@@ -0,0 +1,125 @@
+package com.ecom.bench;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.mock.web.MockMultipartFile;
+
+import com.ecom.dto.CursorPage;
+import com.ecom.dto.ProductSummary;
+import com.ecom.loadtest.CatalogGenerator;
+import com.ecom.model.Category;
+import com.ecom.model.Product;
+
+// ProductServiceImpl read paths (search, page-number and keyset pagination, the
+// active listing) and the admin update path.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductServiceBenchmark {
+
+	private static final int PAGE_SIZE = 12;
+
+	@State(Scope.Thread)
+	public static class Requests {
+
+		final SplittableRandom random = new SplittableRandom(7);
+
+		final MockMultipartFile noImage = new MockMultipartFile("file", new byte[0]);
+
+		String word() {
+			return CatalogGenerator.NOUNS[random.nextInt(CatalogGenerator.NOUNS.length)];
+		}
+
+		Integer category(CatalogState catalog) {
+			return catalog.categoryIds.get(random.nextInt(catalog.categoryIds.size()));
+		}
+
+		Integer productId(CatalogState catalog) {
+			return random.nextInt(1, catalog.maxProductId + 1);
+		}
+
+	}
+
+	@Benchmark
+	public Page<Product> searchActive(CatalogState catalog, Requests requests) {
+		return catalog.productService.searchActiveProductPagination(0, PAGE_SIZE, null, requests.word());
+	}
+
+	@Benchmark
+	public Page<Product> searchActiveTwoWords(CatalogState catalog, Requests requests) {
+		return catalog.productService.searchActiveProductPagination(0, PAGE_SIZE, null,
+				requests.word() + " " + requests.word());
+	}
+
+	@Benchmark
+	public List<Product> searchAdmin(CatalogState catalog, Requests requests) {
+		return catalog.productService.searchProduct(requests.word());
+	}
+
+	@Benchmark
+	public Page<Product> activePageByNumber(CatalogState catalog, Requests requests) {
+		int pages = Math.max(1, catalog.catalogSize / CatalogState.CATEGORIES / PAGE_SIZE);
+		return catalog.productService.getAllActiveProductPagination(requests.random.nextInt(pages), PAGE_SIZE,
+				requests.category(catalog));
+	}
+
+	@Benchmark
+	public CursorPage<Product> activePageAfterCursor(CatalogState catalog, Requests requests) {
+		String cursor = CursorPage.encode(requests.productId(catalog));
+		return catalog.productService.getAllActiveProductsAfter(cursor, PAGE_SIZE, null);
+	}
+
+	@Benchmark
+	public List<Product> activeListing(CatalogState catalog, Requests requests) {
+		return catalog.productService.getAllActiveProducts(requests.category(catalog));
+	}
+
+	// The admin grid and the JSON API read straight from the database
+	@Benchmark
+	public CursorPage<Product> adminPageAfterCursor(CatalogState catalog, Requests requests) {
+		String cursor = CursorPage.encode(requests.productId(catalog));
+		return catalog.productService.getAllProductsAfter(cursor, PAGE_SIZE);
+	}
+
+	@Benchmark
+	public CursorPage<ProductSummary> apiSummariesAfterCursor(CatalogState catalog, Requests requests) {
+		String cursor = CursorPage.encode(requests.productId(catalog));
+		return catalog.productService.getActiveProductSummariesAfter(cursor, PAGE_SIZE, requests.category(catalog));
+	}
+
+	@Benchmark
+	public Product getById(CatalogState catalog, Requests requests) {
+		return catalog.productService.getProductById(requests.productId(catalog));
+	}
+
+	@Benchmark
+	public Product update(CatalogState catalog, Requests requests) {
+		Product product = catalog.productService.getProductById(requests.productId(catalog));
+		Category category = new Category();
+		category.setId(requests.category(catalog));
+
+		Product form = product.toBuilder()
+				.category(category)
+				.price(BigDecimal.valueOf(100 + requests.random.nextInt(200_000), 2))
+				.stock(requests.random.nextInt(500))
+				.discount(requests.random.nextInt(50))
+				.build();
+		return catalog.productService.updateProduct(form, requests.noImage);
+	}
+
+}
@@ -0,0 +1,315 @@
+package com.ecom.load;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import com.ecom.dto.CursorPage;
+import com.ecom.loadtest.CatalogGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+// Closed-loop HTTP load driver for a running instance, normally one started with
+// the "loadtest" profile. Each client thread repeatedly picks a scenario by weight
+// (storefront browse, search, admin edit) and replays its requests; latencies are
+// recorded per request type after the warm-up and reported as throughput and
+// percentiles, on the console and as JSON.
+//
+//   java -cp target/benchmarks.jar com.ecom.load.LoadDriver --url=http://localhost:8080
+//        --clients=64 --warmup=10 --duration=60 --mix=browse=60,search=30,edit=10
+public class LoadDriver {
+
+	private static final String[] OPERATIONS = { "browse_page", "browse_next_page", "api_browse", "api_products",
+			"search_page", "api_search", "api_product", "admin_edit_form", "admin_update" };
+
+	private final HttpClient client = HttpClient.newBuilder()
+			.version(HttpClient.Version.HTTP_1_1)
+			.connectTimeout(Duration.ofSeconds(5))
+			.build();
+
+	private final ObjectMapper mapper = new ObjectMapper();
+
+	private final Map<String, Stats> stats = new LinkedHashMap<>();
+
+	private final Map<String, String> options;
+
+	private final String baseUrl;
+
+	private final int products;
+
+	private final int categories;
+
+	private final String[] scenarios;
+
+	private final int[] cumulativeWeights;
+
+	private volatile boolean running = true;
+
+	LoadDriver(Map<String, String> options) {
+		this.options = options;
+		this.baseUrl = options.getOrDefault("url", "http://localhost:8080");
+		this.products = Integer.parseInt(options.getOrDefault("products", "1000000"));
+		this.categories = Integer.parseInt(options.getOrDefault("categories", "50"));
+
+		String[] mix = options.getOrDefault("mix", "browse=60,search=30,edit=10").split(",");
+		scenarios = new String[mix.length];
+		cumulativeWeights = new int[mix.length];
+		int total = 0;
+		for (int i = 0; i < mix.length; i++) {
+			String[] entry = mix[i].split("=");
+			scenarios[i] = entry[0].trim();
+			total += Integer.parseInt(entry[1].trim());
+			cumulativeWeights[i] = total;
+		}
+		for (String operation : OPERATIONS) {
+			stats.put(operation, new Stats());
+		}
+	}
+
+	public static void main(String[] args) throws Exception {
+		Map<String, String> options = new LinkedHashMap<>();
+		for (String arg : args) {
+			if (!arg.startsWith("--") || !arg.contains("=")) {
+				throw new IllegalArgumentException("Expected --name=value, got " + arg);
+			}
+			options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+		}
+		new LoadDriver(options).run();
+	}
+
+	void run() throws Exception {
+		int clients = Integer.parseInt(options.getOrDefault("clients", "32"));
+		long warmup = Long.parseLong(options.getOrDefault("warmup", "10"));
+		long duration = Long.parseLong(options.getOrDefault("duration", "60"));
+		long seed = Long.parseLong(options.getOrDefault("seed", "1"));
+
+		List<Thread> threads = new ArrayList<>(clients);
+		for (int i = 0; i < clients; i++) {
+			SplittableRandom random = new SplittableRandom(seed + i);
+			Thread thread = new Thread(() -> clientLoop(random), "load-client-" + i);
+			thread.setDaemon(true);
+			threads.add(thread);
+			thread.start();
+		}
+
+		System.out.printf("%d clients against %s: %ds warm-up, %ds measured%n", clients, baseUrl, warmup, duration);
+		Thread.sleep(warmup * 1000);
+		stats.values().forEach(Stats::reset);
+		long start = System.nanoTime();
+		Thread.sleep(duration * 1000);
+		Map<String, Histogram> histograms = new LinkedHashMap<>();
+		stats.forEach((operation, s) -> histograms.put(operation, s.recorder.getIntervalHistogram()));
+		double seconds = (System.nanoTime() - start) / 1e9;
+		running = false;
+		for (Thread thread : threads) {
+			thread.join(10_000);
+		}
+
+		report(histograms, seconds);
+	}
+
+	private void clientLoop(SplittableRandom random) {
+		while (running) {
+			int roll = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+			int scenario = 0;
+			while (cumulativeWeights[scenario] <= roll) {
+				scenario++;
+			}
+			try {
+				switch (scenarios[scenario]) {
+				case "browse" -> browse(random);
+				case "search" -> search(random);
+				case "edit" -> edit(random);
+				default -> throw new IllegalArgumentException("Unknown scenario " + scenarios[scenario]);
+				}
+			} catch (IOException e) {
+				// Counted in the operation's errors; keep the load going
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+		}
+	}
+
+	// A shopper opening a category, sometimes paging on, plus the JSON calls a client app makes
+	private void browse(SplittableRandom random) throws IOException, InterruptedException {
+		int category = 1 + random.nextInt(categories);
+		switch (random.nextInt(4)) {
+		case 0 -> get("browse_page", "/products?category=" + category);
+		case 1 -> get("browse_next_page", "/products?category=" + category + "&cursor="
+				+ CursorPage.encode(1 + random.nextInt(products)));
+		case 2 -> get("api_browse", "/api/browse?category=" + category + "&priceBand=" + random.nextInt(5)
+				+ (random.nextBoolean() ? "&inStock=true" : ""));
+		default -> get("api_products", "/api/products?category=" + category);
+		}
+	}
+
+	private void search(SplittableRandom random) throws IOException, InterruptedException {
+		String term = switch (random.nextInt(3)) {
+		case 0 -> CatalogGenerator.BRANDS[random.nextInt(CatalogGenerator.BRANDS.length)];
+		case 1 -> CatalogGenerator.NOUNS[random.nextInt(CatalogGenerator.NOUNS.length)];
+		default -> CatalogGenerator.ADJECTIVES[random.nextInt(CatalogGenerator.ADJECTIVES.length)] + " "
+				+ CatalogGenerator.NOUNS[random.nextInt(CatalogGenerator.NOUNS.length)];
+		};
+		String query = URLEncoder.encode(term, StandardCharsets.UTF_8);
+		if (random.nextBoolean()) {
+			get("search_page", "/products?ch=" + query);
+		} else {
+			get("api_search", "/api/products/search?q=" + query);
+		}
+	}
+
+	// An admin opening a product and saving it with a new price and stock
+	private void edit(SplittableRandom random) throws IOException, InterruptedException {
+		int id = 1 + random.nextInt(products);
+		HttpResponse<String> current = send("api_product", HttpRequest.newBuilder(uri("/api/products/" + id)).build(),
+				HttpResponse.BodyHandlers.ofString(), 200, 404);
+		if (current.statusCode() != 200) {
+			// Inactive products are not served by the API
+			return;
+		}
+		JsonNode product = mapper.readTree(current.body());
+		get("admin_edit_form", "/admin/editProduct/" + id);
+
+		Map<String, String> form = new LinkedHashMap<>();
+		form.put("id", String.valueOf(id));
+		form.put("title", product.path("title").asText());
+		form.put("description", product.path("description").asText(""));
+		form.put("category.id", product.path("categoryId").asText(""));
+		form.put("price", String.format("%d.%02d", 49 + random.nextInt(50_000), random.nextInt(100)));
+		form.put("stock", String.valueOf(random.nextInt(500)));
+		form.put("discount", String.valueOf(product.path("discount").asInt()));
+		form.put("isActive", "true");
+
+		String boundary = "----load" + Long.toHexString(random.nextLong());
+		StringBuilder body = new StringBuilder();
+		form.forEach((name, value) -> body.append("--").append(boundary).append("\r\n")
+				.append("Content-Disposition: form-data; name=\"").append(name).append("\"\r\n\r\n")
+				.append(value).append("\r\n"));
+		body.append("--").append(boundary).append("\r\n")
+				.append("Content-Disposition: form-data; name=\"file\"; filename=\"\"\r\n")
+				.append("Content-Type: application/octet-stream\r\n\r\n\r\n")
+				.append("--").append(boundary).append("--\r\n");
+
+		HttpRequest update = HttpRequest.newBuilder(uri("/admin/updateProduct"))
+				.header("Content-Type", "multipart/form-data; boundary=" + boundary)
+				.POST(HttpRequest.BodyPublishers.ofString(body.toString(), StandardCharsets.UTF_8))
+				.build();
+		// The controller answers with a redirect back to the product list
+		send("admin_update", update, HttpResponse.BodyHandlers.discarding(), 302);
+	}
+
+	private void get(String operation, String path) throws IOException, InterruptedException {
+		send(operation, HttpRequest.newBuilder(uri(path)).build(), HttpResponse.BodyHandlers.discarding(), 200);
+	}
+
+	private <T> HttpResponse<T> send(String operation, HttpRequest request, HttpResponse.BodyHandler<T> handler,
+			int... expectedStatus) throws IOException, InterruptedException {
+		Stats s = stats.get(operation);
+		long start = System.nanoTime();
+		try {
+			HttpResponse<T> response = client.send(request, handler);
+			s.recorder.recordValue((System.nanoTime() - start) / 1000);
+			boolean expected = false;
+			for (int status : expectedStatus) {
+				expected |= response.statusCode() == status;
+			}
+			if (!expected) {
+				s.errors.increment();
+			}
+			return response;
+		} catch (IOException e) {
+			s.errors.increment();
+			throw e;
+		}
+	}
+
+	private URI uri(String path) {
+		return URI.create(baseUrl + path);
+	}
+
+	private void report(Map<String, Histogram> histograms, double seconds) throws IOException {
+		List<Map<String, Object>> results = new ArrayList<>();
+		long totalCount = 0;
+		long totalErrors = 0;
+
+		System.out.printf("%n%-18s %9s %9s %9s %9s %9s %9s %9s %7s%n", "operation", "count", "req/s", "p50 ms",
+				"p90 ms", "p99 ms", "p99.9 ms", "max ms", "errors");
+		for (Map.Entry<String, Histogram> entry : histograms.entrySet()) {
+			Histogram histogram = entry.getValue();
+			long errors = stats.get(entry.getKey()).errors.sum();
+			if (histogram.getTotalCount() == 0 && errors == 0) {
+				continue;
+			}
+			totalCount += histogram.getTotalCount();
+			totalErrors += errors;
+
+			Map<String, Object> result = new LinkedHashMap<>();
+			result.put("operation", entry.getKey());
+			result.put("count", histogram.getTotalCount());
+			result.put("throughputPerSecond", histogram.getTotalCount() / seconds);
+			result.put("p50Ms", millis(histogram, 50));
+			result.put("p90Ms", millis(histogram, 90));
+			result.put("p99Ms", millis(histogram, 99));
+			result.put("p999Ms", millis(histogram, 99.9));
+			result.put("maxMs", histogram.getMaxValue() / 1000.0);
+			result.put("errors", errors);
+			results.add(result);
+
+			System.out.printf("%-18s %9d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f %7d%n", entry.getKey(),
+					histogram.getTotalCount(), histogram.getTotalCount() / seconds, millis(histogram, 50),
+					millis(histogram, 90), millis(histogram, 99), millis(histogram, 99.9),
+					histogram.getMaxValue() / 1000.0, errors);
+		}
+		System.out.printf("%-18s %9d %9.1f %59d%n", "total", totalCount, totalCount / seconds, totalErrors);
+
+		Map<String, Object> document = new LinkedHashMap<>();
+		document.put("options", options);
+		document.put("measuredSeconds", seconds);
+		document.put("totalRequests", totalCount);
+		document.put("totalThroughputPerSecond", totalCount / seconds);
+		document.put("totalErrors", totalErrors);
+		document.put("operations", results);
+
+		Path out = Path.of(options.getOrDefault("out", "target/load-result.json"));
+		if (out.getParent() != null) {
+			Files.createDirectories(out.getParent());
+		}
+		mapper.writerWithDefaultPrettyPrinter().writeValue(out.toFile(), document);
+		System.out.println("Results written to " + out);
+	}
+
+	private static double millis(Histogram histogram, double percentile) {
+		return histogram.getValueAtPercentile(percentile) / 1000.0;
+	}
+
+	private static final class Stats {
+
+		final Recorder recorder = new Recorder(3);
+
+		final LongAdder errors = new LongAdder();
+
+		void reset() {
+			recorder.reset();
+			errors.reset();
+		}
+
+	}
+
+}
@@ -0,0 +1,310 @@
+package com.ecom.catalog;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+
+import com.ecom.dto.CursorPage;
+import com.ecom.model.Product;
+
+// Immutable view of the catalog. Every write produces a new snapshot that shares
+// all untouched lists with the previous one, so readers never need a lock.
+// Products are grouped by category id, all of them and the active ones separately;
+// key 0 holds products without a category. The ProductColumns used by facet scans are
+// built by the first facet query against the snapshot, so writes that nobody browses
+// in between (stock flushes, admin edits) never pay for them.
+public final class CatalogSnapshot {
+
+	private static final Comparator<Product> BY_ID = Comparator.comparing(Product::getId);
+
+	private final long version;
+
+	private final Map<Integer, Product> byId;
+
+	private final List<Product> all;
+
+	private final List<Product> active;
+
+	private final Map<Integer, List<Product>> byCategory;
+
+	private final Map<Integer, List<Product>> activeByCategory;
+
+	private final Map<Integer, Integer> activeCounts;
+
+	private final ReentrantLock columnsLock = new ReentrantLock();
+
+	private volatile ProductColumns columns;
+
+	private CatalogSnapshot(long version, Map<Integer, Product> byId, List<Product> all, List<Product> active,
+			Map<Integer, List<Product>> byCategory, Map<Integer, List<Product>> activeByCategory,
+			Map<Integer, Integer> activeCounts) {
+		this.version = version;
+		this.byId = byId;
+		this.all = all;
+		this.active = active;
+		this.byCategory = byCategory;
+		this.activeByCategory = activeByCategory;
+		this.activeCounts = activeCounts;
+	}
+
+	public static CatalogSnapshot of(Collection<Product> products) {
+		return of(products, 1);
+	}
+
+	private static CatalogSnapshot of(Collection<Product> products, long version) {
+		Map<Integer, Product> byId = new HashMap<>(products.size() * 2);
+		for (Product product : products) {
+			byId.put(product.getId(), product.toBuilder().build());
+		}
+
+		List<Product> all = new ArrayList<>(byId.values());
+		all.sort(BY_ID);
+
+		List<Product> active = new ArrayList<>();
+		Map<Integer, List<Product>> byCategory = new HashMap<>();
+		Map<Integer, List<Product>> activeByCategory = new HashMap<>();
+		Map<Integer, Integer> activeCounts = new HashMap<>();
+		for (Product product : all) {
+			if (isActive(product)) {
+				active.add(product);
+				activeByCategory.computeIfAbsent(categoryKey(product), k -> new ArrayList<>()).add(product);
+				activeCounts.merge(categoryKey(product), 1, Integer::sum);
+			}
+			byCategory.computeIfAbsent(categoryKey(product), k -> new ArrayList<>()).add(product);
+		}
+		byCategory.replaceAll((k, v) -> Collections.unmodifiableList(v));
+		activeByCategory.replaceAll((k, v) -> Collections.unmodifiableList(v));
+
+		return new CatalogSnapshot(version, Collections.unmodifiableMap(byId), Collections.unmodifiableList(all),
+				Collections.unmodifiableList(active), Collections.unmodifiableMap(byCategory),
+				Collections.unmodifiableMap(activeByCategory), Collections.unmodifiableMap(activeCounts));
+	}
+
+	public long getVersion() {
+		return version;
+	}
+
+	public int size() {
+		return all.size();
+	}
+
+	public Product get(Integer id) {
+		return byId.get(id);
+	}
+
+	public List<Product> all() {
+		return all;
+	}
+
+	public List<Product> active() {
+		return active;
+	}
+
+	// Every product of the category, active or not
+	public List<Product> byCategory(Integer categoryId) {
+		return byCategory.getOrDefault(categoryId, List.of());
+	}
+
+	// What the storefront lists for a category
+	public List<Product> activeByCategory(Integer categoryId) {
+		return activeByCategory.getOrDefault(categoryId, List.of());
+	}
+
+	// Number of active products per category id, kept up to date on every write.
+	public Map<Integer, Integer> activeCounts() {
+		return activeCounts;
+	}
+
+	ProductColumns columns() {
+		ProductColumns built = columns;
+		if (built != null) {
+			return built;
+		}
+		columnsLock.lock();
+		try {
+			if (columns == null) {
+				columns = ProductColumns.of(this);
+			}
+			return columns;
+		} finally {
+			columnsLock.unlock();
+		}
+	}
+
+	public static Page<Product> page(List<Product> products, int pageNo, int pageSize) {
+		PageRequest pageable = PageRequest.of(pageNo, pageSize);
+		int from = (int) Math.min(pageable.getOffset(), products.size());
+		int to = Math.min(from + pageSize, products.size());
+		return new PageImpl<>(products.subList(from, to), pageable, products.size());
+	}
+
+	public static CursorPage<Product> pageAfter(List<Product> products, String cursor, int pageSize) {
+		int lastId = CursorPage.decode(cursor);
+		int index = indexOf(products, lastId);
+		int from = index >= 0 ? index + 1 : -index - 1;
+		int to = Math.min(from + pageSize, products.size());
+		boolean hasNext = to < products.size();
+		String nextCursor = hasNext ? CursorPage.encode(products.get(to - 1).getId()) : null;
+		return new CursorPage<>(products.subList(from, to), nextCursor, !hasNext, (long) products.size());
+	}
+
+	public CatalogSnapshot with(Product product) {
+		return withAll(List.of(product));
+	}
+
+	// Applies many updates in one pass: every list that holds an updated product is
+	// merged with the id-ordered updates once, untouched categories are shared.
+	public CatalogSnapshot withAll(Collection<Product> products) {
+		if (products.isEmpty()) {
+			return this;
+		}
+		// Id order, the last update of a product wins
+		TreeMap<Integer, Product> sortedUpdates = new TreeMap<>();
+		for (Product product : products) {
+			sortedUpdates.put(product.getId(), product.toBuilder().build());
+		}
+		List<Product> updates = new ArrayList<>(sortedUpdates.values());
+
+		Map<Integer, Product> newById = new HashMap<>(byId);
+		// Per category key, the updates that leave or enter it
+		Map<Integer, List<Product>> updatesByCategory = new HashMap<>();
+		for (Product update : updates) {
+			Product previous = newById.put(update.getId(), update);
+			Integer key = categoryKey(update);
+			updatesByCategory.computeIfAbsent(key, k -> new ArrayList<>()).add(update);
+			if (previous != null && !categoryKey(previous).equals(key)) {
+				updatesByCategory.computeIfAbsent(categoryKey(previous), k -> new ArrayList<>()).add(update);
+			}
+		}
+
+		Map<Integer, List<Product>> newByCategory = new HashMap<>(byCategory);
+		Map<Integer, List<Product>> newActiveByCategory = new HashMap<>(activeByCategory);
+		Map<Integer, Integer> newActiveCounts = new HashMap<>(activeCounts);
+		updatesByCategory.forEach((key, categoryUpdates) -> {
+			Predicate<Product> inCategory = product -> categoryKey(product).equals(key);
+			putOrRemove(newByCategory, key, merge(byCategory(key), categoryUpdates, inCategory));
+			List<Product> activeInCategory = merge(activeByCategory(key), categoryUpdates,
+					inCategory.and(CatalogSnapshot::isActive));
+			putOrRemove(newActiveByCategory, key, activeInCategory);
+			if (!activeInCategory.isEmpty() || newActiveCounts.containsKey(key)) {
+				newActiveCounts.put(key, activeInCategory.size());
+			}
+		});
+
+		return new CatalogSnapshot(version + 1, Collections.unmodifiableMap(newById),
+				merge(all, updates, product -> true), merge(active, updates, CatalogSnapshot::isActive),
+				Collections.unmodifiableMap(newByCategory), Collections.unmodifiableMap(newActiveByCategory),
+				Collections.unmodifiableMap(newActiveCounts));
+	}
+
+	public CatalogSnapshot without(Integer id) {
+		Product previous = byId.get(id);
+		if (previous == null) {
+			return this;
+		}
+
+		Map<Integer, Product> newById = new HashMap<>(byId);
+		newById.remove(id);
+
+		Map<Integer, List<Product>> newByCategory = new HashMap<>(byCategory);
+		Integer key = categoryKey(previous);
+		List<Product> remaining = removeSorted(byCategory(key), id);
+		if (remaining.isEmpty()) {
+			newByCategory.remove(key);
+		} else {
+			newByCategory.put(key, remaining);
+		}
+
+		List<Product> newActive = active;
+		Map<Integer, List<Product>> newActiveByCategory = activeByCategory;
+		Map<Integer, Integer> newActiveCounts = activeCounts;
+		if (isActive(previous)) {
+			newActive = removeSorted(active, id);
+			newActiveByCategory = new HashMap<>(activeByCategory);
+			newActiveByCategory.put(key, removeSorted(activeByCategory(key), id));
+			newActiveByCategory = Collections.unmodifiableMap(newActiveByCategory);
+			newActiveCounts = new HashMap<>(activeCounts);
+			newActiveCounts.merge(key, -1, Integer::sum);
+			newActiveCounts = Collections.unmodifiableMap(newActiveCounts);
+		}
+
+		return new CatalogSnapshot(version + 1, Collections.unmodifiableMap(newById), removeSorted(all, id), newActive,
+				Collections.unmodifiableMap(newByCategory), newActiveByCategory, newActiveCounts);
+	}
+
+	// Merges id-ordered updates into an id-ordered list: the old entry of every
+	// updated product is dropped, and the update is added if it belongs in the list.
+	private static List<Product> merge(List<Product> sorted, List<Product> updates, Predicate<Product> belongs) {
+		List<Product> merged = new ArrayList<>(sorted.size() + updates.size());
+		int i = 0;
+		for (Product update : updates) {
+			int id = update.getId();
+			while (i < sorted.size() && sorted.get(i).getId() < id) {
+				merged.add(sorted.get(i++));
+			}
+			if (i < sorted.size() && sorted.get(i).getId() == id) {
+				i++;
+			}
+			if (belongs.test(update)) {
+				merged.add(update);
+			}
+		}
+		merged.addAll(sorted.subList(i, sorted.size()));
+		return Collections.unmodifiableList(merged);
+	}
+
+	private static void putOrRemove(Map<Integer, List<Product>> lists, Integer key, List<Product> list) {
+		if (list.isEmpty()) {
+			lists.remove(key);
+		} else {
+			lists.put(key, list);
+		}
+	}
+
+	private static List<Product> removeSorted(List<Product> sorted, Integer id) {
+		int index = indexOf(sorted, id);
+		if (index < 0) {
+			return sorted;
+		}
+		List<Product> copy = new ArrayList<>(sorted);
+		copy.remove(index);
+		return Collections.unmodifiableList(copy);
+	}
+
+	private static int indexOf(List<Product> sorted, Integer id) {
+		int low = 0;
+		int high = sorted.size() - 1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			int cmp = sorted.get(mid).getId().compareTo(id);
+			if (cmp < 0) {
+				low = mid + 1;
+			} else if (cmp > 0) {
+				high = mid - 1;
+			} else {
+				return mid;
+			}
+		}
+		return -(low + 1);
+	}
+
+	private static boolean isActive(Product product) {
+		return Boolean.TRUE.equals(product.getIsActive());
+	}
+
+	private static Integer categoryKey(Product product) {
+		return product.getCategory() == null ? 0 : product.getCategory().getId();
+	}
+
+}
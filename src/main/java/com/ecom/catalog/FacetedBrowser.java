@@ -0,0 +1,165 @@
+package com.ecom.catalog;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.ecom.dto.BrowseQuery;
+import com.ecom.dto.BrowseResult;
+import com.ecom.dto.FacetCount;
+import com.ecom.dto.ProductSummary;
+import com.ecom.model.Product;
+
+// Filters active products and counts facets in one pass over ProductColumns.
+// Large catalogs are split into chunks that are scanned on the common fork/join pool.
+@Component
+public class FacetedBrowser {
+
+	private static final int CHUNK_SIZE = 16_384;
+
+	private static final int PARALLEL_THRESHOLD = 4 * CHUNK_SIZE;
+
+	private static final String[] PRICE_LABELS = { "Under ₹500", "₹500 - ₹999", "₹1,000 - ₹4,999", "₹5,000 - ₹9,999",
+			"₹10,000 and above" };
+
+	private static final String[] DISCOUNT_LABELS = { "No discount", "1% - 10%", "11% - 25%", "26% - 50%",
+			"Over 50%" };
+
+	@Autowired
+	private ProductCatalog productCatalog;
+
+	public BrowseResult browse(BrowseQuery query) {
+		// Built by the first query against this snapshot, then shared
+		ProductColumns cols = productCatalog.snapshot().columns();
+
+		int chunks = (cols.size + CHUNK_SIZE - 1) / CHUNK_SIZE;
+		IntStream range = IntStream.range(0, chunks);
+		if (cols.size >= PARALLEL_THRESHOLD) {
+			range = range.parallel();
+		}
+		// toList() keeps chunk order, so matches stay in id order.
+		List<Partial> partials = range
+				.mapToObj(chunk -> scan(cols, query, chunk * CHUNK_SIZE, Math.min(cols.size, (chunk + 1) * CHUNK_SIZE)))
+				.toList();
+
+		Partial total = new Partial(cols.ordinalCategoryIds.length, 0);
+		for (Partial partial : partials) {
+			total.add(partial);
+		}
+
+		List<ProductSummary> products = new ArrayList<>(query.pageSize());
+		long offset = (long) query.pageNo() * query.pageSize();
+		long skipped = 0;
+		for (Partial partial : partials) {
+			for (int i = 0; i < partial.matchCount && products.size() < query.pageSize(); i++) {
+				if (skipped++ < offset) {
+					continue;
+				}
+				Product product = cols.source.get(cols.ids[partial.matches[i]]);
+				if (product != null) {
+					products.add(ProductSummary.of(product));
+				}
+			}
+		}
+
+		List<FacetCount> categories = new ArrayList<>();
+		for (int ordinal = 0; ordinal < total.categoryCounts.length; ordinal++) {
+			if (total.categoryCounts[ordinal] > 0) {
+				categories.add(new FacetCount(cols.ordinalCategoryIds[ordinal], cols.ordinalCategoryNames[ordinal],
+						total.categoryCounts[ordinal]));
+			}
+		}
+		categories.sort(Comparator.comparing(FacetCount::count).reversed());
+
+		return new BrowseResult(products, query.pageNo(), query.pageSize(), total.matchCount, categories,
+				labelled(total.priceCounts, PRICE_LABELS), labelled(total.discountCounts, DISCOUNT_LABELS),
+				List.of(new FacetCount(1, "In stock", total.stockCounts[1]),
+						new FacetCount(0, "Out of stock", total.stockCounts[0])));
+	}
+
+	// Each facet is counted with all filters except its own applied.
+	private static Partial scan(ProductColumns cols, BrowseQuery query, int from, int to) {
+		Partial partial = new Partial(cols.ordinalCategoryIds.length, to - from);
+		Integer categoryId = query.categoryId();
+		Integer priceBand = query.priceBand();
+		Integer discountBand = query.discountBand();
+		Boolean inStock = query.inStock();
+
+		for (int row = from; row < to; row++) {
+			if (!cols.active[row]) {
+				continue;
+			}
+			boolean stocked = cols.stocks[row] > 0;
+			boolean category = categoryId == null || cols.categoryIds[row] == categoryId;
+			boolean price = priceBand == null || cols.priceBands[row] == priceBand;
+			boolean discount = discountBand == null || cols.discountBands[row] == discountBand;
+			boolean stock = inStock == null || stocked == inStock;
+
+			if (price && discount && stock) {
+				partial.categoryCounts[cols.categoryOrdinals[row]]++;
+			}
+			if (category && discount && stock) {
+				partial.priceCounts[cols.priceBands[row]]++;
+			}
+			if (category && price && stock) {
+				partial.discountCounts[cols.discountBands[row]]++;
+			}
+			if (category && price && discount) {
+				partial.stockCounts[stocked ? 1 : 0]++;
+			}
+			if (category && price && discount && stock) {
+				partial.matches[partial.matchCount++] = row;
+			}
+		}
+		return partial;
+	}
+
+	private static List<FacetCount> labelled(long[] counts, String[] labels) {
+		List<FacetCount> facets = new ArrayList<>(counts.length);
+		for (int band = 0; band < counts.length; band++) {
+			facets.add(new FacetCount(band, labels[band], counts[band]));
+		}
+		return facets;
+	}
+
+	private static final class Partial {
+
+		final long[] categoryCounts;
+
+		final long[] priceCounts = new long[ProductColumns.PRICE_BOUNDS.length + 1];
+
+		final long[] discountCounts = new long[ProductColumns.DISCOUNT_BOUNDS.length + 1];
+
+		final long[] stockCounts = new long[2];
+
+		final int[] matches;
+
+		int matchCount;
+
+		Partial(int categories, int rows) {
+			this.categoryCounts = new long[categories];
+			this.matches = new int[rows];
+		}
+
+		void add(Partial other) {
+			for (int i = 0; i < categoryCounts.length; i++) {
+				categoryCounts[i] += other.categoryCounts[i];
+			}
+			for (int i = 0; i < priceCounts.length; i++) {
+				priceCounts[i] += other.priceCounts[i];
+			}
+			for (int i = 0; i < discountCounts.length; i++) {
+				discountCounts[i] += other.discountCounts[i];
+			}
+			stockCounts[0] += other.stockCounts[0];
+			stockCounts[1] += other.stockCounts[1];
+			matchCount += other.matchCount;
+		}
+
+	}
+
+}
@@ -0,0 +1,98 @@
+package com.ecom.catalog;
+
+import java.util.Arrays;
+
+// Immutable posting list: product ids in ascending order with a parallel array of
+// field-weighted term frequencies.
+final class Postings {
+
+	static final Postings EMPTY = new Postings(new int[0], new float[0]);
+
+	final int[] ids;
+
+	final float[] weights;
+
+	Postings(int[] ids, float[] weights) {
+		this.ids = ids;
+		this.weights = weights;
+	}
+
+	int size() {
+		return ids.length;
+	}
+
+	Postings with(int id, float weight) {
+		int index = Arrays.binarySearch(ids, id);
+		if (index >= 0) {
+			float[] newWeights = weights.clone();
+			newWeights[index] = weight;
+			return new Postings(ids, newWeights);
+		}
+		int insert = -index - 1;
+		int[] newIds = new int[ids.length + 1];
+		float[] newWeights = new float[ids.length + 1];
+		System.arraycopy(ids, 0, newIds, 0, insert);
+		System.arraycopy(weights, 0, newWeights, 0, insert);
+		newIds[insert] = id;
+		newWeights[insert] = weight;
+		System.arraycopy(ids, insert, newIds, insert + 1, ids.length - insert);
+		System.arraycopy(weights, insert, newWeights, insert + 1, ids.length - insert);
+		return new Postings(newIds, newWeights);
+	}
+
+	Postings without(int id) {
+		int index = Arrays.binarySearch(ids, id);
+		if (index < 0) {
+			return this;
+		}
+		if (ids.length == 1) {
+			return EMPTY;
+		}
+		int[] newIds = new int[ids.length - 1];
+		float[] newWeights = new float[ids.length - 1];
+		System.arraycopy(ids, 0, newIds, 0, index);
+		System.arraycopy(weights, 0, newWeights, 0, index);
+		System.arraycopy(ids, index + 1, newIds, index, ids.length - index - 1);
+		System.arraycopy(weights, index + 1, newWeights, index, ids.length - index - 1);
+		return new Postings(newIds, newWeights);
+	}
+
+	// Sums two scored lists, keeping ids present in either one.
+	static Postings union(Postings a, float scaleA, Postings b, float scaleB) {
+		int[] ids = new int[a.size() + b.size()];
+		float[] weights = new float[ids.length];
+		int i = 0, j = 0, n = 0;
+		while (i < a.size() || j < b.size()) {
+			if (j >= b.size() || (i < a.size() && a.ids[i] < b.ids[j])) {
+				ids[n] = a.ids[i];
+				weights[n++] = a.weights[i++] * scaleA;
+			} else if (i >= a.size() || b.ids[j] < a.ids[i]) {
+				ids[n] = b.ids[j];
+				weights[n++] = b.weights[j++] * scaleB;
+			} else {
+				ids[n] = a.ids[i];
+				weights[n++] = a.weights[i++] * scaleA + b.weights[j++] * scaleB;
+			}
+		}
+		return new Postings(Arrays.copyOf(ids, n), Arrays.copyOf(weights, n));
+	}
+
+	// Sums two scored lists, keeping only ids present in both.
+	static Postings intersect(Postings a, float scaleA, Postings b, float scaleB) {
+		int[] ids = new int[Math.min(a.size(), b.size())];
+		float[] weights = new float[ids.length];
+		int i = 0, j = 0, n = 0;
+		while (i < a.size() && j < b.size()) {
+			if (a.ids[i] < b.ids[j]) {
+				i++;
+			} else if (a.ids[i] > b.ids[j]) {
+				j++;
+			} else {
+				ids[n] = a.ids[i];
+				weights[n++] = a.weights[i++] * scaleA + b.weights[j++] * scaleB;
+			}
+		}
+		return new Postings(Arrays.copyOf(ids, n), Arrays.copyOf(weights, n));
+	}
+
+}
@@ -0,0 +1,206 @@
+package com.ecom.catalog;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import com.ecom.event.CatalogEvent;
+import com.ecom.event.CatalogEventListener;
+import com.ecom.model.Category;
+import com.ecom.model.Product;
+import com.ecom.repositories.ProductRepository;
+
+// Holds the current CatalogSnapshot. Loaded from the database once, then kept in
+// sync by catalog events instead of being reloaded.
+//
+// version() goes up on every catalog write, after the snapshot has been swapped;
+// anything derived from the catalog (rendered pages, ETags) is valid for one version.
+// contentVersion() goes up on the same writes except stock flushes that leave every
+// product in stock or out of stock as it was, so what only shows availability (or
+// does not look at stock at all) is not thrown away on every flush.
+//
+// Listens first and synchronously: the search and typeahead indexes read products
+// from the snapshot, and a request that follows a write must see it.
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ProductCatalog implements CatalogEventListener {
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	private final ReentrantLock writeLock = new ReentrantLock();
+
+	private volatile CatalogSnapshot snapshot;
+
+	private final AtomicLong version = new AtomicLong();
+
+	private final AtomicLong contentVersion = new AtomicLong();
+
+	public CatalogSnapshot snapshot() {
+		CatalogSnapshot current = snapshot;
+		if (current != null) {
+			return current;
+		}
+		writeLock.lock();
+		try {
+			if (snapshot == null) {
+				snapshot = CatalogSnapshot.of(productRepository.findAllForCatalog());
+			}
+			return snapshot;
+		} finally {
+			writeLock.unlock();
+		}
+	}
+
+	@Override
+	public void onEvents(List<CatalogEvent> events) {
+		// Runs of product writes go into the snapshot with one swap
+		Map<Integer, Product> pending = new LinkedHashMap<>();
+		boolean stockOnly = true;
+		for (CatalogEvent event : events) {
+			if (event.product() != null) {
+				pending.put(event.entityId(), event.product());
+				stockOnly &= event.type() == CatalogEvent.Type.PRODUCT_STOCK_CHANGED;
+				continue;
+			}
+			if (!pending.isEmpty()) {
+				putAll(pending.values(), stockOnly);
+				pending.clear();
+				stockOnly = true;
+			}
+			if (event.type() == CatalogEvent.Type.PRODUCT_DELETED) {
+				remove(event.entityId());
+			} else if (event.type() == CatalogEvent.Type.CATEGORY_UPDATED) {
+				refreshCategory(event.category());
+			} else {
+				touch();
+			}
+		}
+		if (!pending.isEmpty()) {
+			putAll(pending.values(), stockOnly);
+		}
+	}
+
+	@Override
+	public void onReload() {
+		reload();
+	}
+
+	@Override
+	public boolean isSynchronous() {
+		return true;
+	}
+
+	public long version() {
+		return version.get();
+	}
+
+	public long contentVersion() {
+		return contentVersion.get();
+	}
+
+	// For writes that change what the storefront shows without touching a product,
+	// such as a new or deleted category.
+	public void touch() {
+		bump(true);
+	}
+
+	public CatalogSnapshot reload() {
+		writeLock.lock();
+		try {
+			snapshot = CatalogSnapshot.of(productRepository.findAllForCatalog());
+			bump(true);
+			return snapshot;
+		} finally {
+			writeLock.unlock();
+		}
+	}
+
+	public void put(Product product) {
+		writeLock.lock();
+		try {
+			// Not loaded yet: the first read will pick the row up from the database.
+			if (snapshot != null) {
+				snapshot = snapshot.with(product);
+			}
+			bump(true);
+		} finally {
+			writeLock.unlock();
+		}
+	}
+
+	public void putAll(Collection<Product> products) {
+		putAll(products, false);
+	}
+
+	// stockOnly: the products only differ from the snapshot in their stock
+	private void putAll(Collection<Product> products, boolean stockOnly) {
+		writeLock.lock();
+		try {
+			boolean contentChanged = !stockOnly || snapshot == null;
+			for (Product product : products) {
+				if (contentChanged) {
+					break;
+				}
+				Product before = snapshot.get(product.getId());
+				contentChanged = before == null || (before.getStock() > 0) != (product.getStock() > 0);
+			}
+			if (snapshot != null) {
+				snapshot = snapshot.withAll(products);
+			}
+			bump(contentChanged);
+		} finally {
+			writeLock.unlock();
+		}
+	}
+
+	// Points every product of a renamed or re-flagged category at its new state and
+	// returns the updated copies.
+	public List<Product> refreshCategory(Category category) {
+		writeLock.lock();
+		try {
+			if (snapshot == null) {
+				bump(true);
+				return List.of();
+			}
+			List<Product> updated = new ArrayList<>();
+			for (Product product : snapshot.byCategory(category.getId())) {
+				updated.add(product.toBuilder().category(category).build());
+			}
+			snapshot = snapshot.withAll(updated);
+			bump(true);
+			return updated;
+		} finally {
+			writeLock.unlock();
+		}
+	}
+
+	public void remove(Integer id) {
+		writeLock.lock();
+		try {
+			if (snapshot != null) {
+				snapshot = snapshot.without(id);
+			}
+			bump(true);
+		} finally {
+			writeLock.unlock();
+		}
+	}
+
+	private void bump(boolean content) {
+		if (content) {
+			contentVersion.incrementAndGet();
+		}
+		version.incrementAndGet();
+	}
+
+}
@@ -0,0 +1,120 @@
+package com.ecom.catalog;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.ecom.model.Product;
+
+// Column-oriented copy of one catalog snapshot: one primitive array per attribute,
+// indexed by row (rows are in id order). Facet scans touch only these arrays.
+public final class ProductColumns {
+
+	// Upper bounds of the price bands in paise (on the discounted price); the last band is open.
+	static final long[] PRICE_BOUNDS = { 50_000, 100_000, 500_000, 1_000_000 };
+
+	// Lower bounds of the discount bands after "no discount": 1-10, 11-25, 26-50, 51+.
+	static final int[] DISCOUNT_BOUNDS = { 1, 11, 26, 51 };
+
+	final CatalogSnapshot source;
+
+	final int size;
+
+	final int[] ids;
+
+	final int[] categoryIds;
+
+	// Dense 0..n-1 number per distinct category, so counts can live in a plain array.
+	final int[] categoryOrdinals;
+
+	final int[] ordinalCategoryIds;
+
+	final String[] ordinalCategoryNames;
+
+	// Prices are fixed-point, in paise (1/100 rupee)
+	final long[] prices;
+
+	final long[] discountPrices;
+
+	final int[] discounts;
+
+	final int[] stocks;
+
+	final boolean[] active;
+
+	final byte[] priceBands;
+
+	final byte[] discountBands;
+
+	private ProductColumns(CatalogSnapshot source, int size) {
+		this.source = source;
+		this.size = size;
+		this.ids = new int[size];
+		this.categoryIds = new int[size];
+		this.categoryOrdinals = new int[size];
+		this.prices = new long[size];
+		this.discountPrices = new long[size];
+		this.discounts = new int[size];
+		this.stocks = new int[size];
+		this.active = new boolean[size];
+		this.priceBands = new byte[size];
+		this.discountBands = new byte[size];
+
+		Map<Integer, Integer> ordinals = new HashMap<>();
+		Map<Integer, String> names = new HashMap<>();
+		List<Product> products = source.all();
+		for (int row = 0; row < size; row++) {
+			Product product = products.get(row);
+			int categoryId = product.getCategory() == null ? 0 : product.getCategory().getId();
+			if (!ordinals.containsKey(categoryId)) {
+				ordinals.put(categoryId, ordinals.size());
+				names.put(categoryId, product.getCategory() == null ? null : product.getCategory().getName());
+			}
+
+			ids[row] = product.getId();
+			categoryIds[row] = categoryId;
+			categoryOrdinals[row] = ordinals.get(categoryId);
+			prices[row] = paise(product.getPrice(), 0);
+			discountPrices[row] = paise(product.getDiscountPrice(), prices[row]);
+			discounts[row] = product.getDiscount();
+			stocks[row] = product.getStock();
+			active[row] = Boolean.TRUE.equals(product.getIsActive());
+			priceBands[row] = (byte) priceBand(discountPrices[row]);
+			discountBands[row] = (byte) discountBand(discounts[row]);
+		}
+
+		this.ordinalCategoryIds = new int[ordinals.size()];
+		this.ordinalCategoryNames = new String[ordinals.size()];
+		ordinals.forEach((categoryId, ordinal) -> {
+			ordinalCategoryIds[ordinal] = categoryId;
+			ordinalCategoryNames[ordinal] = names.get(categoryId);
+		});
+	}
+
+	static ProductColumns of(CatalogSnapshot snapshot) {
+		return new ProductColumns(snapshot, snapshot.size());
+	}
+
+	private static long paise(BigDecimal amount, long fallback) {
+		return amount == null ? fallback : amount.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValue();
+	}
+
+	static int priceBand(long price) {
+		int band = 0;
+		while (band < PRICE_BOUNDS.length && price >= PRICE_BOUNDS[band]) {
+			band++;
+		}
+		return band;
+	}
+
+	static int discountBand(int discount) {
+		int band = 0;
+		while (band < DISCOUNT_BOUNDS.length && discount >= DISCOUNT_BOUNDS[band]) {
+			band++;
+		}
+		return band;
+	}
+
+}
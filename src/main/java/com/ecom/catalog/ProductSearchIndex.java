@@ -0,0 +1,370 @@
+package com.ecom.catalog;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntPredicate;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.ecom.event.CatalogEvent;
+import com.ecom.event.CatalogEventListener;
+import com.ecom.model.Product;
+
+// In-process full text index over product title, category and description.
+// Terms map to immutable posting lists; the term dictionary is sorted so the last
+// word of a query can be matched as a prefix ("lap" finds "laptop").
+//
+// Searches take no lock. Single products are re-indexed in place, one posting list
+// swap per term; a rebuild fills fresh maps and publishes them with one volatile
+// write, so a search sees either the old index or the new one, never a half-built one.
+@Component
+public class ProductSearchIndex implements CatalogEventListener {
+
+	private static final float TITLE_WEIGHT = 3f;
+
+	private static final float CATEGORY_WEIGHT = 2f;
+
+	private static final float DESCRIPTION_WEIGHT = 1f;
+
+	private static final int MAX_PREFIX_EXPANSIONS = 64;
+
+	// Re-indexing a product copies every posting list it is in, so past this many
+	// products a rebuild from scratch is cheaper
+	private static final int MAX_INCREMENTAL_REINDEX = 1000;
+
+	@Autowired
+	private ProductCatalog productCatalog;
+
+	private final ReentrantLock writeLock = new ReentrantLock();
+
+	// Null until first built
+	private volatile Index index;
+
+	@Override
+	public void onEvents(List<CatalogEvent> events) {
+		for (CatalogEvent event : events) {
+			if (event.product() != null) {
+				index(event.product());
+			} else if (event.type() == CatalogEvent.Type.PRODUCT_DELETED) {
+				remove(event.entityId());
+			} else if (event.type() == CatalogEvent.Type.CATEGORY_UPDATED) {
+				// Products are indexed with their category name; the catalog has already
+				// pointed them at the new one
+				List<Product> products = productCatalog.snapshot().byCategory(event.entityId());
+				if (products.size() > MAX_INCREMENTAL_REINDEX) {
+					rebuild();
+				} else {
+					products.forEach(this::index);
+				}
+			}
+		}
+	}
+
+	@Override
+	public void onReload() {
+		rebuild();
+	}
+
+	public void index(Product product) {
+		writeLock.lock();
+		try {
+			Index current = index;
+			// Not built yet: the build reads the catalog, which already has this product.
+			if (current == null) {
+				return;
+			}
+			current.removeTerms(product.getId());
+			Map<String, Float> terms = termWeights(product);
+			terms.forEach((term, weight) -> current.postings.merge(term, Postings.EMPTY.with(product.getId(), weight),
+					(list, added) -> list.with(product.getId(), weight)));
+			current.documentTerms.put(product.getId(), terms.keySet().toArray(new String[0]));
+		} finally {
+			writeLock.unlock();
+		}
+	}
+
+	public void remove(Integer id) {
+		writeLock.lock();
+		try {
+			Index current = index;
+			if (current != null) {
+				current.removeTerms(id);
+			}
+		} finally {
+			writeLock.unlock();
+		}
+	}
+
+	public void rebuild() {
+		writeLock.lock();
+		try {
+			// Searches keep using the current index until the new one is published
+			index = build();
+		} finally {
+			writeLock.unlock();
+		}
+	}
+
+	// Returns matching product ids, best match first. Every query word must match;
+	// the last one may match as a prefix.
+	public int[] search(String query, IntPredicate filter) {
+		return search(query, filter, 0, Integer.MAX_VALUE).ids();
+	}
+
+	// Returns one page of the ranking, limit ids from offset on, and the number of
+	// matches that pass the filter. Only offset + limit matches are ever ordered.
+	public Hits search(String query, IntPredicate filter, int offset, int limit) {
+		Index current = loaded();
+
+		List<String> words = SearchTokenizer.tokenize(query);
+		if (words.isEmpty()) {
+			return Hits.NONE;
+		}
+
+		List<Scored> perWord = new ArrayList<>(words.size());
+		for (int i = 0; i < words.size(); i++) {
+			Scored matches = i == words.size() - 1 ? current.prefixMatches(words.get(i))
+					: current.exactMatches(words.get(i));
+			if (matches.postings().size() == 0) {
+				return Hits.NONE;
+			}
+			perWord.add(matches);
+		}
+
+		// Intersect the rarest lists first to keep intermediate results small.
+		perWord.sort(Comparator.comparingInt(matches -> matches.postings().size()));
+		Scored result = perWord.get(0);
+		for (int i = 1; i < perWord.size() && result.postings().size() > 0; i++) {
+			Scored next = perWord.get(i);
+			result = new Scored(Postings.intersect(result.postings(), result.scale(), next.postings(), next.scale()),
+					1f);
+		}
+		return rank(result, filter, Math.max(offset, 0), Math.max(limit, 0));
+	}
+
+	// Keeps the best offset + limit matches in a bounded heap, worst on top, then
+	// orders just those.
+	private static Hits rank(Scored result, IntPredicate filter, int offset, int limit) {
+		Postings postings = result.postings();
+		int capacity = (int) Math.min((long) offset + limit, postings.size());
+		int[] heap = new int[capacity];
+		int size = 0;
+		int total = 0;
+		for (int i = 0; i < postings.size(); i++) {
+			if (!filter.test(postings.ids[i])) {
+				continue;
+			}
+			total++;
+			if (size < capacity) {
+				heap[size] = i;
+				siftUp(heap, size++, postings);
+			} else if (capacity > 0 && ranksBefore(postings, i, heap[0])) {
+				heap[0] = i;
+				siftDown(heap, size, postings);
+			}
+		}
+
+		// Pops the worst first, so the ranking fills from the back
+		int[] ranked = new int[size];
+		for (int n = size; n > 0; n--) {
+			ranked[n - 1] = postings.ids[heap[0]];
+			heap[0] = heap[n - 1];
+			siftDown(heap, n - 1, postings);
+		}
+		int from = Math.min(offset, size);
+		return new Hits(from == 0 ? ranked : Arrays.copyOfRange(ranked, from, size), total);
+	}
+
+	// Higher score first, then lower id. The list's scale is the same for every
+	// entry, so the raw weights order them.
+	private static boolean ranksBefore(Postings postings, int a, int b) {
+		int cmp = Float.compare(postings.weights[a], postings.weights[b]);
+		return cmp != 0 ? cmp > 0 : postings.ids[a] < postings.ids[b];
+	}
+
+	private static void siftUp(int[] heap, int index, Postings postings) {
+		int entry = heap[index];
+		while (index > 0) {
+			int parent = (index - 1) >>> 1;
+			if (!ranksBefore(postings, heap[parent], entry)) {
+				break;
+			}
+			heap[index] = heap[parent];
+			index = parent;
+		}
+		heap[index] = entry;
+	}
+
+	private static void siftDown(int[] heap, int size, Postings postings) {
+		if (size == 0) {
+			return;
+		}
+		int entry = heap[0];
+		int index = 0;
+		while (true) {
+			int child = 2 * index + 1;
+			if (child >= size) {
+				break;
+			}
+			if (child + 1 < size && ranksBefore(postings, heap[child], heap[child + 1])) {
+				child++;
+			}
+			if (!ranksBefore(postings, entry, heap[child])) {
+				break;
+			}
+			heap[index] = heap[child];
+			index = child;
+		}
+		heap[index] = entry;
+	}
+
+	private Index loaded() {
+		Index current = index;
+		if (current != null) {
+			return current;
+		}
+		writeLock.lock();
+		try {
+			if (index == null) {
+				index = build();
+			}
+			return index;
+		} finally {
+			writeLock.unlock();
+		}
+	}
+
+	private Index build() {
+		ConcurrentSkipListMap<String, Postings> postings = new ConcurrentSkipListMap<>();
+		ConcurrentHashMap<Integer, String[]> documentTerms = new ConcurrentHashMap<>();
+
+		Map<String, PostingsBuilder> builders = new HashMap<>();
+		// The snapshot is ordered by id, so every builder receives ascending ids.
+		for (Product product : productCatalog.snapshot().all()) {
+			Map<String, Float> terms = termWeights(product);
+			terms.forEach((term, weight) -> builders.computeIfAbsent(term, k -> new PostingsBuilder())
+					.add(product.getId(), weight));
+			documentTerms.put(product.getId(), terms.keySet().toArray(new String[0]));
+		}
+		builders.forEach((term, builder) -> postings.put(term, builder.build()));
+		return new Index(postings, documentTerms);
+	}
+
+	private static Map<String, Float> termWeights(Product product) {
+		Map<String, Float> weights = new LinkedHashMap<>();
+		addField(weights, product.getTitle(), TITLE_WEIGHT);
+		addField(weights, product.getCategory() == null ? null : product.getCategory().getName(), CATEGORY_WEIGHT);
+		addField(weights, product.getDescription(), DESCRIPTION_WEIGHT);
+		return weights;
+	}
+
+	private static void addField(Map<String, Float> weights, String text, float fieldWeight) {
+		List<String> tokens = SearchTokenizer.tokenize(text);
+		if (tokens.isEmpty()) {
+			return;
+		}
+		// Length-normalized so long descriptions do not drown out short titles.
+		float weight = fieldWeight / (float) Math.sqrt(tokens.size());
+		for (String token : tokens) {
+			weights.merge(token, weight, Float::sum);
+		}
+	}
+
+	// One generation of the index. Changed in place only by single-product updates
+	// under writeLock; a rebuild replaces it as a whole.
+	private static final class Index {
+
+		final ConcurrentSkipListMap<String, Postings> postings;
+
+		final ConcurrentHashMap<Integer, String[]> documentTerms;
+
+		Index(ConcurrentSkipListMap<String, Postings> postings, ConcurrentHashMap<Integer, String[]> documentTerms) {
+			this.postings = postings;
+			this.documentTerms = documentTerms;
+		}
+
+		// The posting list itself, not a scaled copy
+		Scored exactMatches(String word) {
+			Postings list = postings.getOrDefault(word, Postings.EMPTY);
+			return new Scored(list, idf(list));
+		}
+
+		Scored prefixMatches(String prefix) {
+			NavigableMap<String, Postings> range = postings.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+			Postings result = Postings.EMPTY;
+			int expansions = 0;
+			for (Map.Entry<String, Postings> entry : range.entrySet()) {
+				if (expansions++ == MAX_PREFIX_EXPANSIONS) {
+					break;
+				}
+				// Exact hits rank above words that only share the prefix.
+				float boost = entry.getKey().length() == prefix.length() ? 1f : 0.8f;
+				result = Postings.union(result, 1f, entry.getValue(), idf(entry.getValue()) * boost);
+			}
+			return new Scored(result, 1f);
+		}
+
+		float idf(Postings list) {
+			return (float) Math.log(1 + (double) documentTerms.size() / (1 + list.size()));
+		}
+
+		void removeTerms(Integer id) {
+			String[] terms = documentTerms.remove(id);
+			if (terms == null) {
+				return;
+			}
+			for (String term : terms) {
+				postings.computeIfPresent(term, (k, list) -> {
+					Postings remaining = list.without(id);
+					return remaining.size() == 0 ? null : remaining;
+				});
+			}
+		}
+
+	}
+
+	// A page of ranked ids and the number of matches it was taken from
+	public record Hits(int[] ids, int total) {
+
+		static final Hits NONE = new Hits(new int[0], 0);
+
+	}
+
+	// A posting list whose weights count scale times
+	private record Scored(Postings postings, float scale) {
+	}
+
+	private static final class PostingsBuilder {
+
+		private int[] ids = new int[4];
+
+		private float[] weights = new float[4];
+
+		private int size;
+
+		void add(int id, float weight) {
+			if (size == ids.length) {
+				ids = Arrays.copyOf(ids, size * 2);
+				weights = Arrays.copyOf(weights, size * 2);
+			}
+			ids[size] = id;
+			weights[size++] = weight;
+		}
+
+		Postings build() {
+			return new Postings(Arrays.copyOf(ids, size), Arrays.copyOf(weights, size));
+		}
+
+	}
+
+}
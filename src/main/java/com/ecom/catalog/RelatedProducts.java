@@ -0,0 +1,447 @@
+package com.ecom.catalog;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.ecom.model.Product;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+
+// Precomputed "related products": the most similar other active products for every
+// active product, recomputed by a batch job whenever the catalog content has changed
+// (ProductCatalog.contentVersion(), which stock flushes do not move).
+//
+// similarity = cosine of the tf-idf word vectors (title words count three times)
+//            + CATEGORY_WEIGHT when both are in the same category
+//            + PRICE_WEIGHT * how close the discounted prices are (as a ratio)
+//
+// Candidates for a product are the products sharing a word with it and its nearest
+// neighbours by price in its own category. Words used by more than MAX_TERM_PRODUCTS
+// products are left out: they say little and would make the job quadratic.
+//
+// The job splits the products into row ranges on its own fork/join pool; each leaf
+// scores its rows against an inverted word index with dense scratch arrays that
+// belong to the worker thread and are reused across leaves and runs. The
+// result is a primitive table indexed by product id (offsets into one array of
+// related ids) that replaces the previous one in a single volatile write, so
+// readers never see a half-built table and a lookup is two array reads.
+@Component
+public class RelatedProducts {
+
+	private static final float TITLE_WEIGHT = 3f;
+
+	private static final float DESCRIPTION_WEIGHT = 1f;
+
+	private static final float CATEGORY_WEIGHT = 0.5f;
+
+	private static final float PRICE_WEIGHT = 0.25f;
+
+	// Price ratio at which prices stop counting as close (4x)
+	private static final double PRICE_RANGE = Math.log(4);
+
+	private static final int MAX_TERM_PRODUCTS = 1000;
+
+	// Rows scored by one fork/join leaf
+	private static final int LEAF_ROWS = 512;
+
+	private static final int[] NONE = new int[0];
+
+	// Per fork/join worker; every row leaves them zeroed for the next one
+	private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+	@Autowired
+	private ProductCatalog productCatalog;
+
+	private final int topN;
+
+	private final ForkJoinPool pool;
+
+	private final ReentrantLock buildLock = new ReentrantLock();
+
+	private final Timer buildTimer;
+
+	private volatile Table table = Table.EMPTY;
+
+	public RelatedProducts(@Value("${ecom.related.top-n:8}") int topN,
+			@Value("${ecom.related.parallelism:0}") int parallelism, MeterRegistry registry) {
+		this.topN = Math.max(1, topN);
+		this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+		this.buildTimer = Timer.builder("ecom.related.build")
+				.description("Computing the related products of the whole catalog")
+				.register(registry);
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		pool.shutdownNow();
+	}
+
+	// Ids of the products related to the given one, most similar first.
+	public int[] related(Integer productId) {
+		return productId == null ? NONE : table.related(productId);
+	}
+
+	@Scheduled(fixedDelayString = "${ecom.related.refresh-interval-ms:300000}")
+	public void refresh() {
+		if (productCatalog.contentVersion() != table.catalogVersion) {
+			rebuild();
+		}
+	}
+
+	public void rebuild() {
+		buildLock.lock();
+		try {
+			// Read before the snapshot: a write in between makes the next refresh run again
+			long version = productCatalog.contentVersion();
+			CatalogSnapshot snapshot = productCatalog.snapshot();
+			table = buildTimer.record(() -> new Job(snapshot.active(), topN).run(pool, version));
+		} finally {
+			buildLock.unlock();
+		}
+	}
+
+	// catalogVersion is the content version the table was built from
+	private record Table(long catalogVersion, int[] offsets, int[] relatedIds) {
+
+		static final Table EMPTY = new Table(-1, new int[1], NONE);
+
+		int[] related(int productId) {
+			if (productId < 0 || productId >= offsets.length - 1) {
+				return NONE;
+			}
+			return Arrays.copyOfRange(relatedIds, offsets[productId], offsets[productId + 1]);
+		}
+
+	}
+
+	// One run over a list of active products in id order. Products are addressed by
+	// row (their position in that list) everywhere inside the job.
+	private static final class Job {
+
+		final int size;
+
+		final int topN;
+
+		final int[] ids;
+
+		final int[] categoryIds;
+
+		final double[] logPrices;
+
+		// Each row's words as term ordinals, with unit-length tf-idf weights
+		final int[][] rowTerms;
+
+		final float[][] rowWeights;
+
+		// Inverted index: rows and weights of term t in [termOffsets[t], termOffsets[t + 1])
+		int[] termOffsets;
+
+		int[] postingRows;
+
+		float[] postingWeights;
+
+		// Rows of each category sorted by price, and where each row sits in its group
+		final int[][] priceGroups;
+
+		final int[] priceGroup;
+
+		final int[] pricePosition;
+
+		// Result: up to topN related rows per row
+		final int[] relatedRows;
+
+		final int[] relatedCounts;
+
+		Job(List<Product> products, int topN) {
+			this.size = products.size();
+			this.topN = topN;
+			this.ids = new int[size];
+			this.categoryIds = new int[size];
+			this.logPrices = new double[size];
+			this.rowTerms = new int[size][];
+			this.rowWeights = new float[size][];
+			this.priceGroup = new int[size];
+			this.pricePosition = new int[size];
+			this.relatedRows = new int[size * topN];
+			this.relatedCounts = new int[size];
+
+			Map<String, Integer> termOrdinals = new HashMap<>();
+			int[] documentFrequency = new int[1024];
+			Map<Integer, List<Integer>> rowsByCategory = new HashMap<>();
+			for (int row = 0; row < size; row++) {
+				Product product = products.get(row);
+				ids[row] = product.getId();
+				categoryIds[row] = product.getCategory() == null ? 0 : product.getCategory().getId();
+				BigDecimal price = product.getDiscountPrice();
+				logPrices[row] = price == null || price.signum() <= 0 ? Double.NaN : Math.log(price.doubleValue());
+				rowsByCategory.computeIfAbsent(categoryIds[row], k -> new ArrayList<>()).add(row);
+
+				Map<Integer, Float> weights = new HashMap<>();
+				addWords(weights, termOrdinals, product.getTitle(), TITLE_WEIGHT);
+				addWords(weights, termOrdinals, product.getDescription(), DESCRIPTION_WEIGHT);
+				int[] terms = new int[weights.size()];
+				float[] termWeights = new float[weights.size()];
+				int i = 0;
+				for (Map.Entry<Integer, Float> entry : weights.entrySet()) {
+					terms[i] = entry.getKey();
+					termWeights[i++] = entry.getValue();
+					if (terms[i - 1] >= documentFrequency.length) {
+						documentFrequency = Arrays.copyOf(documentFrequency, documentFrequency.length * 2);
+					}
+					documentFrequency[terms[i - 1]]++;
+				}
+				rowTerms[row] = terms;
+				rowWeights[row] = termWeights;
+			}
+
+			weigh(documentFrequency, termOrdinals.size());
+			index(documentFrequency, termOrdinals.size());
+
+			this.priceGroups = new int[rowsByCategory.size()][];
+			int group = 0;
+			for (List<Integer> rows : rowsByCategory.values()) {
+				int[] sorted = rows.stream()
+						.sorted((a, b) -> Double.compare(priceKey(a), priceKey(b)))
+						.mapToInt(Integer::intValue)
+						.toArray();
+				for (int position = 0; position < sorted.length; position++) {
+					priceGroup[sorted[position]] = group;
+					pricePosition[sorted[position]] = position;
+				}
+				priceGroups[group++] = sorted;
+			}
+		}
+
+		private static void addWords(Map<Integer, Float> weights, Map<String, Integer> termOrdinals, String text,
+				float weight) {
+			for (String word : SearchTokenizer.tokenize(text)) {
+				Integer term = termOrdinals.computeIfAbsent(word, k -> termOrdinals.size());
+				weights.merge(term, weight, Float::sum);
+			}
+		}
+
+		// Products without a price sort last and are nobody's price neighbour
+		private double priceKey(int row) {
+			return Double.isNaN(logPrices[row]) ? Double.MAX_VALUE : logPrices[row];
+		}
+
+		// Scales every weight by its word's idf, then each row to unit length, so the
+		// dot product of two rows is their cosine similarity.
+		private void weigh(int[] documentFrequency, int termCount) {
+			float[] idf = new float[termCount];
+			for (int term = 0; term < termCount; term++) {
+				idf[term] = (float) Math.log(1 + (double) size / documentFrequency[term]);
+			}
+			for (int row = 0; row < size; row++) {
+				float[] weights = rowWeights[row];
+				double norm = 0;
+				for (int i = 0; i < weights.length; i++) {
+					weights[i] *= idf[rowTerms[row][i]];
+					norm += weights[i] * weights[i];
+				}
+				if (norm > 0) {
+					float scale = (float) (1 / Math.sqrt(norm));
+					for (int i = 0; i < weights.length; i++) {
+						weights[i] *= scale;
+					}
+				}
+			}
+		}
+
+		// Words of a single product cannot link it to anything and common words are
+		// skipped (see MAX_TERM_PRODUCTS), so neither gets a posting list.
+		private void index(int[] documentFrequency, int termCount) {
+			termOffsets = new int[termCount + 1];
+			for (int term = 0; term < termCount; term++) {
+				int count = documentFrequency[term];
+				termOffsets[term + 1] = termOffsets[term] + (count > 1 && count <= MAX_TERM_PRODUCTS ? count : 0);
+			}
+			postingRows = new int[termOffsets[termCount]];
+			postingWeights = new float[termOffsets[termCount]];
+			int[] fill = Arrays.copyOf(termOffsets, termCount);
+			for (int row = 0; row < size; row++) {
+				for (int i = 0; i < rowTerms[row].length; i++) {
+					int term = rowTerms[row][i];
+					if (fill[term] < termOffsets[term + 1]) {
+						postingRows[fill[term]] = row;
+						postingWeights[fill[term]++] = rowWeights[row][i];
+					}
+				}
+			}
+		}
+
+		Table run(ForkJoinPool pool, long catalogVersion) {
+			if (size > 0) {
+				pool.invoke(new ScoreTask(this, 0, size));
+			}
+
+			int maxId = size == 0 ? 0 : ids[size - 1];
+			int[] offsets = new int[maxId + 2];
+			int total = 0;
+			for (int row = 0; row < size; row++) {
+				total += relatedCounts[row];
+			}
+			int[] relatedIds = new int[total];
+			int position = 0;
+			int row = 0;
+			for (int id = 0; id <= maxId; id++) {
+				offsets[id] = position;
+				if (row < size && ids[row] == id) {
+					for (int k = 0; k < relatedCounts[row]; k++) {
+						relatedIds[position++] = ids[relatedRows[row * topN + k]];
+					}
+					row++;
+				}
+			}
+			offsets[maxId + 1] = position;
+			return new Table(catalogVersion, offsets, relatedIds);
+		}
+
+		// Scores rows [from, to) with the calling worker's scratch arrays.
+		void score(int from, int to) {
+			Scratch scratch = SCRATCH.get().ensure(size);
+			try {
+				score(from, to, scratch.scores, scratch.marked, scratch.touched);
+			} catch (RuntimeException | Error e) {
+				// A row may have stopped half way; start the next leaf from clean arrays
+				SCRATCH.remove();
+				throw e;
+			}
+		}
+
+		// scores and marked are all zero/false on entry and are left that way
+		private void score(int from, int to, float[] scores, boolean[] marked, int[] touched) {
+			int[] topRows = new int[topN];
+			float[] topScores = new float[topN];
+
+			for (int row = from; row < to; row++) {
+				int touchedCount = 0;
+
+				for (int i = 0; i < rowTerms[row].length; i++) {
+					int term = rowTerms[row][i];
+					float weight = rowWeights[row][i];
+					for (int p = termOffsets[term]; p < termOffsets[term + 1]; p++) {
+						int other = postingRows[p];
+						if (other == row) {
+							continue;
+						}
+						if (!marked[other]) {
+							marked[other] = true;
+							touched[touchedCount++] = other;
+						}
+						scores[other] += weight * postingWeights[p];
+					}
+				}
+
+				int[] group = priceGroups[priceGroup[row]];
+				int position = pricePosition[row];
+				for (int p = Math.max(0, position - topN); p <= Math.min(group.length - 1, position + topN); p++) {
+					int other = group[p];
+					if (other != row && !marked[other]) {
+						marked[other] = true;
+						touched[touchedCount++] = other;
+					}
+				}
+
+				int count = 0;
+				for (int t = 0; t < touchedCount; t++) {
+					int other = touched[t];
+					float score = scores[other] + (categoryIds[other] != 0 && categoryIds[other] == categoryIds[row]
+							? CATEGORY_WEIGHT : 0) + PRICE_WEIGHT * priceCloseness(row, other);
+					scores[other] = 0;
+					marked[other] = false;
+					if (score <= 0 || (count == topN && !better(score, other, topScores[count - 1], topRows[count - 1]))) {
+						continue;
+					}
+					int insert = Math.min(count, topN - 1);
+					while (insert > 0 && better(score, other, topScores[insert - 1], topRows[insert - 1])) {
+						topScores[insert] = topScores[insert - 1];
+						topRows[insert] = topRows[insert - 1];
+						insert--;
+					}
+					topScores[insert] = score;
+					topRows[insert] = other;
+					count = Math.min(count + 1, topN);
+				}
+
+				System.arraycopy(topRows, 0, relatedRows, row * topN, count);
+				relatedCounts[row] = count;
+			}
+		}
+
+		private float priceCloseness(int a, int b) {
+			double distance = Math.abs(logPrices[a] - logPrices[b]);
+			// NaN (a product without a price) fails the comparison and counts as not close
+			return distance < PRICE_RANGE ? (float) (1 - distance / PRICE_RANGE) : 0;
+		}
+
+		// Higher score first; ties go to the lower row, which is the older product
+		private static boolean better(float score, int row, float otherScore, int otherRow) {
+			return score > otherScore || (score == otherScore && row < otherRow);
+		}
+
+	}
+
+	// Scratch arrays of one worker thread, grown to the largest catalog it has scored
+	private static final class Scratch {
+
+		float[] scores = new float[0];
+
+		boolean[] marked = new boolean[0];
+
+		int[] touched = new int[0];
+
+		Scratch ensure(int size) {
+			if (scores.length < size) {
+				scores = new float[size];
+				marked = new boolean[size];
+				touched = new int[size];
+			}
+			return this;
+		}
+
+	}
+
+	private static final class ScoreTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final transient Job job;
+
+		private final int from;
+
+		private final int to;
+
+		ScoreTask(Job job, int from, int to) {
+			this.job = job;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from <= LEAF_ROWS) {
+				job.score(from, to);
+				return;
+			}
+			int middle = (from + to) >>> 1;
+			invokeAll(new ScoreTask(job, from, middle), new ScoreTask(job, middle, to));
+		}
+
+	}
+
+}
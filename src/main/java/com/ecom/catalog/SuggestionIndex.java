@@ -0,0 +1,281 @@
+package com.ecom.catalog;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.ecom.dto.Suggestion;
+import com.ecom.event.CatalogEvent;
+import com.ecom.event.CatalogEventListener;
+import com.ecom.model.Category;
+import com.ecom.model.Product;
+import com.ecom.repositories.CategoryRepository;
+
+// Typeahead over the words of active product titles and the names of categories.
+// A word is as popular as the number of active products with it in their title, a
+// category as the number of active products in it.
+//
+// Words live in a sorted map of word -> product count, so the completions of a
+// prefix are one contiguous range. Single-letter prefixes cover the widest ranges
+// and are typed on every search, so their top words are kept precomputed and only
+// recomputed for the letters a write actually touched.
+//
+// Suggestions take no lock. Single products are updated in place; a rebuild fills
+// a fresh set of maps and publishes it with one volatile write, so readers never
+// see a cleared or half-filled index.
+@Component
+public class SuggestionIndex implements CatalogEventListener {
+
+	public static final int MAX_SUGGESTIONS = 10;
+
+	// Category suggestions shown ahead of the word completions
+	private static final int MAX_CATEGORIES = 3;
+
+	@Autowired
+	private ProductCatalog productCatalog;
+
+	@Autowired
+	private CategoryRepository categoryRepository;
+
+	private final ReentrantLock writeLock = new ReentrantLock();
+
+	// Null until first built
+	private volatile Words words;
+
+	private volatile List<CategoryName> categories = List.of();
+
+	@Override
+	public void onEvents(List<CatalogEvent> events) {
+		boolean categoriesChanged = false;
+		for (CatalogEvent event : events) {
+			if (event.product() != null) {
+				index(event.product());
+			} else if (event.type() == CatalogEvent.Type.PRODUCT_DELETED) {
+				remove(event.entityId());
+			} else if (event.type().isCategory()) {
+				categoriesChanged = true;
+			}
+		}
+		if (categoriesChanged) {
+			refreshCategories();
+		}
+	}
+
+	@Override
+	public void onReload() {
+		rebuild();
+	}
+
+	public void index(Product product) {
+		writeLock.lock();
+		try {
+			Words current = words;
+			// Not built yet: the build reads the catalog, which already has this product.
+			if (current == null) {
+				return;
+			}
+			current.remove(product.getId());
+			if (Boolean.TRUE.equals(product.getIsActive())) {
+				current.add(product);
+			}
+		} finally {
+			writeLock.unlock();
+		}
+	}
+
+	public void remove(Integer id) {
+		writeLock.lock();
+		try {
+			Words current = words;
+			if (current != null) {
+				current.remove(id);
+			}
+		} finally {
+			writeLock.unlock();
+		}
+	}
+
+	// Re-reads the category names after a category was added, renamed or deleted.
+	public void refreshCategories() {
+		writeLock.lock();
+		try {
+			if (words != null) {
+				categories = loadCategories();
+			}
+		} finally {
+			writeLock.unlock();
+		}
+	}
+
+	public void rebuild() {
+		writeLock.lock();
+		try {
+			// Suggestions keep using the current words until the new ones are published
+			build();
+		} finally {
+			writeLock.unlock();
+		}
+	}
+
+	// Completes the last word of the query; earlier words are kept as typed (normalized).
+	public List<Suggestion> suggest(String query, int limit) {
+		Words current = loaded();
+
+		List<String> words = SearchTokenizer.tokenize(query);
+		if (words.isEmpty() || limit <= 0) {
+			return List.of();
+		}
+		limit = Math.min(limit, MAX_SUGGESTIONS);
+		String prefix = words.get(words.size() - 1);
+		String typed = String.join(" ", words);
+		String lead = typed.substring(0, typed.length() - prefix.length());
+
+		// Categories are few enough to check every one
+		List<Suggestion> suggestions = new ArrayList<>();
+		Map<Integer, Integer> activeCounts = productCatalog.snapshot().activeCounts();
+		for (CategoryName category : categories) {
+			Integer count = activeCounts.get(category.id());
+			if (count != null && count > 0 && category.matches(typed, words.size() == 1 ? prefix : null)) {
+				suggestions.add(new Suggestion(category.name(), Suggestion.CATEGORY, category.id(), count));
+			}
+		}
+		suggestions.sort((a, b) -> Integer.compare(b.count(), a.count()));
+		int categoryCount = Math.min(suggestions.size(), Math.min(MAX_CATEGORIES, limit));
+		suggestions = new ArrayList<>(suggestions.subList(0, categoryCount));
+
+		for (Map.Entry<String, Integer> word : current.topWords(prefix, limit - suggestions.size())) {
+			suggestions.add(new Suggestion(lead + word.getKey(), Suggestion.WORD, null, word.getValue()));
+		}
+		return suggestions;
+	}
+
+	private Words loaded() {
+		Words current = words;
+		if (current != null) {
+			return current;
+		}
+		writeLock.lock();
+		try {
+			if (words == null) {
+				build();
+			}
+			return words;
+		} finally {
+			writeLock.unlock();
+		}
+	}
+
+	private void build() {
+		// Nobody reads these until they are published, so nothing is cached while filling them
+		Words built = new Words();
+		for (Product product : productCatalog.snapshot().active()) {
+			built.add(product);
+		}
+		categories = loadCategories();
+		words = built;
+	}
+
+	private List<CategoryName> loadCategories() {
+		List<CategoryName> names = new ArrayList<>();
+		for (Category category : categoryRepository.findAll()) {
+			if (Boolean.TRUE.equals(category.getIsActive()) && category.getName() != null) {
+				names.add(new CategoryName(category.getId(), category.getName(),
+						String.join(" ", SearchTokenizer.tokenize(category.getName()))));
+			}
+		}
+		return List.copyOf(names);
+	}
+
+	// One generation of the word index. Changed in place only by single-product
+	// updates under writeLock; a rebuild replaces it as a whole.
+	private static final class Words {
+
+		final ConcurrentSkipListMap<String, Integer> counts = new ConcurrentSkipListMap<>();
+
+		// Distinct title words of each indexed product, pointing at the map's own keys
+		final ConcurrentHashMap<Integer, String[]> byProduct = new ConcurrentHashMap<>();
+
+		final ConcurrentHashMap<Character, List<Map.Entry<String, Integer>>> topByFirstLetter =
+				new ConcurrentHashMap<>();
+
+		void add(Product product) {
+			Set<String> distinct = new LinkedHashSet<>(SearchTokenizer.tokenize(product.getTitle()));
+			String[] words = new String[distinct.size()];
+			int i = 0;
+			for (String word : distinct) {
+				counts.merge(word, 1, Integer::sum);
+				// Share the map's key instead of keeping this product's own copy of the word
+				words[i++] = counts.ceilingKey(word);
+				topByFirstLetter.remove(word.charAt(0));
+			}
+			byProduct.put(product.getId(), words);
+		}
+
+		void remove(Integer id) {
+			String[] words = byProduct.remove(id);
+			if (words == null) {
+				return;
+			}
+			for (String word : words) {
+				counts.computeIfPresent(word, (k, count) -> count == 1 ? null : count - 1);
+				topByFirstLetter.remove(word.charAt(0));
+			}
+		}
+
+		List<Map.Entry<String, Integer>> topWords(String prefix, int limit) {
+			if (limit <= 0) {
+				return List.of();
+			}
+			List<Map.Entry<String, Integer>> top;
+			if (prefix.length() == 1) {
+				top = topByFirstLetter.computeIfAbsent(prefix.charAt(0), letter -> scan(prefix, MAX_SUGGESTIONS));
+			} else {
+				top = scan(prefix, limit);
+			}
+			return top.size() > limit ? top.subList(0, limit) : top;
+		}
+
+		// Most popular words in the prefix range, kept in a small sorted buffer of size limit.
+		private List<Map.Entry<String, Integer>> scan(String prefix, int limit) {
+			List<Map.Entry<String, Integer>> top = new ArrayList<>(limit + 1);
+			for (Map.Entry<String, Integer> entry : counts.subMap(prefix, true, prefix + Character.MAX_VALUE, false)
+					.entrySet()) {
+				int count = entry.getValue();
+				if (top.size() == limit && count <= top.get(limit - 1).getValue()) {
+					continue;
+				}
+				int position = top.size();
+				while (position > 0 && top.get(position - 1).getValue() < count) {
+					position--;
+				}
+				top.add(position, Map.entry(entry.getKey(), count));
+				if (top.size() > limit) {
+					top.remove(limit);
+				}
+			}
+			return top;
+		}
+
+	}
+
+	private record CategoryName(Integer id, String name, String normalized) {
+
+		// The whole query starts the name, or a one-word query starts any word of it
+		boolean matches(String typed, String singleWord) {
+			if (normalized.startsWith(typed)) {
+				return true;
+			}
+			return singleWord != null && normalized.contains(" " + singleWord);
+		}
+
+	}
+
+}
@@ -0,0 +1,64 @@
+package com.ecom.config;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import javax.sql.DataSource;
+
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+
+// Products used to store their category as free text in product.category.
+// Hibernate's ddl-auto adds product.category_id; this fills it in for existing rows,
+// creating any category that only existed as text, so no product loses its category.
+// The old column is dropped afterwards: it is no longer written, and while it exists
+// every startup would re-attach its stale name to products whose category was removed.
+@Component
+@DependsOn("entityManagerFactory")
+public class CategoryMigration {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public CategoryMigration(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @PostConstruct
+    public void migrate() {
+        if (!legacyColumnExists()) {
+            return;
+        }
+
+        jdbcTemplate.update("INSERT INTO category (name, is_active) "
+                + "SELECT DISTINCT p.category, ? FROM product p "
+                + "WHERE p.category IS NOT NULL AND p.category_id IS NULL "
+                + "AND NOT EXISTS (SELECT 1 FROM category c WHERE c.name = p.category)", Boolean.TRUE);
+
+        jdbcTemplate.update("UPDATE product SET category_id = "
+                + "(SELECT MIN(c.id) FROM category c WHERE c.name = product.category) "
+                + "WHERE category_id IS NULL AND category IS NOT NULL");
+
+        // One-shot: with the column gone the migration is skipped from now on
+        jdbcTemplate.execute("ALTER TABLE product DROP COLUMN category");
+    }
+
+    private boolean legacyColumnExists() {
+        Boolean exists = jdbcTemplate.execute((Connection connection) -> {
+            DatabaseMetaData metaData = connection.getMetaData();
+            // Identifier case differs between databases (SQL Server keeps it, H2 upper-cases)
+            return hasColumn(metaData, "product", "category") || hasColumn(metaData, "PRODUCT", "CATEGORY");
+        });
+        return Boolean.TRUE.equals(exists);
+    }
+
+    private static boolean hasColumn(DatabaseMetaData metaData, String table, String column) throws SQLException {
+        try (ResultSet columns = metaData.getColumns(null, null, table, column)) {
+            return columns.next();
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.ecom.config;
+
+import java.time.Duration;
+import java.util.OptionalLong;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+
+// Second-level cache regions for Hibernate. Every region is created here with a size
+// and TTL bound; Hibernate is configured to fail on a region it does not find, so an
+// entity can never end up in an unbounded cache by accident.
+@Configuration
+public class HibernateCacheConfig {
+
+    public static final String CATEGORY_REGION = "category";
+
+    public static final String PRODUCT_REGION = "product";
+
+    public static final String CATEGORY_LIST_REGION = "category-list";
+
+    @Value("${ecom.cache.categories.max-size:1000}")
+    private long categoryMaxSize;
+
+    @Value("${ecom.cache.categories.ttl:1h}")
+    private Duration categoryTtl;
+
+    @Value("${ecom.cache.products.max-size:10000}")
+    private long productMaxSize;
+
+    @Value("${ecom.cache.products.ttl:10m}")
+    private Duration productTtl;
+
+    @Value("${ecom.cache.queries.max-size:500}")
+    private long queryMaxSize;
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager() {
+        CachingProvider provider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        CacheManager cacheManager = provider.getCacheManager(provider.getDefaultURI(), getClass().getClassLoader());
+
+        cacheManager.createCache(CATEGORY_REGION, region(categoryMaxSize, categoryTtl));
+        cacheManager.createCache(CATEGORY_LIST_REGION, region(categoryMaxSize, categoryTtl));
+        cacheManager.createCache(PRODUCT_REGION, region(productMaxSize, productTtl));
+        cacheManager.createCache(RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME,
+                region(queryMaxSize, productTtl));
+
+        // Hibernate compares query results against these table timestamps; expiring
+        // one early would let a stale query result through, so it is never evicted
+        cacheManager.createCache(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME,
+                new CaffeineConfiguration<Object, Object>().setStatisticsEnabled(true));
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer hibernateCacheCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+    }
+
+    private static CaffeineConfiguration<Object, Object> region(long maxSize, Duration ttl) {
+        return new CaffeineConfiguration<Object, Object>()
+                .setMaximumSize(OptionalLong.of(maxSize))
+                .setExpireAfterWrite(OptionalLong.of(ttl.toNanos()))
+                .setStatisticsEnabled(true);
+    }
+}
@@ -0,0 +1,32 @@
+package com.ecom.config;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.ecom.web.SqlMetricsFilter;
+import com.ecom.web.SqlStatementCounter;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Instrumentation that Spring Boot does not provide on its own. Endpoint latency
+// (http.server.requests), Hikari, Tomcat, JVM and Hibernate statistics come from
+// the actuator; @Timed service methods are handled by its TimedAspect.
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer sqlStatementCounterCustomizer() {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, new SqlStatementCounter());
+    }
+
+    @Bean
+    public FilterRegistrationBean<SqlMetricsFilter> sqlMetricsFilter(MeterRegistry registry) {
+        FilterRegistrationBean<SqlMetricsFilter> registration =
+                new FilterRegistrationBean<>(new SqlMetricsFilter(registry));
+        registration.addUrlPatterns("/*");
+        return registration;
+    }
+}
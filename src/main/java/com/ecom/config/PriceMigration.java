@@ -0,0 +1,61 @@
+package com.ecom.config;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+
+import javax.sql.DataSource;
+
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+
+// Prices used to be mapped as Double, so existing databases have FLOAT columns.
+// Hibernate's ddl-auto never changes a column type, so convert them to the
+// DECIMAL(12,2) the entity now declares. Values are rounded to whole paise.
+@Component
+@DependsOn("entityManagerFactory")
+public class PriceMigration {
+
+    private static final String[] PRICE_COLUMNS = { "price", "discount_price" };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public PriceMigration(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @PostConstruct
+    public void migrate() {
+        for (String column : PRICE_COLUMNS) {
+            if (isFloatingPoint(column)) {
+                jdbcTemplate.execute("ALTER TABLE product ALTER COLUMN " + column + " DECIMAL(12,2)");
+            }
+        }
+    }
+
+    private boolean isFloatingPoint(String column) {
+        Boolean floating = jdbcTemplate.execute((Connection connection) -> {
+            DatabaseMetaData metaData = connection.getMetaData();
+            // Identifier case differs between databases (SQL Server keeps it, H2 upper-cases)
+            return isFloatingPoint(metaData, "product", column)
+                    || isFloatingPoint(metaData, "PRODUCT", column.toUpperCase());
+        });
+        return Boolean.TRUE.equals(floating);
+    }
+
+    private static boolean isFloatingPoint(DatabaseMetaData metaData, String table, String column)
+            throws SQLException {
+        try (ResultSet columns = metaData.getColumns(null, null, table, column)) {
+            if (!columns.next()) {
+                return false;
+            }
+            int type = columns.getInt("DATA_TYPE");
+            return type == Types.FLOAT || type == Types.DOUBLE || type == Types.REAL;
+        }
+    }
+}
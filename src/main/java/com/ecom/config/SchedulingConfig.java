@@ -0,0 +1,12 @@
+package com.ecom.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// Runs the background jobs: stock and cart flushes, reservation expiry, campaigns,
+// related-product recomputation, the catalog event outbox purge and upload garbage
+// collection.
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,41 @@
+package com.ecom.config;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.ecom.service.impl.SlowQueryLogServiceImpl;
+
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+
+// Wraps the pool in a datasource-proxy so every statement (JPA and JdbcTemplate alike)
+// is timed by SlowQueryLogServiceImpl. Off by default; the prod profile turns it on
+// in place of Hibernate's SQL and bind-parameter logging.
+@Configuration
+@ConditionalOnProperty(name = "ecom.slow-query.enabled", havingValue = "true")
+public class SlowQueryLogConfig {
+
+    // Static so the post-processor is registered before the DataSource is created;
+    // the listener is only looked up once the DataSource actually exists
+    @Bean
+    public static BeanPostProcessor slowQueryDataSourcePostProcessor(
+            ObjectProvider<SlowQueryLogServiceImpl> slowQueryLog) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource) || bean instanceof ProxyDataSource) {
+                    return bean;
+                }
+                return ProxyDataSourceBuilder.create(dataSource)
+                        .name(beanName)
+                        .listener(slowQueryLog.getObject())
+                        .build();
+            }
+        };
+    }
+}
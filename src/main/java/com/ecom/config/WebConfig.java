@@ -1,18 +1,104 @@
 package com.ecom.config;
 
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.CacheControl;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
+import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistration;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import com.ecom.catalog.ProductCatalog;
+import com.ecom.web.RenderedPageCache;
+import com.ecom.web.RenderedPageCacheFilter;
+import com.ecom.web.UploadResourceResolver;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
 
+    // Content-addressed names (<sha256>.ext plus _thumb/_list variants) never change
+    private static final String FINGERPRINTED_UPLOAD =
+            "/uploads/{directory}/{file:[0-9a-f]{64}(?:_thumb|_list)?\\.[a-z0-9]+}";
+
+    @Value("${ecom.upload.dir}")
+    private String uploadDir;
+
+    @Value("${ecom.uploads.cache.max-size:64MB}")
+    private DataSize cacheMaxSize;
+
+    @Value("${ecom.uploads.cache.max-entry-size:256KB}")
+    private DataSize cacheMaxEntrySize;
+
+    @Value("${ecom.uploads.cache.ttl:10m}")
+    private Duration cacheTtl;
+
+    @Value("${ecom.page-cache.enabled:true}")
+    private boolean pageCacheEnabled;
+
+    @Value("${ecom.page-cache.max-size:32MB}")
+    private DataSize pageCacheMaxSize;
+
+    @Value("${ecom.page-cache.max-entry-size:512KB}")
+    private DataSize pageCacheMaxEntrySize;
+
+    // JSON API responses get a content hash ETag, so revalidation costs a 304 instead of the payload
+    @Bean
+    public FilterRegistrationBean<ShallowEtagHeaderFilter> apiEtagFilter() {
+        FilterRegistrationBean<ShallowEtagHeaderFilter> registration =
+                new FilterRegistrationBean<>(new ShallowEtagHeaderFilter());
+        registration.addUrlPatterns("/api/*");
+        return registration;
+    }
+
+    // Listing pages are rendered once per catalog version and then served from memory.
+    // Storefront pages only show in stock / out of stock, so stock flushes do not expire them.
+    @Bean
+    public FilterRegistrationBean<RenderedPageCacheFilter> renderedPageCacheFilter(ProductCatalog productCatalog,
+            MeterRegistry registry) {
+        RenderedPageCache cache = new RenderedPageCache(pageCacheMaxSize.toBytes(), pageCacheMaxEntrySize.toBytes());
+        FilterRegistrationBean<RenderedPageCacheFilter> registration = new FilterRegistrationBean<>(
+                new RenderedPageCacheFilter(cache, Map.of(
+                        "/", productCatalog::contentVersion,
+                        "/products", productCatalog::contentVersion,
+                        "/admin/products", productCatalog::version), registry));
+        registration.addUrlPatterns("/*");
+        registration.setEnabled(pageCacheEnabled);
+        return registration;
+    }
+
     @Override
     public void addResourceHandlers(ResourceHandlerRegistry registry) {
         // Map /uploads/** URLs to the actual file system location
-        String uploadPath = "file:" + System.getProperty("user.home") + "/ecom-uploads/";
-        
-        registry.addResourceHandler("/uploads/**")
-                .addResourceLocations(uploadPath);
+        String uploadPath = "file:" + Paths.get(uploadDir).toAbsolutePath() + "/";
+
+        UploadResourceResolver resolver = new UploadResourceResolver(cacheMaxSize.toBytes(),
+                cacheMaxEntrySize.toBytes(), cacheTtl.toMillis());
+
+        // Fingerprinted uploads can be cached by browsers and CDNs for a year
+        configureUploads(registry.addResourceHandler(FINGERPRINTED_UPLOAD), uploadPath, resolver)
+                .setCacheControl(CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable());
+
+        // Images bundled with the app (and uploads made before the upload store existed)
+        // are still found under static/img; clients revalidate them with the ETag
+        configureUploads(registry.addResourceHandler("/uploads/**"), uploadPath, resolver)
+                .setCacheControl(CacheControl.noCache().cachePublic());
+    }
+
+    private ResourceHandlerRegistration configureUploads(ResourceHandlerRegistration registration,
+            String uploadPath, UploadResourceResolver resolver) {
+        registration.addResourceLocations(uploadPath, "classpath:/static/img/")
+                .setEtagGenerator(resolver::etag)
+                .resourceChain(false)
+                .addResolver(resolver);
+        return registration;
     }
-}
\ No newline at end of file
+}
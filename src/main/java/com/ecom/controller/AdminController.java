@@ -1,33 +1,46 @@
 package com.ecom.controller;
 
-import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
 import java.util.List;
+import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.io.ClassPathResource;
 import org.springframework.data.domain.Page;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.util.ObjectUtils;
-import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.multipart.MultipartFile;
 
+import com.ecom.dto.CacheRegionStats;
+import com.ecom.dto.CampaignForm;
+import com.ecom.dto.CursorPage;
+import com.ecom.dto.ImportJob;
+import com.ecom.event.CatalogEventBus;
+import com.ecom.model.Campaign;
 import com.ecom.model.Category;
 import com.ecom.model.Product;
+import com.ecom.service.CacheStatisticsService;
+import com.ecom.service.CampaignService;
 import com.ecom.service.CategoryService;
+import com.ecom.service.ImageStorageService;
+import com.ecom.service.ImageVariantService;
+import com.ecom.service.ProductExportService;
+import com.ecom.service.ProductImportService;
 import com.ecom.service.ProductService;
+import com.ecom.service.SlowQueryLogService;
 
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.servlet.http.HttpSession;
 
 @Controller
@@ -40,6 +53,30 @@ public class AdminController {
     @Autowired
     private ProductService productService;
 
+    @Autowired
+    private ImageVariantService imageVariantService;
+
+    @Autowired
+    private ImageStorageService imageStorageService;
+
+    @Autowired
+    private ProductImportService productImportService;
+
+    @Autowired
+    private ProductExportService productExportService;
+
+    @Autowired
+    private CampaignService campaignService;
+
+    @Autowired
+    private CacheStatisticsService cacheStatisticsService;
+
+    @Autowired
+    private SlowQueryLogService slowQueryLogService;
+
+    @Autowired
+    private CatalogEventBus catalogEvents;
+
     // ===================== Admin Dashboard =====================
     @GetMapping("/")
     public String adminHome() {
@@ -52,26 +89,36 @@ public class AdminController {
             @RequestParam(name = "pageNo", defaultValue = "0") Integer pageNo,
             @RequestParam(name = "pageSize", defaultValue = "10") Integer pageSize,
             @RequestParam(name = "ch", required = false) String ch,
+            @RequestParam(name = "cursor", required = false) String cursor,
             Model model) {
 
-        Page<Product> page = null;
+        pageNo = Math.max(pageNo, 0);
+        pageSize = PageSizes.clamp(pageSize);
+        model.addAttribute("pageSize", pageSize);
 
         if (ch != null && !ch.isEmpty()) {
             // Search products by title or category
-            page = productService.searchProductPagination(pageNo, pageSize, ch);
+            Page<Product> page = productService.searchProductPagination(pageNo, pageSize, ch);
+
+            model.addAttribute("products", page.getContent());
+            model.addAttribute("pageNo", page.getNumber());
+            model.addAttribute("totalElements", page.getTotalElements());
+            model.addAttribute("totalPages", page.getTotalPages());
+            model.addAttribute("isFirst", page.isFirst());
+            model.addAttribute("isLast", page.isLast());
+            model.addAttribute("ch", ch);
         } else {
-            // Get all products with pagination
-            page = productService.getAllProductsPagination(pageNo, pageSize);
+            // Browse with keyset pagination so deep pages cost the same as the first one
+            CursorPage<Product> page = productService.getAllProductsAfter(cursor, pageSize);
+
+            model.addAttribute("products", page.getContent());
+            model.addAttribute("totalElements", page.getTotalElements());
+            model.addAttribute("nextCursor", page.getNextCursor());
+            model.addAttribute("isFirst", ObjectUtils.isEmpty(cursor));
+            model.addAttribute("isLast", page.isLast());
+            model.addAttribute("keyset", true);
         }
 
-        model.addAttribute("products", page.getContent());
-        model.addAttribute("pageNo", page.getNumber());
-        model.addAttribute("pageSize", pageSize);
-        model.addAttribute("totalElements", page.getTotalElements());
-        model.addAttribute("totalPages", page.getTotalPages());
-        model.addAttribute("isFirst", page.isFirst());
-        model.addAttribute("isLast", page.isLast());
-
         return "admin/products";
     }
 
@@ -95,8 +142,8 @@ public class AdminController {
             if (image.isEmpty()) {
                 uniqueFileName = "default.jpg";
             } else {
-                String originalFileName = StringUtils.cleanPath(image.getOriginalFilename());
-                uniqueFileName = System.currentTimeMillis() + "_" + originalFileName;
+                // Named by content hash, so a vendor image shared by many SKUs is stored once
+                uniqueFileName = imageStorageService.store(image, "product_img");
             }
 
             product.setImage(uniqueFileName);
@@ -106,19 +153,19 @@ public class AdminController {
             Product savedProduct = productService.saveProduct(product);
 
             if (!ObjectUtils.isEmpty(savedProduct) && !image.isEmpty()) {
-                File uploadDir = new ClassPathResource("static/img").getFile();
-                String productUploadPath = uploadDir.getAbsolutePath() + File.separator + "product_img";
-
-                File directory = new File(productUploadPath);
-                if (!directory.exists()) {
-                    directory.mkdirs();
-                }
-
-                Path targetPath = Paths.get(productUploadPath + File.separator + uniqueFileName);
-                Files.copy(image.getInputStream(), targetPath, StandardCopyOption.REPLACE_EXISTING);
+                // Thumbnails are produced in the background; the redirect does not wait for them
+                imageVariantService.generateVariants(imageStorageService.resolve("product_img", uniqueFileName))
+                        .thenAccept(variants -> productService.updateImageVariants(savedProduct.getId(), uniqueFileName, variants))
+                        .exceptionally(e -> {
+                            e.printStackTrace();
+                            return null;
+                        });
 
                 session.setAttribute("succMsg", "Product Saved Successfully! 🎉");
             } else if (ObjectUtils.isEmpty(savedProduct)) {
+                if (!image.isEmpty()) {
+                    imageStorageService.release("product_img", uniqueFileName);
+                }
                 session.setAttribute("errorMsg", "Something went wrong on the server during database save.");
             } else {
                 session.setAttribute("succMsg", "Product Saved Successfully (using default image).");
@@ -174,14 +221,10 @@ public class AdminController {
     @GetMapping("/deleteProduct/{id}")
     public String deleteProduct(@PathVariable Integer id, HttpSession session) {
         try {
-            Product product = productService.getProductById(id);
-            
+            // The product's image is released by the catalog events once the delete is committed
             Boolean isDeleted = productService.deleteProduct(id);
 
             if (isDeleted) {
-                if (product != null && product.getImage() != null && !product.getImage().equals("default.jpg")) {
-                    deleteImageFile(product.getImage(), "product_img");
-                }
                 session.setAttribute("succMsg", "Product deleted successfully! 🗑️");
             } else {
                 session.setAttribute("errorMsg", "Error deleting product!");
@@ -195,6 +238,168 @@ public class AdminController {
         return "redirect:/admin/products";
     }
 
+    // ===================== Bulk Product Import =====================
+    @GetMapping("/importProducts")
+    public String importProducts(@RequestParam(name = "job", required = false) String jobId, Model model) {
+        model.addAttribute("jobs", productImportService.getRecentJobs());
+        model.addAttribute("job", jobId == null ? null : productImportService.getJob(jobId));
+        return "admin/import_products";
+    }
+
+    @PostMapping("/importProducts")
+    public String startImport(@RequestParam("file") MultipartFile file, HttpSession session) {
+        if (file.isEmpty()) {
+            session.setAttribute("errorMsg", "Please choose a CSV or JSON Lines file to import.");
+            return "redirect:/admin/importProducts";
+        }
+
+        try {
+            ImportJob job = productImportService.startImport(file);
+            session.setAttribute("succMsg", "Import started for " + job.getFileName());
+            return "redirect:/admin/importProducts?job=" + job.getId();
+        } catch (IOException e) {
+            e.printStackTrace();
+            session.setAttribute("errorMsg", "Import could not be started: " + e.getMessage());
+            return "redirect:/admin/importProducts";
+        }
+    }
+
+    @GetMapping("/importProducts/{id}/status")
+    @ResponseBody
+    public ResponseEntity<ImportJob> importStatus(@PathVariable String id) {
+        ImportJob job = productImportService.getJob(id);
+        return job == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(job);
+    }
+
+    // ===================== Product Export =====================
+    @GetMapping("/exportProducts")
+    public void exportProducts(@RequestParam(name = "format", defaultValue = "csv") String format,
+            HttpServletResponse response) throws IOException {
+
+        ProductExportService.Format exportFormat = "ndjson".equalsIgnoreCase(format) || "jsonl".equalsIgnoreCase(format)
+                ? ProductExportService.Format.NDJSON
+                : ProductExportService.Format.CSV;
+        String extension = exportFormat == ProductExportService.Format.NDJSON ? "ndjson" : "csv";
+
+        response.setContentType(exportFormat == ProductExportService.Format.NDJSON
+                ? "application/x-ndjson;charset=UTF-8"
+                : "text/csv;charset=UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                ContentDisposition.attachment().filename("products." + extension).build().toString());
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-store");
+
+        // Written on the request thread straight to the socket, chunk by chunk
+        productExportService.exportProducts(exportFormat, response.getOutputStream());
+    }
+
+    // ===================== Discount Campaigns =====================
+    @GetMapping("/campaigns")
+    public String campaigns(Model model) {
+        model.addAttribute("campaigns", campaignService.getAllCampaigns());
+        model.addAttribute("categories", categoryService.getAllCategory());
+        return "admin/campaigns";
+    }
+
+    @PostMapping("/saveCampaign")
+    public String saveCampaign(@ModelAttribute CampaignForm campaign, HttpSession session) {
+        if (campaign.discount() == null || campaign.discount() < 1 || campaign.discount() > 100) {
+            session.setAttribute("errorMsg", "Discount must be between 1 and 100 percent.");
+            return "redirect:/admin/campaigns";
+        }
+        if (campaign.startsAt() != null && campaign.endsAt() != null
+                && !campaign.endsAt().isAfter(campaign.startsAt())) {
+            session.setAttribute("errorMsg", "The campaign must end after it starts.");
+            return "redirect:/admin/campaigns";
+        }
+
+        try {
+            Campaign saved = campaignService.saveCampaign(campaign);
+            session.setAttribute("succMsg", "Campaign '" + saved.getName() + "' scheduled.");
+        } catch (Exception e) {
+            e.printStackTrace();
+            session.setAttribute("errorMsg", "Campaign could not be saved: " + e.getMessage());
+        }
+        return "redirect:/admin/campaigns";
+    }
+
+    @GetMapping("/applyCampaign/{id}")
+    public String applyCampaign(@PathVariable Integer id, HttpSession session) {
+        try {
+            Campaign campaign = campaignService.applyCampaign(id);
+            if (campaign != null && campaign.getStatus() == Campaign.Status.ACTIVE) {
+                session.setAttribute("succMsg", "Campaign applied to " + campaign.getProductCount() + " products.");
+            } else {
+                session.setAttribute("errorMsg", "Only scheduled campaigns can be applied.");
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+            session.setAttribute("errorMsg", "Campaign could not be applied: " + e.getMessage());
+        }
+        return "redirect:/admin/campaigns";
+    }
+
+    @GetMapping("/revertCampaign/{id}")
+    public String revertCampaign(@PathVariable Integer id, HttpSession session) {
+        try {
+            Campaign campaign = campaignService.revertCampaign(id);
+            if (campaign != null && campaign.getStatus() == Campaign.Status.ENDED) {
+                session.setAttribute("succMsg", "Campaign ended; previous discounts restored.");
+            } else {
+                session.setAttribute("errorMsg", "Only active campaigns can be reverted.");
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+            session.setAttribute("errorMsg", "Campaign could not be reverted: " + e.getMessage());
+        }
+        return "redirect:/admin/campaigns";
+    }
+
+    @GetMapping("/cancelCampaign/{id}")
+    public String cancelCampaign(@PathVariable Integer id, HttpSession session) {
+        Campaign campaign = campaignService.cancelCampaign(id);
+        if (campaign != null && campaign.getStatus() == Campaign.Status.CANCELLED) {
+            session.setAttribute("succMsg", "Campaign cancelled.");
+        } else {
+            session.setAttribute("errorMsg", "Only scheduled campaigns can be cancelled.");
+        }
+        return "redirect:/admin/campaigns";
+    }
+
+    // ===================== Cache Statistics =====================
+    @GetMapping("/cacheStats")
+    @ResponseBody
+    public List<CacheRegionStats> cacheStats() {
+        return cacheStatisticsService.getRegionStatistics();
+    }
+
+    // ===================== Slow-Query Log =====================
+    @GetMapping("/slowQueries")
+    public String slowQueries(Model model) {
+        model.addAttribute("enabled", slowQueryLogService.isEnabled());
+        model.addAttribute("slowQueries", slowQueryLogService.getSlowQueries());
+        model.addAttribute("sampledQueries", slowQueryLogService.getSampledQueries());
+        model.addAttribute("statementCount", slowQueryLogService.getStatementCount());
+        model.addAttribute("slowCount", slowQueryLogService.getSlowCount());
+        return "admin/slow_queries";
+    }
+
+    @GetMapping("/slowQueries/clear")
+    public String clearSlowQueries(HttpSession session) {
+        slowQueryLogService.clear();
+        session.setAttribute("succMsg", "Slow-query log cleared");
+        return "redirect:/admin/slowQueries";
+    }
+
+    // ===================== Catalog Event Replay =====================
+    // Re-delivers outbox events after the given id; call again with the returned lastId for the next page
+    @PostMapping("/catalogEvents/replay")
+    @ResponseBody
+    public Map<String, Long> replayCatalogEvents(@RequestParam(name = "after", defaultValue = "0") long after,
+            @RequestParam(name = "limit", defaultValue = "1000") int limit) {
+        long lastId = catalogEvents.replay(after, Math.min(Math.max(limit, 1), 10000));
+        return Map.of("after", after, "lastId", lastId);
+    }
+
     // ===================== Category Page =====================
     @GetMapping("/category")
     public String category(Model model) {
@@ -229,6 +434,7 @@ public class AdminController {
             boolean isSaved = categoryService.saveCategory(category);
 
             if (isSaved) {
+                generateCategoryThumbnail(category);
                 session.setAttribute("successMsg", "Category saved successfully! 🎉");
             } else {
                 session.setAttribute("errorMsg", "Error saving category!");
@@ -246,17 +452,19 @@ public class AdminController {
     @GetMapping("/deleteCategory/{id}")
     public String deleteCategory(@PathVariable int id, HttpSession session) {
         try {
-            Category category = categoryService.getCategoryById(id);
-            
             boolean isDeleted = categoryService.deleteCategory(id);
 
             if (isDeleted) {
-                if (category != null && category.getImageName() != null) {
-                    deleteImageFile(category.getImageName(), "category_img");
-                }
                 session.setAttribute("successMsg", "Category deleted successfully! 🗑️");
             } else {
-                session.setAttribute("errorMsg", "Error deleting category!");
+                // Counted after the attempt, so a product added while deleting is reported too
+                long productCount = categoryService.countProducts(id);
+                if (productCount > 0) {
+                    session.setAttribute("errorMsg", "Category still has " + productCount
+                            + " product(s); move or delete them before deleting the category.");
+                } else {
+                    session.setAttribute("errorMsg", "Error deleting category!");
+                }
             }
 
         } catch (Exception e) {
@@ -286,24 +494,23 @@ public class AdminController {
 
         try {
             Category category = categoryService.getCategoryById(id);
-            String oldImageName = category.getImageName();
             category.setName(name);
             category.setIsActive(isActive);
 
             if (file != null && !file.isEmpty()) {
-                if (oldImageName != null) {
-                    deleteImageFile(oldImageName, "category_img");
-                }
-                
                 String fileName = saveImageFile(file, "category_img");
                 if (fileName != null) {
                     category.setImageName(fileName);
+                    category.setThumbnailImage(null);
                 }
             }
 
             boolean isUpdated = categoryService.updateCategory(category);
 
             if (isUpdated) {
+                if (file != null && !file.isEmpty()) {
+                    generateCategoryThumbnail(category);
+                }
                 session.setAttribute("successMsg", "Category updated successfully! ✅");
             } else {
                 session.setAttribute("errorMsg", "Error updating category!");
@@ -320,40 +527,26 @@ public class AdminController {
     // ===================== Helper Methods =====================
     private String saveImageFile(MultipartFile file, String subDirectory) {
         try {
-            File saveFile = new ClassPathResource("static/img").getFile();
-            String uploadDir = saveFile.getAbsolutePath() + File.separator + subDirectory;
-            
-            File directory = new File(uploadDir);
-            if (!directory.exists()) {
-                directory.mkdirs();
-            }
-
-            String originalFilename = StringUtils.cleanPath(file.getOriginalFilename());
-            String fileName = System.currentTimeMillis() + "_" + originalFilename;
-            
-            Path filePath = Paths.get(uploadDir, fileName);
-            Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
-            
-            return fileName;
-            
+            return imageStorageService.store(file, subDirectory);
         } catch (IOException e) {
             e.printStackTrace();
             return null;
         }
     }
 
-    private void deleteImageFile(String fileName, String subDirectory) {
-        try {
-            File saveFile = new ClassPathResource("static/img").getFile();
-            String uploadDir = saveFile.getAbsolutePath() + File.separator + subDirectory;
-            Path filePath = Paths.get(uploadDir, fileName);
-            
-            if (Files.exists(filePath)) {
-                Files.delete(filePath);
-            }
-
-        } catch (IOException e) {
-            e.printStackTrace();
+    private void generateCategoryThumbnail(Category category) {
+        if (category.getImageName() == null) {
+            return;
         }
+        Path filePath = imageStorageService.resolve("category_img", category.getImageName());
+
+        imageVariantService.generateVariants(filePath)
+                .thenAccept(variants -> categoryService.updateThumbnail(category.getId(), category.getImageName(),
+                        variants.thumbnail()))
+                .exceptionally(e -> {
+                    e.printStackTrace();
+                    return null;
+                });
     }
+
 }
\ No newline at end of file
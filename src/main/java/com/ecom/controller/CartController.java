@@ -0,0 +1,78 @@
+package com.ecom.controller;
+
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.CookieValue;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import com.ecom.dto.CartView;
+import com.ecom.service.CartService;
+import com.ecom.web.CartCookie;
+
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpSession;
+
+@Controller
+@RequestMapping("/cart")
+public class CartController {
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private CartCookie cartCookie;
+
+    // ===================== View Cart =====================
+    @GetMapping
+    public String viewCart(@CookieValue(name = CartCookie.NAME, required = false) String cookie, Model model) {
+        String cartId = cartCookie.cartId(cookie);
+        model.addAttribute("cart", cartId != null ? cartService.getCart(cartId) : CartView.EMPTY);
+        model.addAttribute("checkoutKey", UUID.randomUUID().toString());
+        return "cart";
+    }
+
+    // ===================== Add to Cart =====================
+    @PostMapping("/add")
+    public String addToCart(@RequestParam Integer productId,
+            @RequestParam(name = "quantity", defaultValue = "1") Integer quantity,
+            @CookieValue(name = CartCookie.NAME, required = false) String cookie,
+            HttpServletResponse response, HttpSession session) {
+        String cartId = cartCookie.cartId(cookie);
+        if (cartId == null) {
+            cartId = cartCookie.issue(response);
+        }
+        if (!cartService.addToCart(cartId, productId, quantity)) {
+            session.setAttribute("errorMsg", "This product could not be added to your cart");
+        }
+        return "redirect:/cart";
+    }
+
+    // ===================== Update Quantity =====================
+    @PostMapping("/update")
+    public String updateQuantity(@RequestParam Integer productId, @RequestParam Integer quantity,
+            @CookieValue(name = CartCookie.NAME, required = false) String cookie) {
+        String cartId = cartCookie.cartId(cookie);
+        if (cartId != null) {
+            cartService.updateQuantity(cartId, productId, quantity);
+        }
+        return "redirect:/cart";
+    }
+
+    // ===================== Remove from Cart =====================
+    @GetMapping("/remove/{productId}")
+    public String removeFromCart(@PathVariable Integer productId,
+            @CookieValue(name = CartCookie.NAME, required = false) String cookie) {
+        String cartId = cartCookie.cartId(cookie);
+        if (cartId != null) {
+            cartService.removeFromCart(cartId, productId);
+        }
+        return "redirect:/cart";
+    }
+}
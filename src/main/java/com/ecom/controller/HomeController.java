@@ -1,10 +1,32 @@
 package com.ecom.controller;
 
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
 import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.util.ObjectUtils;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import com.ecom.dto.CursorPage;
+import com.ecom.model.Category;
+import com.ecom.model.Product;
+import com.ecom.service.CategoryService;
+import com.ecom.service.ProductService;
 
 @Controller
 public class HomeController {
+
+    private static final int RELATED_PRODUCTS = 4;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private ProductService productService;
     
     @GetMapping("/")
     public String index() {
@@ -22,12 +44,53 @@ public class HomeController {
     }
     
     @GetMapping("/products")
-    public String products() {
+    public String products(
+            @RequestParam(name = "category", required = false) Integer category,
+            @RequestParam(name = "ch", required = false) String ch,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "pageNo", defaultValue = "0") Integer pageNo,
+            @RequestParam(name = "pageSize", defaultValue = "12") Integer pageSize,
+            Model model) {
+
+        pageNo = Math.max(pageNo, 0);
+        pageSize = PageSizes.clamp(pageSize);
+        List<Category> categories = categoryService.getAllCategory().stream()
+                .filter(c -> Boolean.TRUE.equals(c.getIsActive()))
+                .toList();
+        model.addAttribute("categories", categories);
+        model.addAttribute("categoryCounts", productService.getActiveProductCounts());
+        model.addAttribute("paramValue", category);
+        model.addAttribute("pageSize", pageSize);
+
+        if (!ObjectUtils.isEmpty(ch)) {
+            Page<Product> page = productService.searchActiveProductPagination(pageNo, pageSize, category, ch);
+
+            model.addAttribute("products", page.getContent());
+            model.addAttribute("totalElements", page.getTotalElements());
+            model.addAttribute("pageNo", page.getNumber());
+            model.addAttribute("isLast", page.isLast());
+            model.addAttribute("ch", ch);
+        } else {
+            CursorPage<Product> page = productService.getAllActiveProductsAfter(cursor, pageSize, category);
+
+            model.addAttribute("products", page.getContent());
+            model.addAttribute("totalElements", page.getTotalElements());
+            model.addAttribute("nextCursor", page.getNextCursor());
+            model.addAttribute("isLast", page.isLast());
+        }
+
         return "products";
     }
     
-    @GetMapping("/product")
-    public String viewProduct() {
+    @GetMapping("/product/{id}")
+    public String viewProduct(@PathVariable Integer id, Model model) {
+        Product product = productService.getProductById(id);
+        if (product == null || !Boolean.TRUE.equals(product.getIsActive())) {
+            return "redirect:/products";
+        }
+        model.addAttribute("product", product);
+        // Precomputed by the related-products job; nothing is scored per request
+        model.addAttribute("relatedProducts", productService.getRelatedProducts(id, RELATED_PRODUCTS));
         return "veiw_product";  // Match your actual filename
     }
-}
\ No newline at end of file
+}
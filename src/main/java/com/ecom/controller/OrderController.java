@@ -0,0 +1,58 @@
+package com.ecom.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.CookieValue;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import com.ecom.dto.CheckoutResult;
+import com.ecom.model.CustomerOrder;
+import com.ecom.service.OrderService;
+import com.ecom.web.CartCookie;
+
+import jakarta.servlet.http.HttpSession;
+
+@Controller
+public class OrderController {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private CartCookie cartCookie;
+
+    // ===================== Checkout =====================
+    // The cart page renders a fresh idempotency key into the checkout form, so a double
+    // submit or a browser retry of the same form places one order
+    @PostMapping("/checkout")
+    public String checkout(@RequestParam String idempotencyKey,
+            @CookieValue(name = CartCookie.NAME, required = false) String cookie,
+            HttpSession session) {
+        String cartId = cartCookie.cartId(cookie);
+        if (cartId == null) {
+            session.setAttribute("errorMsg", "Your cart is empty");
+            return "redirect:/cart";
+        }
+        CheckoutResult result = orderService.checkout(cartId, idempotencyKey);
+        if (!result.isPlaced()) {
+            session.setAttribute("errorMsg", result.message());
+            return "redirect:/cart";
+        }
+        return "redirect:/orders/" + result.orderId();
+    }
+
+    // ===================== Order Confirmation =====================
+    @GetMapping("/orders/{id}")
+    public String viewOrder(@PathVariable String id, Model model) {
+        CustomerOrder order = orderService.getOrder(id);
+        if (order == null) {
+            return "redirect:/cart";
+        }
+        model.addAttribute("order", order);
+        return "order";
+    }
+}
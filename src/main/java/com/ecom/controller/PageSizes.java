@@ -0,0 +1,16 @@
+package com.ecom.controller;
+
+// Page sizes come straight from the query string; zero or a negative size would
+// fail deep in the paging code, a huge one would render the whole catalog.
+final class PageSizes {
+
+    static final int MAX = 100;
+
+    private PageSizes() {
+    }
+
+    static int clamp(Integer pageSize) {
+        return Math.min(Math.max(pageSize, 1), MAX);
+    }
+
+}
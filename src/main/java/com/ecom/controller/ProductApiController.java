@@ -0,0 +1,98 @@
+package com.ecom.controller;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.ecom.dto.BrowseQuery;
+import com.ecom.dto.BrowseResult;
+import com.ecom.dto.CursorPage;
+import com.ecom.dto.PageResult;
+import com.ecom.dto.ProductDetail;
+import com.ecom.dto.ProductSummary;
+import com.ecom.dto.Suggestion;
+import com.ecom.service.ProductService;
+
+@RestController
+@RequestMapping("/api")
+public class ProductApiController {
+
+    // Short enough that price and stock changes show up quickly; the ETag makes refreshes cheap
+    private static final CacheControl LIST_CACHE = CacheControl.maxAge(Duration.ofSeconds(60)).cachePublic();
+
+    private static final CacheControl SUGGEST_CACHE = CacheControl.maxAge(Duration.ofSeconds(30)).cachePublic();
+
+    @Autowired
+    private ProductService productService;
+
+    // ===================== Listing =====================
+
+    @GetMapping("/products")
+    public ResponseEntity<CursorPage<ProductSummary>> products(@RequestParam(required = false) Integer category,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") Integer pageSize) {
+
+        return ResponseEntity.ok()
+                .cacheControl(LIST_CACHE)
+                .body(productService.getActiveProductSummariesAfter(cursor, PageSizes.clamp(pageSize), category));
+    }
+
+    // ===================== Detail =====================
+
+    @GetMapping("/products/{id}")
+    public ResponseEntity<ProductDetail> product(@PathVariable Integer id) {
+        ProductDetail product = productService.getActiveProductDetail(id);
+        if (product == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok().cacheControl(LIST_CACHE).body(product);
+    }
+
+    // ===================== Search =====================
+
+    @GetMapping("/products/search")
+    public ResponseEntity<PageResult<ProductSummary>> search(@RequestParam(name = "q", defaultValue = "") String q,
+            @RequestParam(defaultValue = "0") Integer pageNo,
+            @RequestParam(defaultValue = "20") Integer pageSize) {
+
+        return ResponseEntity.ok()
+                .cacheControl(LIST_CACHE)
+                .body(productService.searchActiveProductSummaries(q, Math.max(pageNo, 0), PageSizes.clamp(pageSize)));
+    }
+
+    // ===================== Typeahead =====================
+
+    // Answered from memory on every keystroke; a short max-age lets the browser reuse
+    // the answer while the user types back over the same prefix
+    @GetMapping("/suggest")
+    public ResponseEntity<List<Suggestion>> suggest(@RequestParam(name = "q", defaultValue = "") String q,
+            @RequestParam(defaultValue = "8") Integer limit) {
+
+        return ResponseEntity.ok()
+                .cacheControl(SUGGEST_CACHE)
+                .body(productService.getSuggestions(q, limit));
+    }
+
+    // ===================== Browse =====================
+
+    @GetMapping("/browse")
+    public BrowseResult browse(@RequestParam(required = false) Integer category,
+            @RequestParam(required = false) Integer priceBand,
+            @RequestParam(required = false) Integer discountBand,
+            @RequestParam(required = false) Boolean inStock,
+            @RequestParam(defaultValue = "0") Integer pageNo,
+            @RequestParam(defaultValue = "12") Integer pageSize) {
+
+        BrowseQuery query = new BrowseQuery(category, priceBand, discountBand, inStock, Math.max(pageNo, 0),
+                PageSizes.clamp(pageSize));
+        return productService.browseProducts(query);
+    }
+}
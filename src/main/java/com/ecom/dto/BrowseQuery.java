@@ -0,0 +1,6 @@
+package com.ecom.dto;
+
+// Storefront filter; a null field means "no filter on this facet".
+public record BrowseQuery(Integer categoryId, Integer priceBand, Integer discountBand, Boolean inStock, int pageNo,
+		int pageSize) {
+}
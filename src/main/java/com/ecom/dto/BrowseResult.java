@@ -0,0 +1,10 @@
+package com.ecom.dto;
+
+import java.util.List;
+
+// A page of products plus facet counts. Each facet is counted with every filter
+// applied except its own, so shoppers can see what switching a facet would give.
+public record BrowseResult(List<ProductSummary> products, int pageNo, int pageSize, long totalElements,
+		List<FacetCount> categories, List<FacetCount> priceBands, List<FacetCount> discountBands,
+		List<FacetCount> stock) {
+}
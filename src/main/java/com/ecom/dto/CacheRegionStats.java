@@ -0,0 +1,10 @@
+package com.ecom.dto;
+
+public record CacheRegionStats(String region, long hits, long misses, long puts) {
+
+	public double hitRatio() {
+		long lookups = hits + misses;
+		return lookups == 0 ? 0 : (double) hits / lookups;
+	}
+
+}
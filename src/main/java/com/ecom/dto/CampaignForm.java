@@ -0,0 +1,13 @@
+package com.ecom.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import org.springframework.format.annotation.DateTimeFormat;
+
+// What the admin campaign form may set. Bound instead of the Campaign entity, so a
+// request cannot choose the id, status, product count or timestamps.
+public record CampaignForm(String name, Integer categoryId, BigDecimal minPrice, BigDecimal maxPrice,
+		Integer discount, @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startsAt,
+		@DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endsAt) {
+}
@@ -0,0 +1,9 @@
+package com.ecom.dto;
+
+import java.math.BigDecimal;
+
+import com.ecom.model.Product;
+
+// A cart line priced from the current catalog, not from when it was added.
+public record CartLine(Product product, int quantity, BigDecimal lineTotal) {
+}
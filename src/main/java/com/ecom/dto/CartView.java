@@ -0,0 +1,14 @@
+package com.ecom.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+public record CartView(List<CartLine> lines, int itemCount, BigDecimal total) {
+
+	public static final CartView EMPTY = new CartView(List.of(), 0, BigDecimal.ZERO);
+
+	public boolean isEmpty() {
+		return lines.isEmpty();
+	}
+
+}
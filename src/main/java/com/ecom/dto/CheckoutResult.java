@@ -0,0 +1,18 @@
+package com.ecom.dto;
+
+// Outcome of a checkout: the order id, or a message for the customer.
+public record CheckoutResult(String orderId, String message) {
+
+	public static CheckoutResult placed(String orderId) {
+		return new CheckoutResult(orderId, null);
+	}
+
+	public static CheckoutResult failed(String message) {
+		return new CheckoutResult(null, message);
+	}
+
+	public boolean isPlaced() {
+		return orderId != null;
+	}
+
+}
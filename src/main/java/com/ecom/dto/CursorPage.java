@@ -0,0 +1,45 @@
+package com.ecom.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// One slice of a keyset-paginated listing. The cursor is opaque to clients and
+// encodes the sort key of the last row returned.
+@AllArgsConstructor
+@Getter
+public class CursorPage<T> {
+
+	private static final String PREFIX = "id:";
+
+	private final List<T> content;
+
+	private final String nextCursor;
+
+	private final boolean last;
+
+	// Null when the caller did not ask for (or we had no cheap way to get) a total.
+	private final Long totalElements;
+
+	public static String encode(Integer lastId) {
+		byte[] raw = (PREFIX + lastId).getBytes(StandardCharsets.UTF_8);
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(raw);
+	}
+
+	// Returns the id to seek after; an absent or malformed cursor starts from the beginning.
+	public static int decode(String cursor) {
+		if (cursor == null || cursor.isEmpty()) {
+			return 0;
+		}
+		try {
+			String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+			return raw.startsWith(PREFIX) ? Integer.parseInt(raw.substring(PREFIX.length())) : 0;
+		} catch (IllegalArgumentException e) {
+			return 0;
+		}
+	}
+
+}
@@ -0,0 +1,4 @@
+package com.ecom.dto;
+
+public record FacetCount(Integer key, String label, long count) {
+}
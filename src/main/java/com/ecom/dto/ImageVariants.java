@@ -0,0 +1,5 @@
+package com.ecom.dto;
+
+// File names of the derived images written next to an uploaded original.
+public record ImageVariants(String thumbnail, String listing) {
+}
@@ -0,0 +1,122 @@
+package com.ecom.dto;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Progress of one bulk product import. Updated by the import worker and polled by
+// the admin page; only the first MAX_ERRORS row errors are kept.
+public class ImportJob {
+
+	public enum Status {
+		QUEUED, RUNNING, COMPLETED, FAILED
+	}
+
+	private static final int MAX_ERRORS = 200;
+
+	private final String id;
+
+	private final String fileName;
+
+	private final Instant createdAt = Instant.now();
+
+	private volatile Status status = Status.QUEUED;
+
+	private volatile Instant finishedAt;
+
+	private volatile String message;
+
+	private final AtomicLong rowsRead = new AtomicLong();
+
+	private final AtomicLong inserted = new AtomicLong();
+
+	private final AtomicLong updated = new AtomicLong();
+
+	private final AtomicLong failed = new AtomicLong();
+
+	private final List<ImportRowError> errors = new CopyOnWriteArrayList<>();
+
+	public ImportJob(String id, String fileName) {
+		this.id = id;
+		this.fileName = fileName;
+	}
+
+	public String getId() {
+		return id;
+	}
+
+	public String getFileName() {
+		return fileName;
+	}
+
+	public Instant getCreatedAt() {
+		return createdAt;
+	}
+
+	public Status getStatus() {
+		return status;
+	}
+
+	public Instant getFinishedAt() {
+		return finishedAt;
+	}
+
+	public String getMessage() {
+		return message;
+	}
+
+	public long getRowsRead() {
+		return rowsRead.get();
+	}
+
+	public long getInserted() {
+		return inserted.get();
+	}
+
+	public long getUpdated() {
+		return updated.get();
+	}
+
+	public long getFailed() {
+		return failed.get();
+	}
+
+	public List<ImportRowError> getErrors() {
+		return List.copyOf(errors);
+	}
+
+	public boolean isFinished() {
+		return status == Status.COMPLETED || status == Status.FAILED;
+	}
+
+	public void start() {
+		status = Status.RUNNING;
+	}
+
+	public void rowRead() {
+		rowsRead.incrementAndGet();
+	}
+
+	public void inserted(int rows) {
+		inserted.addAndGet(rows);
+	}
+
+	public void updated(int rows) {
+		updated.addAndGet(rows);
+	}
+
+	public void rowFailed(long line, String error) {
+		failed.incrementAndGet();
+		if (errors.size() < MAX_ERRORS) {
+			errors.add(new ImportRowError(line, error));
+		}
+	}
+
+	public void finish(Status finalStatus, String finalMessage) {
+		message = finalMessage;
+		finishedAt = Instant.now();
+		status = finalStatus;
+	}
+
+}
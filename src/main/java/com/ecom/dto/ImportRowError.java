@@ -0,0 +1,5 @@
+package com.ecom.dto;
+
+// A rejected input row; line is the 1-based line in the uploaded file.
+public record ImportRowError(long line, String message) {
+}
@@ -0,0 +1,12 @@
+package com.ecom.dto;
+
+import java.util.List;
+
+// Offset-paginated slice for JSON responses; Spring Data's PageImpl has no stable JSON form.
+public record PageResult<T>(List<T> content, int pageNo, int pageSize, long totalElements) {
+
+	public boolean isLast() {
+		return (long) (pageNo + 1) * pageSize >= totalElements;
+	}
+
+}
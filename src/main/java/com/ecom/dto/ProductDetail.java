@@ -0,0 +1,9 @@
+package com.ecom.dto;
+
+import java.math.BigDecimal;
+
+// Everything the product page shows; still leaves out admin-only columns.
+public record ProductDetail(Integer id, String title, String description, Integer categoryId, String categoryName,
+		BigDecimal price, BigDecimal discountPrice, int discount, int stock, String image, String thumbnailImage,
+		String listingImage) {
+}
@@ -0,0 +1,19 @@
+package com.ecom.dto;
+
+import java.math.BigDecimal;
+
+import com.ecom.model.Product;
+
+// The few columns a product card or list row needs.
+public record ProductSummary(Integer id, String title, Integer categoryId, String categoryName, BigDecimal price,
+		BigDecimal discountPrice, int discount, String image) {
+
+	public static ProductSummary of(Product product) {
+		return new ProductSummary(product.getId(), product.getTitle(),
+				product.getCategory() == null ? null : product.getCategory().getId(),
+				product.getCategory() == null ? null : product.getCategory().getName(), product.getPrice(),
+				product.getDiscountPrice(), product.getDiscount(),
+				product.getListingImage() != null ? product.getListingImage() : product.getImage());
+	}
+
+}
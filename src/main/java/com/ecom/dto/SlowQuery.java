@@ -0,0 +1,10 @@
+package com.ecom.dto;
+
+import java.time.Instant;
+import java.util.List;
+
+// One timed statement. parameters are the bind values of the first row of a batch,
+// already rendered and truncated; callSite is the innermost application method.
+public record SlowQuery(Instant executedAt, long elapsedMillis, String sql, List<String> parameters, int batchSize,
+		String callSite, String thread, boolean sampled) {
+}
@@ -0,0 +1,7 @@
+package com.ecom.dto;
+
+import java.time.Instant;
+
+// Units held for a checkout until they are committed, released or expire.
+public record StockReservation(String id, Integer productId, int quantity, Instant expiresAt) {
+}
@@ -0,0 +1,11 @@
+package com.ecom.dto;
+
+// One typeahead entry. categoryId is set for category suggestions only; count is the
+// number of active products behind the suggestion.
+public record Suggestion(String text, String type, Integer categoryId, int count) {
+
+	public static final String CATEGORY = "category";
+
+	public static final String WORD = "word";
+
+}
@@ -0,0 +1,55 @@
+package com.ecom.event;
+
+import com.ecom.model.Category;
+import com.ecom.model.Product;
+
+// A committed change to a product or a category. Product events other than a delete
+// carry the product as written, category events the category as written, so
+// subscribers do not have to read it back.
+//
+// releasedImage is a stored image the write stopped using (a replaced upload or the
+// image of a deleted row); the reference is given back once the change is committed.
+// sequence is assigned when the event is dispatched, after the commit.
+public record CatalogEvent(long sequence, Type type, Integer entityId, Product product, Category category,
+		String releasedImage) {
+
+	public enum Type {
+		PRODUCT_CREATED, PRODUCT_UPDATED, PRODUCT_PRICE_CHANGED, PRODUCT_STOCK_CHANGED, PRODUCT_DELETED,
+		CATEGORY_CREATED, CATEGORY_UPDATED, CATEGORY_DELETED,
+		// Bulk writes (imports, campaigns); only recorded in the outbox, subscribers reload instead
+		CATALOG_RELOADED;
+
+		public boolean isProduct() {
+			return name().startsWith("PRODUCT_");
+		}
+
+		public boolean isCategory() {
+			return name().startsWith("CATEGORY_");
+		}
+	}
+
+	public static CatalogEvent product(Type type, Product product) {
+		return new CatalogEvent(0, type, product.getId(), product, null, null);
+	}
+
+	public static CatalogEvent productDeleted(Integer id) {
+		return new CatalogEvent(0, Type.PRODUCT_DELETED, id, null, null, null);
+	}
+
+	public static CatalogEvent category(Type type, Category category) {
+		return new CatalogEvent(0, type, category.getId(), null, category, null);
+	}
+
+	public static CatalogEvent categoryDeleted(Integer id) {
+		return new CatalogEvent(0, Type.CATEGORY_DELETED, id, null, null, null);
+	}
+
+	public CatalogEvent releasing(String image) {
+		return new CatalogEvent(sequence, type, entityId, product, category, image);
+	}
+
+	CatalogEvent withSequence(long sequence) {
+		return new CatalogEvent(sequence, type, entityId, product, category, releasedImage);
+	}
+
+}
@@ -0,0 +1,345 @@
+package com.ecom.event;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.ecom.model.Category;
+import com.ecom.model.Product;
+import com.ecom.repositories.CategoryRepository;
+import com.ecom.repositories.ProductRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+// Delivers catalog changes to the CatalogEventListener beans (catalog snapshot,
+// search and typeahead indexes, image clean-up).
+//
+// Events published inside a transaction are dispatched after it commits and
+// dropped if it rolls back. Synchronous listeners (the catalog snapshot) are called
+// right there, on the committing thread, so the write returns only once the
+// snapshot and its version show it. The slow ones are fed in the background: each
+// event goes to one of a few lanes, picked by entity, so the events of one product
+// or category stay in order; a lane thread drains its bounded queue in batches. If
+// a queue is full the event is dropped and the listeners are reloaded from the
+// database instead, which covers everything committed up to that point.
+//
+// With the outbox enabled, every event is also written to catalog_event in the
+// transaction of the change, and can be replayed from there.
+@Component
+public class CatalogEventBus {
+
+	private static final Logger log = LoggerFactory.getLogger(CatalogEventBus.class);
+
+	private static final String OUTBOX_INSERT_SQL = "INSERT INTO catalog_event (event_type, entity_id, created_at) "
+			+ "VALUES (?, ?, ?)";
+
+	private static final String OUTBOX_READ_SQL = "SELECT id, event_type, entity_id FROM catalog_event "
+			+ "WHERE id > ? ORDER BY id";
+
+	private static final String OUTBOX_PURGE_SQL = "DELETE FROM catalog_event WHERE created_at < ?";
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private CategoryRepository categoryRepository;
+
+	// In @Order order
+	@Autowired
+	private List<CatalogEventListener> listeners;
+
+	private final List<CatalogEventListener> synchronousListeners = new ArrayList<>();
+
+	private final List<CatalogEventListener> laneListeners = new ArrayList<>();
+
+	private final List<BlockingQueue<CatalogEvent>> lanes = new ArrayList<>();
+
+	private final List<Thread> laneThreads = new ArrayList<>();
+
+	private final int maxBatch;
+
+	private final boolean outboxEnabled;
+
+	private final Duration outboxRetention;
+
+	private final AtomicLong sequence = new AtomicLong();
+
+	// Sequences are handed out and synchronous listeners called in one step, so the
+	// snapshot applies events in the same order as the lanes
+	private final ReentrantLock dispatchLock = new ReentrantLock();
+
+	// Lanes deliver under the read lock; a reload takes the write lock, so no batch
+	// is half applied on top of a rebuilt listener
+	private final ReentrantReadWriteLock deliveryLock = new ReentrantReadWriteLock();
+
+	// Events up to this sequence were committed before the last reload read the
+	// database, so they are already part of it
+	private volatile long reloadedThrough;
+
+	private final AtomicBoolean reloadRequested = new AtomicBoolean();
+
+	private volatile boolean running = true;
+
+	private final Counter delivered;
+
+	private final Counter dropped;
+
+	private final Counter failed;
+
+	private final DistributionSummary batchSize;
+
+	public CatalogEventBus(@Value("${ecom.events.lanes:2}") int laneCount,
+			@Value("${ecom.events.queue-capacity:10000}") int queueCapacity,
+			@Value("${ecom.events.max-batch:256}") int maxBatch,
+			@Value("${ecom.events.outbox.enabled:false}") boolean outboxEnabled,
+			@Value("${ecom.events.outbox.retention:7d}") Duration outboxRetention,
+			MeterRegistry registry) {
+		this.maxBatch = Math.max(1, maxBatch);
+		this.outboxEnabled = outboxEnabled;
+		this.outboxRetention = outboxRetention;
+
+		CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("catalog-events-");
+		// Listeners only hold derived state, nothing is lost if the JVM exits under them
+		threadFactory.setDaemon(true);
+		for (int i = 0; i < Math.max(1, laneCount); i++) {
+			BlockingQueue<CatalogEvent> lane = new ArrayBlockingQueue<>(queueCapacity);
+			lanes.add(lane);
+			laneThreads.add(threadFactory.newThread(() -> runLane(lane)));
+		}
+
+		this.delivered = Counter.builder("ecom.catalog.events").tag("result", "delivered").register(registry);
+		this.dropped = Counter.builder("ecom.catalog.events").tag("result", "dropped").register(registry);
+		this.failed = Counter.builder("ecom.catalog.events").tag("result", "failed").register(registry);
+		this.batchSize = DistributionSummary.builder("ecom.catalog.events.batch.size")
+				.description("Events handed to the listeners in one call")
+				.publishPercentileHistogram()
+				.maximumExpectedValue((double) this.maxBatch)
+				.register(registry);
+		registry.gauge("ecom.catalog.events.queue.size", lanes,
+				queues -> queues.stream().mapToInt(BlockingQueue::size).sum());
+	}
+
+	@PostConstruct
+	public void start() {
+		for (CatalogEventListener listener : listeners) {
+			(listener.isSynchronous() ? synchronousListeners : laneListeners).add(listener);
+		}
+		laneThreads.forEach(Thread::start);
+	}
+
+	@PreDestroy
+	public void shutdown() throws InterruptedException {
+		// Lanes deliver what is already queued before they stop
+		running = false;
+		for (Thread thread : laneThreads) {
+			thread.join(5000);
+		}
+	}
+
+	public void publish(CatalogEvent event) {
+		publishAll(List.of(event));
+	}
+
+	public void publishAll(List<CatalogEvent> events) {
+		if (events.isEmpty()) {
+			return;
+		}
+		if (outboxEnabled) {
+			writeOutbox(events);
+		}
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+				@Override
+				public void afterCommit() {
+					dispatch(events);
+				}
+			});
+		} else {
+			dispatch(events);
+		}
+	}
+
+	// For bulk writes that go around the services: rebuilds every listener from the
+	// database before returning, so the caller sees its own changes.
+	public void reload() {
+		if (outboxEnabled) {
+			writeOutbox(List.of(new CatalogEvent(0, CatalogEvent.Type.CATALOG_RELOADED, null, null, null, null)));
+		}
+		rebuild();
+	}
+
+	// Re-delivers the outbox events after the given id, each with the current state of
+	// its entity. Images are not released again. Returns the last id replayed.
+	public long replay(long afterId, int limit) {
+		List<Object[]> rows = jdbcTemplate.query(OUTBOX_READ_SQL, ps -> {
+			ps.setLong(1, afterId);
+			ps.setMaxRows(limit);
+		}, (rs, rowNum) -> new Object[] { rs.getLong(1), rs.getString(2), rs.getObject(3, Integer.class) });
+
+		long lastId = afterId;
+		List<CatalogEvent> events = new ArrayList<>(rows.size());
+		for (Object[] row : rows) {
+			lastId = (Long) row[0];
+			CatalogEvent.Type type = CatalogEvent.Type.valueOf((String) row[1]);
+			Integer entityId = (Integer) row[2];
+			if (type.isProduct()) {
+				Product product = productRepository.findById(entityId).orElse(null);
+				events.add(product != null ? CatalogEvent.product(type == CatalogEvent.Type.PRODUCT_DELETED
+						? CatalogEvent.Type.PRODUCT_UPDATED : type, product) : CatalogEvent.productDeleted(entityId));
+			} else if (type.isCategory()) {
+				Category category = categoryRepository.findById(entityId).orElse(null);
+				events.add(category != null ? CatalogEvent.category(type == CatalogEvent.Type.CATEGORY_DELETED
+						? CatalogEvent.Type.CATEGORY_UPDATED : type, category) : CatalogEvent.categoryDeleted(entityId));
+			} else {
+				reloadRequested.set(true);
+			}
+		}
+		dispatch(events);
+		return lastId;
+	}
+
+	@Scheduled(fixedDelayString = "${ecom.events.outbox.purge-interval-ms:3600000}")
+	public void purgeOutbox() {
+		if (outboxEnabled) {
+			jdbcTemplate.update(OUTBOX_PURGE_SQL, Timestamp.valueOf(LocalDateTime.now().minus(outboxRetention)));
+		}
+	}
+
+	private void writeOutbox(List<CatalogEvent> events) {
+		Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+		List<Object[]> rows = new ArrayList<>(events.size());
+		for (CatalogEvent event : events) {
+			rows.add(new Object[] { event.type().name(), event.entityId(), now });
+		}
+		jdbcTemplate.batchUpdate(OUTBOX_INSERT_SQL, rows);
+	}
+
+	private void dispatch(List<CatalogEvent> events) {
+		if (events.isEmpty()) {
+			return;
+		}
+		dispatchLock.lock();
+		try {
+			List<CatalogEvent> sequenced = new ArrayList<>(events.size());
+			for (CatalogEvent event : events) {
+				sequenced.add(event.withSequence(sequence.incrementAndGet()));
+			}
+			deliver(synchronousListeners, sequenced);
+			if (laneListeners.isEmpty()) {
+				return;
+			}
+			for (CatalogEvent event : sequenced) {
+				int key = event.type().isCategory() ? ~event.entityId() : event.entityId();
+				BlockingQueue<CatalogEvent> lane = lanes.get(Math.floorMod(key, lanes.size()));
+				if (!lane.offer(event)) {
+					dropped.increment();
+					reloadRequested.set(true);
+				}
+			}
+		} finally {
+			dispatchLock.unlock();
+		}
+	}
+
+	private void runLane(BlockingQueue<CatalogEvent> lane) {
+		List<CatalogEvent> batch = new ArrayList<>(maxBatch);
+		while (running || !lane.isEmpty()) {
+			if (reloadRequested.compareAndSet(true, false)) {
+				rebuild();
+			}
+			try {
+				CatalogEvent first = lane.poll(200, TimeUnit.MILLISECONDS);
+				if (first == null) {
+					continue;
+				}
+				batch.add(first);
+				lane.drainTo(batch, maxBatch - 1);
+				if (deliver(laneListeners, batch)) {
+					delivered.increment(batch.size());
+					batchSize.record(batch.size());
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			} catch (RuntimeException e) {
+				log.error("Catalog event lane failed", e);
+			} finally {
+				batch.clear();
+			}
+		}
+	}
+
+	// Returns false if the whole batch was already covered by a reload
+	private boolean deliver(List<CatalogEventListener> targets, List<CatalogEvent> batch) {
+		deliveryLock.readLock().lock();
+		try {
+			long through = reloadedThrough;
+			batch.removeIf(event -> event.sequence() <= through);
+			if (batch.isEmpty()) {
+				return false;
+			}
+			List<CatalogEvent> events = Collections.unmodifiableList(batch);
+			for (CatalogEventListener listener : targets) {
+				try {
+					listener.onEvents(events);
+				} catch (RuntimeException e) {
+					// The listener may now be out of step with the database; rebuild it
+					log.error("{} failed on {} catalog event(s), reloading", listener.getClass().getSimpleName(),
+							events.size(), e);
+					failed.increment(events.size());
+					reloadRequested.set(true);
+				}
+			}
+			return true;
+		} finally {
+			deliveryLock.readLock().unlock();
+		}
+	}
+
+	private void rebuild() {
+		deliveryLock.writeLock().lock();
+		try {
+			long through = sequence.get();
+			for (CatalogEventListener listener : listeners) {
+				try {
+					listener.onReload();
+				} catch (RuntimeException e) {
+					log.error("{} failed to reload", listener.getClass().getSimpleName(), e);
+				}
+			}
+			reloadedThrough = through;
+		} finally {
+			deliveryLock.writeLock().unlock();
+		}
+	}
+
+}
@@ -0,0 +1,23 @@
+package com.ecom.event;
+
+import java.util.List;
+
+// A subscriber of CatalogEventBus. Listener beans are picked up automatically and
+// called in @Order order, so one can rely on an earlier one having seen the batch.
+public interface CatalogEventListener {
+
+	// Called from a dispatcher lane with events in commit order for each entity.
+	// Lanes run in parallel, so implementations have to be thread-safe.
+	void onEvents(List<CatalogEvent> events);
+
+	// Rebuild from the database; events up to this point will not be delivered.
+	void onReload();
+
+	// Synchronous listeners get onEvents on the committing thread, before the write
+	// returns, instead of from a lane. Only for cheap in-memory updates that readers
+	// must see right after the write.
+	default boolean isSynchronous() {
+		return false;
+	}
+
+}
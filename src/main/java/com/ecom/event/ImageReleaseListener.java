@@ -0,0 +1,43 @@
+package com.ecom.event;
+
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.ecom.service.ImageStorageService;
+
+// Gives back the stored images a committed write stopped using; the blob itself is
+// deleted once nothing references it anymore.
+@Component
+public class ImageReleaseListener implements CatalogEventListener {
+
+	private static final Logger log = LoggerFactory.getLogger(ImageReleaseListener.class);
+
+	@Autowired
+	private ImageStorageService imageStorageService;
+
+	@Override
+	public void onEvents(List<CatalogEvent> events) {
+		for (CatalogEvent event : events) {
+			if (event.releasedImage() == null) {
+				continue;
+			}
+			try {
+				imageStorageService.release(event.type().isProduct() ? "product_img" : "category_img",
+						event.releasedImage());
+			} catch (RuntimeException e) {
+				// A leftover file is harmless; do not hold up the other events
+				log.warn("Could not release image {}", event.releasedImage(), e);
+			}
+		}
+	}
+
+	@Override
+	public void onReload() {
+		// Nothing derived to rebuild
+	}
+
+}
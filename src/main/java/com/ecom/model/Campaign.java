@@ -0,0 +1,74 @@
+package com.ecom.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import org.springframework.format.annotation.DateTimeFormat;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// A discount applied to every product matching a category and/or price range
+// between startsAt and endsAt. The discount each product had before is kept in
+// campaign_product so the campaign can be reverted.
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Getter
+@Setter
+@Entity
+public class Campaign {
+
+	public enum Status {
+		SCHEDULED, ACTIVE, ENDED, CANCELLED
+	}
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	private Integer id;
+
+	@Column(length = 200)
+	private String name;
+
+	// Null means every category
+	@ManyToOne
+	@JoinColumn(name = "category_id")
+	private Category category;
+
+	@Column(precision = 12, scale = 2)
+	private BigDecimal minPrice;
+
+	@Column(precision = 12, scale = 2)
+	private BigDecimal maxPrice;
+
+	private int discount;
+
+	@DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+	private LocalDateTime startsAt;
+
+	@DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+	private LocalDateTime endsAt;
+
+	@Enumerated(EnumType.STRING)
+	@Column(length = 20)
+	private Status status;
+
+	private Integer productCount;
+
+	private LocalDateTime appliedAt;
+
+	private LocalDateTime revertedAt;
+
+}
@@ -0,0 +1,51 @@
+package com.ecom.model;
+
+import java.io.Serializable;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// Product covered by a running campaign, with the discount to restore on revert.
+// Written and read with set-based SQL only; mapped so ddl-auto creates the table.
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@Entity
+@IdClass(CampaignProduct.Key.class)
+@Table(name = "campaign_product", indexes = @Index(name = "idx_campaign_product_product", columnList = "product_id"))
+public class CampaignProduct {
+
+	@Id
+	@Column(name = "campaign_id")
+	private Integer campaignId;
+
+	@Id
+	@Column(name = "product_id")
+	private Integer productId;
+
+	private int previousDiscount;
+
+	@NoArgsConstructor
+	@AllArgsConstructor
+	@EqualsAndHashCode
+	public static class Key implements Serializable {
+
+		private static final long serialVersionUID = 1L;
+
+		private Integer campaignId;
+
+		private Integer productId;
+
+	}
+
+}
@@ -0,0 +1,55 @@
+package com.ecom.model;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// One line of a persisted cart. Carts live in memory in CartServiceImpl; this table
+// is their write-behind copy, written and read with set-based SQL only.
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@Entity
+@IdClass(CartItem.Key.class)
+@Table(name = "cart_item")
+public class CartItem {
+
+	@Id
+	@Column(name = "cart_id", length = 36)
+	private String cartId;
+
+	@Id
+	@Column(name = "product_id")
+	private Integer productId;
+
+	private int quantity;
+
+	// When the cart was last written, for purging abandoned carts
+	@Column(name = "updated_at")
+	private LocalDateTime updatedAt;
+
+	@NoArgsConstructor
+	@AllArgsConstructor
+	@EqualsAndHashCode
+	public static class Key implements Serializable {
+
+		private static final long serialVersionUID = 1L;
+
+		private String cartId;
+
+		private Integer productId;
+
+	}
+
+}
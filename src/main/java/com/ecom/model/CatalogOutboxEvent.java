@@ -0,0 +1,46 @@
+package com.ecom.model;
+
+import java.time.LocalDateTime;
+
+import com.ecom.event.CatalogEvent;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// Durable copy of a catalog event, written in the transaction of the change when the
+// outbox is enabled. Rows only name the entity; a replay reads its current state.
+// Written and read by CatalogEventBus with plain JDBC; the mapping creates the table.
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@Entity
+@Table(name = "catalog_event", indexes = @Index(name = "idx_catalog_event_created_at", columnList = "created_at"))
+public class CatalogOutboxEvent {
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	private Long id;
+
+	@Enumerated(EnumType.STRING)
+	@Column(name = "event_type", length = 32, nullable = false)
+	private CatalogEvent.Type eventType;
+
+	@Column(name = "entity_id")
+	private Integer entityId;
+
+	@Column(name = "created_at", nullable = false)
+	private LocalDateTime createdAt;
+
+}
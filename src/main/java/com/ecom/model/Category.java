@@ -1,5 +1,10 @@
 package com.ecom.model;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import com.ecom.config.HibernateCacheConfig;
+
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
@@ -14,6 +19,7 @@ import lombok.Setter;
 @Getter
 @Setter
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = HibernateCacheConfig.CATEGORY_REGION)
 public class Category {
     
     @Id
@@ -24,6 +30,8 @@ public class Category {
     
     private String imageName;  // Only stores filename, not byte[]
     
+    private String thumbnailImage;
+    
     private Boolean isActive;
     
     // Remove imageData field completely since you're using file storage now
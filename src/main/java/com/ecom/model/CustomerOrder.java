@@ -0,0 +1,65 @@
+package com.ecom.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.OneToMany;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// An order placed from a cart. Rows are inserted in groups by OrderServiceImpl with
+// JDBC batches; the mapping is used to create the tables and to read orders back.
+// Ids are generated by the application so a group can be inserted in one batch.
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@Entity
+@Table(name = "customer_order",
+		indexes = @Index(name = "uk_customer_order_idempotency_key", columnList = "idempotency_key", unique = true))
+public class CustomerOrder {
+
+	public enum Status {
+		PLACED, CONFIRMED
+	}
+
+	@Id
+	@Column(length = 36)
+	private String id;
+
+	// Sent by the client with the checkout; a retry with the same key gets the same order
+	@Column(name = "idempotency_key", length = 64, nullable = false)
+	private String idempotencyKey;
+
+	@Column(length = 36)
+	private String cartId;
+
+	@Enumerated(EnumType.STRING)
+	@Column(length = 20)
+	private Status status;
+
+	private int itemCount;
+
+	@Column(precision = 12, scale = 2)
+	private BigDecimal total;
+
+	private LocalDateTime createdAt;
+
+	private LocalDateTime confirmedAt;
+
+	@OneToMany
+	@JoinColumn(name = "order_id", insertable = false, updatable = false)
+	private List<OrderItem> items;
+
+}
@@ -0,0 +1,56 @@
+package com.ecom.model;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// One line of an order, with the title and price the product had at checkout.
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@Entity
+@IdClass(OrderItem.Key.class)
+@Table(name = "order_item")
+public class OrderItem {
+
+	@Id
+	@Column(name = "order_id", length = 36)
+	private String orderId;
+
+	@Id
+	@Column(name = "product_id")
+	private Integer productId;
+
+	@Column(length = 500)
+	private String title;
+
+	@Column(precision = 12, scale = 2)
+	private BigDecimal unitPrice;
+
+	private int quantity;
+
+	@NoArgsConstructor
+	@AllArgsConstructor
+	@EqualsAndHashCode
+	public static class Key implements Serializable {
+
+		private static final long serialVersionUID = 1L;
+
+		private String orderId;
+
+		private Integer productId;
+
+	}
+
+}
@@ -1,20 +1,35 @@
 package com.ecom.model;
 
+import java.math.BigDecimal;
+
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import com.ecom.config.HibernateCacheConfig;
+
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
+import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 @AllArgsConstructor
 @NoArgsConstructor
+@Builder(toBuilder = true)
 @Getter
 @Setter
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = HibernateCacheConfig.PRODUCT_REGION)
+@Table(indexes = @Index(name = "idx_product_category_active", columnList = "category_id, isActive"))
 public class Product {
 
 	@Id
@@ -27,17 +42,26 @@ public class Product {
 	@Column(length = 5000)
 	private String description;
 
-	private String category;
+	@ManyToOne
+	@JoinColumn(name = "category_id")
+	private Category category;
 
-	private Double price;
+	// Fixed-point money: DECIMAL(12,2)
+	@Column(precision = 12, scale = 2)
+	private BigDecimal price;
 
 	private int stock;
 
 	private String image;
 
+	private String thumbnailImage;
+
+	private String listingImage;
+
 	private int discount;
 	
-	private Double discountPrice;
+	@Column(precision = 12, scale = 2)
+	private BigDecimal discountPrice;
 	
 	private Boolean isActive;
 	
@@ -0,0 +1,19 @@
+package com.ecom.repositories;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.ecom.model.Campaign;
+
+@Repository
+public interface CampaignRepository extends JpaRepository<Campaign, Integer> {
+
+    List<Campaign> findAllByOrderByIdDesc();
+
+    List<Campaign> findByStatusAndStartsAtLessThanEqual(Campaign.Status status, LocalDateTime now);
+
+    List<Campaign> findByStatusAndEndsAtLessThanEqual(Campaign.Status status, LocalDateTime now);
+}
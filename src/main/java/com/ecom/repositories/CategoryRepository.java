@@ -1,11 +1,36 @@
 package com.ecom.repositories;
 
+import java.util.List;
+
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.ecom.config.HibernateCacheConfig;
 import com.ecom.model.Category;
 
+import jakarta.persistence.QueryHint;
+
 public interface CategoryRepository extends JpaRepository<Category,Integer>  {
+
+	// Every admin form and the home page list the categories; the result is cached until a category changes
+	@Override
+	@QueryHints({ @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+			@QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = HibernateCacheConfig.CATEGORY_LIST_REGION) })
+	public List<Category> findAll();
 	
 	public Boolean existsByName(String name);
 
+	public long countByImageName(String imageName);
+
+	@Transactional
+	@Modifying
+	@Query("update Category c set c.thumbnailImage = :thumbnail where c.id = :id and c.imageName = :imageName")
+	public int updateThumbnail(@Param("id") Integer id, @Param("imageName") String imageName,
+			@Param("thumbnail") String thumbnail);
+
 }
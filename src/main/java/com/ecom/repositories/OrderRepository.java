@@ -0,0 +1,20 @@
+package com.ecom.repositories;
+
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.ecom.model.CustomerOrder;
+
+@Repository
+public interface OrderRepository extends JpaRepository<CustomerOrder, String> {
+
+    @Query("select o from CustomerOrder o left join fetch o.items where o.id = :id")
+    Optional<CustomerOrder> findWithItemsById(@Param("id") String id);
+
+    @Query("select o.id from CustomerOrder o where o.idempotencyKey = :key")
+    Optional<String> findIdByIdempotencyKey(@Param("key") String key);
+}
@@ -1,14 +1,27 @@
 package com.ecom.repositories;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.stereotype.Repository;
 
+import com.ecom.dto.ProductDetail;
+import com.ecom.dto.ProductSummary;
 import com.ecom.model.Product;
 
+import jakarta.persistence.QueryHint;
+
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Integer> {
 
@@ -16,13 +29,42 @@ public interface ProductRepository extends JpaRepository<Product, Integer> {
 
     Page<Product> findByIsActiveTrue(Pageable pageable);
 
-    List<Product> findByCategory(String category);
+    long countByImage(String image);
+
+    long countByCategoryId(Integer categoryId);
+
+    // Keyset (seek) pagination: WHERE id > :lastId ORDER BY id, no OFFSET and no COUNT(*)
+    List<Product> findByIdGreaterThanOrderByIdAsc(Integer lastId, Limit limit);
+
+    // Only touches the variant columns so it cannot overwrite a concurrent admin edit
+    @Transactional
+    @Modifying
+    @Query("update Product p set p.thumbnailImage = :thumbnail, p.listingImage = :listing where p.id = :id and p.image = :image")
+    int updateImageVariants(@Param("id") Integer id, @Param("image") String image,
+            @Param("thumbnail") String thumbnail, @Param("listing") String listing);
+
+    // Catalog (re)loads read every row once; passing them through the second-level cache would only evict hot entries
+    @Query("select p from Product p")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHE_MODE, value = "IGNORE"))
+    List<Product> findAllForCatalog();
+
+    @Query("select p.stock from Product p where p.id = :id")
+    Optional<Integer> findStockById(@Param("id") Integer id);
 
-    List<Product> findByTitleContainingIgnoreCaseOrCategoryContainingIgnoreCase(String ch, String ch2);
+    // ---- Read-only projections for the JSON API: no entities, no description unless asked for ----
 
-    Page<Product> findByCategory(Pageable pageable, String category);
+    @Query("select new com.ecom.dto.ProductSummary(p.id, p.title, c.id, c.name, p.price, p.discountPrice, p.discount, "
+            + "coalesce(p.listingImage, p.image)) from Product p left join p.category c "
+            + "where p.isActive = true and p.id > :lastId and (:categoryId is null or c.id = :categoryId) order by p.id")
+    List<ProductSummary> findActiveSummariesAfter(@Param("lastId") Integer lastId,
+            @Param("categoryId") Integer categoryId, Limit limit);
 
-    Page<Product> findByTitleContainingIgnoreCaseOrCategoryContainingIgnoreCase(String ch, String ch2, Pageable pageable);
+    @Query("select new com.ecom.dto.ProductSummary(p.id, p.title, c.id, c.name, p.price, p.discountPrice, p.discount, "
+            + "coalesce(p.listingImage, p.image)) from Product p left join p.category c where p.id in :ids")
+    List<ProductSummary> findSummariesByIdIn(@Param("ids") Collection<Integer> ids);
 
-    Page<Product> findByIsActiveTrueAndTitleContainingIgnoreCaseOrCategoryContainingIgnoreCase(String ch, String ch2, Pageable pageable);
+    @Query("select new com.ecom.dto.ProductDetail(p.id, p.title, p.description, c.id, c.name, p.price, p.discountPrice, "
+            + "p.discount, p.stock, p.image, p.thumbnailImage, p.listingImage) from Product p left join p.category c "
+            + "where p.id = :id and p.isActive = true")
+    Optional<ProductDetail> findActiveDetailById(@Param("id") Integer id);
 }
\ No newline at end of file
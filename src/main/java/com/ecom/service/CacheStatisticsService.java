@@ -0,0 +1,12 @@
+package com.ecom.service;
+
+import java.util.List;
+
+import com.ecom.dto.CacheRegionStats;
+
+public interface CacheStatisticsService {
+
+	// Hit, miss and put counts of each Hibernate second-level and query cache region since startup.
+	public List<CacheRegionStats> getRegionStatistics();
+
+}
@@ -0,0 +1,21 @@
+package com.ecom.service;
+
+import java.util.List;
+
+import com.ecom.dto.CampaignForm;
+import com.ecom.model.Campaign;
+
+public interface CampaignService {
+
+	// Schedules a new campaign from the admin form.
+	public Campaign saveCampaign(CampaignForm form);
+
+	public List<Campaign> getAllCampaigns();
+
+	public Campaign applyCampaign(Integer id);
+
+	public Campaign revertCampaign(Integer id);
+
+	public Campaign cancelCampaign(Integer id);
+
+}
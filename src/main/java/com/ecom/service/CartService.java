@@ -0,0 +1,22 @@
+package com.ecom.service;
+
+import com.ecom.dto.CartView;
+
+public interface CartService {
+
+	public CartView getCart(String cartId);
+
+	// False when the product is unknown, inactive or out of stock, or the cart is full.
+	public boolean addToCart(String cartId, Integer productId, int quantity);
+
+	// A quantity of zero removes the line.
+	public boolean updateQuantity(String cartId, Integer productId, int quantity);
+
+	public boolean removeFromCart(String cartId, Integer productId);
+
+	public void clearCart(String cartId);
+
+	// Writes changed carts to the database.
+	public void flush();
+
+}
@@ -9,5 +9,7 @@ public interface CategoryService {
     List<Category> getAllCategory();
     Category getCategoryById(Integer id);
     boolean deleteCategory(Integer id);  // or deleteCategoryById
+    long countProducts(Integer id);
     boolean updateCategory(Category category);
+    void updateThumbnail(Integer id, String imageName, String thumbnail);
 }
\ No newline at end of file
@@ -0,0 +1,16 @@
+package com.ecom.service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import org.springframework.web.multipart.MultipartFile;
+
+public interface ImageStorageService {
+
+	public String store(MultipartFile file, String subDirectory) throws IOException;
+
+	public Path resolve(String subDirectory, String fileName);
+
+	public void release(String subDirectory, String fileName);
+
+}
@@ -0,0 +1,12 @@
+package com.ecom.service;
+
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+
+import com.ecom.dto.ImageVariants;
+
+public interface ImageVariantService {
+
+	public CompletableFuture<ImageVariants> generateVariants(Path original);
+
+}
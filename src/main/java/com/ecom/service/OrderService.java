@@ -0,0 +1,15 @@
+package com.ecom.service;
+
+import com.ecom.dto.CheckoutResult;
+import com.ecom.model.CustomerOrder;
+
+public interface OrderService {
+
+	// Places an order for the cart. Calls with the same idempotency key, concurrent or
+	// later, all return the order placed by the first one.
+	public CheckoutResult checkout(String cartId, String idempotencyKey);
+
+	// With its items; null if there is no such order.
+	public CustomerOrder getOrder(String id);
+
+}
@@ -0,0 +1,15 @@
+package com.ecom.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+public interface ProductExportService {
+
+	public enum Format {
+		CSV, NDJSON
+	}
+
+	// Writes every product to the stream and returns the number of rows written.
+	public long exportProducts(Format format, OutputStream out) throws IOException;
+
+}
@@ -0,0 +1,18 @@
+package com.ecom.service;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.springframework.web.multipart.MultipartFile;
+
+import com.ecom.dto.ImportJob;
+
+public interface ProductImportService {
+
+	public ImportJob startImport(MultipartFile file) throws IOException;
+
+	public ImportJob getJob(String id);
+
+	public List<ImportJob> getRecentJobs();
+
+}
@@ -1,10 +1,19 @@
 package com.ecom.service;
 
 import java.util.List;
+import java.util.Map;
 
 import org.springframework.data.domain.Page;
 import org.springframework.web.multipart.MultipartFile;
 
+import com.ecom.dto.BrowseQuery;
+import com.ecom.dto.BrowseResult;
+import com.ecom.dto.CursorPage;
+import com.ecom.dto.ImageVariants;
+import com.ecom.dto.PageResult;
+import com.ecom.dto.ProductDetail;
+import com.ecom.dto.ProductSummary;
+import com.ecom.dto.Suggestion;
 import com.ecom.model.Product;
 
 public interface ProductService {
@@ -19,16 +28,41 @@ public interface ProductService {
 
 	public Product updateProduct(Product product, MultipartFile file);
 
-	public List<Product> getAllActiveProducts(String category);
+	public List<Product> getAllActiveProducts(Integer categoryId);
 
 	public List<Product> searchProduct(String ch);
 
-	public Page<Product> getAllActiveProductPagination(Integer pageNo, Integer pageSize, String category);
+	public Page<Product> getAllActiveProductPagination(Integer pageNo, Integer pageSize, Integer categoryId);
 
 	public Page<Product> searchProductPagination(Integer pageNo, Integer pageSize, String ch);
 
 	public Page<Product> getAllProductsPagination(Integer pageNo, Integer pageSize);
 
-	public Page<Product> searchActiveProductPagination(Integer pageNo, Integer pageSize, String category, String ch);
+	public Page<Product> searchActiveProductPagination(Integer pageNo, Integer pageSize, Integer categoryId, String ch);
 
-}
\ No newline at end of file
+	public CursorPage<Product> getAllProductsAfter(String cursor, Integer pageSize);
+
+	public CursorPage<Product> getAllActiveProductsAfter(String cursor, Integer pageSize, Integer categoryId);
+
+	public void updateImageVariants(Integer id, String image, ImageVariants variants);
+
+	public Map<Integer, Integer> getActiveProductCounts();
+
+	public BrowseResult browseProducts(BrowseQuery query);
+
+	public CursorPage<ProductSummary> getActiveProductSummariesAfter(String cursor, Integer pageSize, Integer categoryId);
+
+	public ProductDetail getActiveProductDetail(Integer id);
+
+	public PageResult<ProductSummary> searchActiveProductSummaries(String ch, Integer pageNo, Integer pageSize);
+
+	// Precomputed related products that are still active and in stock, most similar first.
+	public List<Product> getRelatedProducts(Integer id, Integer limit);
+
+	// Typeahead completions for the search box, from active products and categories.
+	public List<Suggestion> getSuggestions(String query, Integer limit);
+
+	// Reloads the catalog snapshot and search index after bulk writes that bypass this service.
+	public void refreshCatalog();
+
+}
@@ -0,0 +1,6 @@
+package com.ecom.service;
+
+public interface SessionService {
+    // Clears the succMsg / errorMsg shown by the page being rendered, so it is shown once
+    void removeSessionMessage();
+}
@@ -0,0 +1,23 @@
+package com.ecom.service;
+
+import java.util.List;
+
+import com.ecom.dto.SlowQuery;
+
+public interface SlowQueryLogService {
+
+	public boolean isEnabled();
+
+	// Statements over the threshold still in the ring buffer, slowest first.
+	public List<SlowQuery> getSlowQueries();
+
+	// Randomly sampled statements of any duration, newest first.
+	public List<SlowQuery> getSampledQueries();
+
+	public long getStatementCount();
+
+	public long getSlowCount();
+
+	public void clear();
+
+}
@@ -0,0 +1,35 @@
+package com.ecom.service;
+
+import java.util.List;
+
+import com.ecom.dto.StockReservation;
+
+public interface StockReservationService {
+
+	// Returns null when fewer than quantity units are available.
+	public StockReservation reserve(Integer productId, int quantity);
+
+	// Turns a reservation into a sale. False if it is unknown or already expired.
+	// The sale reaches the database with the next flush and is lost if the process dies first.
+	public boolean commit(String reservationId);
+
+	// Turns the reservations into sales and writes the decrements in the caller's transaction,
+	// so they commit or roll back with it; after a rollback the reservations are open again.
+	// False, with nothing written, if any of them is unknown or already expired.
+	public boolean commitInTransaction(List<StockReservation> reservations);
+
+	public boolean release(String reservationId);
+
+	public int getAvailableStock(Integer productId);
+
+	// Writes committed sales to the database.
+	public void flush();
+
+	// Re-reads a product's stock after it was set directly, e.g. by an admin edit.
+	public void resync(Integer productId);
+
+	public void resyncAll();
+
+	public void forget(Integer productId);
+
+}
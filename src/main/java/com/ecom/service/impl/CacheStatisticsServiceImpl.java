@@ -0,0 +1,44 @@
+package com.ecom.service.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.ecom.config.HibernateCacheConfig;
+import com.ecom.dto.CacheRegionStats;
+import com.ecom.service.CacheStatisticsService;
+
+import jakarta.persistence.EntityManagerFactory;
+
+@Service
+public class CacheStatisticsServiceImpl implements CacheStatisticsService {
+
+	private static final List<String> REGIONS = List.of(HibernateCacheConfig.CATEGORY_REGION,
+			HibernateCacheConfig.CATEGORY_LIST_REGION, HibernateCacheConfig.PRODUCT_REGION,
+			RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME);
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Override
+	public List<CacheRegionStats> getRegionStatistics() {
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		List<CacheRegionStats> regions = new ArrayList<>(REGIONS.size());
+		for (String name : REGIONS) {
+			// Query regions are only built on their first use
+			CacheRegionStatistics region = statistics.getCacheRegionStatistics(name);
+			if (region != null) {
+				regions.add(new CacheRegionStats(name, region.getHitCount(), region.getMissCount(),
+						region.getPutCount()));
+			}
+		}
+		return regions;
+	}
+
+}
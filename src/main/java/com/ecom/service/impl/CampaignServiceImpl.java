@@ -0,0 +1,219 @@
+package com.ecom.service.impl;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ecom.dto.CampaignForm;
+import com.ecom.model.Campaign;
+import com.ecom.repositories.CampaignRepository;
+import com.ecom.repositories.CategoryRepository;
+import com.ecom.service.CampaignService;
+import com.ecom.service.ProductService;
+
+// Applies and reverts campaigns with a few set-based statements per chunk of
+// product ids instead of loading and saving every product. Each chunk runs in its
+// own short transaction, so a 50k product category never holds locks on the whole
+// table. Both directions are idempotent and can be re-run after a failure.
+// Caches are refreshed once per campaign, not per product.
+//
+// A revert only restores products that still carry the campaign's discount. A
+// product whose discount an admin changed while the campaign ran keeps that edit.
+@Service
+public class CampaignServiceImpl implements CampaignService {
+
+	private static final String PREVIOUS_DISCOUNT = "(SELECT cp.previous_discount FROM campaign_product cp "
+			+ "WHERE cp.campaign_id = ? AND cp.product_id = product.id)";
+
+	private static final String IN_CAMPAIGN = "id IN (SELECT cp.product_id FROM campaign_product cp WHERE cp.campaign_id = ?)";
+
+	@Autowired
+	private CampaignRepository campaignRepository;
+
+	@Autowired
+	private CategoryRepository categoryRepository;
+
+	@Autowired
+	private ProductService productService;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	private final int chunkSize;
+
+	// One campaign run at a time, whether started by an admin or the scheduler
+	private final ReentrantLock runLock = new ReentrantLock();
+
+	public CampaignServiceImpl(@Value("${ecom.campaigns.chunk-size:5000}") int chunkSize) {
+		this.chunkSize = chunkSize;
+	}
+
+	@Override
+	public Campaign saveCampaign(CampaignForm form) {
+		Campaign campaign = Campaign.builder()
+				.name(form.name())
+				.category(form.categoryId() == null ? null : categoryRepository.findById(form.categoryId()).orElse(null))
+				.minPrice(form.minPrice())
+				.maxPrice(form.maxPrice())
+				.discount(form.discount())
+				.startsAt(form.startsAt() == null ? LocalDateTime.now() : form.startsAt())
+				.endsAt(form.endsAt())
+				.status(Campaign.Status.SCHEDULED)
+				.build();
+		return campaignRepository.save(campaign);
+	}
+
+	@Override
+	public List<Campaign> getAllCampaigns() {
+		return campaignRepository.findAllByOrderByIdDesc();
+	}
+
+	@Override
+	public Campaign applyCampaign(Integer id) {
+		runLock.lock();
+		try {
+			Campaign campaign = campaignRepository.findById(id).orElse(null);
+			if (campaign == null || campaign.getStatus() != Campaign.Status.SCHEDULED) {
+				return campaign;
+			}
+
+			StringBuilder filter = new StringBuilder();
+			List<Object> filterArgs = new ArrayList<>();
+			if (campaign.getCategory() != null) {
+				filter.append(" AND p.category_id = ?");
+				filterArgs.add(campaign.getCategory().getId());
+			}
+			if (campaign.getMinPrice() != null) {
+				filter.append(" AND p.price >= ?");
+				filterArgs.add(campaign.getMinPrice());
+			}
+			if (campaign.getMaxPrice() != null) {
+				filter.append(" AND p.price <= ?");
+				filterArgs.add(campaign.getMaxPrice());
+			}
+
+			// A product belongs to at most one running campaign, so reverts never fight
+			String remember = "INSERT INTO campaign_product (campaign_id, product_id, previous_discount) "
+					+ "SELECT ?, p.id, p.discount FROM product p WHERE p.id BETWEEN ? AND ?" + filter
+					+ " AND NOT EXISTS (SELECT 1 FROM campaign_product cp WHERE cp.product_id = p.id)";
+			String discount = "UPDATE product SET discount = ?, discount_price = ROUND(price - price * ? / 100.0, 2) "
+					+ "WHERE id BETWEEN ? AND ? AND " + IN_CAMPAIGN;
+
+			long[] range = idRange("SELECT MIN(id), MAX(id) FROM product");
+			for (long start = range[0]; start <= range[1]; start += chunkSize) {
+				long from = start;
+				long to = start + chunkSize - 1;
+				List<Object> args = new ArrayList<>(List.of(campaign.getId(), from, to));
+				args.addAll(filterArgs);
+				transactionTemplate.executeWithoutResult(status -> {
+					jdbcTemplate.update(remember, args.toArray());
+					jdbcTemplate.update(discount, campaign.getDiscount(), campaign.getDiscount(), from, to,
+							campaign.getId());
+				});
+			}
+
+			campaign.setProductCount(jdbcTemplate.queryForObject(
+					"SELECT COUNT(*) FROM campaign_product WHERE campaign_id = ?", Integer.class, campaign.getId()));
+			campaign.setStatus(Campaign.Status.ACTIVE);
+			campaign.setAppliedAt(LocalDateTime.now());
+			Campaign saved = campaignRepository.save(campaign);
+
+			productService.refreshCatalog();
+			return saved;
+		} finally {
+			runLock.unlock();
+		}
+	}
+
+	@Override
+	public Campaign revertCampaign(Integer id) {
+		runLock.lock();
+		try {
+			Campaign campaign = campaignRepository.findById(id).orElse(null);
+			if (campaign == null || campaign.getStatus() != Campaign.Status.ACTIVE) {
+				return campaign;
+			}
+
+			// SET sees the old column values, so the price is computed from the restored
+			// discount directly; same rounding as ProductServiceImpl.discountPrice
+			String restore = "UPDATE product SET discount = " + PREVIOUS_DISCOUNT
+					+ ", discount_price = ROUND(price - price * " + PREVIOUS_DISCOUNT + " / 100.0, 2) "
+					+ "WHERE id BETWEEN ? AND ? AND discount = ? AND " + IN_CAMPAIGN;
+			String forget = "DELETE FROM campaign_product WHERE campaign_id = ? AND product_id BETWEEN ? AND ?";
+
+			long[] range = idRange("SELECT MIN(product_id), MAX(product_id) FROM campaign_product WHERE campaign_id = ?",
+					campaign.getId());
+			for (long start = range[0]; start <= range[1]; start += chunkSize) {
+				long from = start;
+				long to = start + chunkSize - 1;
+				transactionTemplate.executeWithoutResult(status -> {
+					jdbcTemplate.update(restore, campaign.getId(), campaign.getId(), from, to, campaign.getDiscount(),
+							campaign.getId());
+					jdbcTemplate.update(forget, campaign.getId(), from, to);
+				});
+			}
+
+			campaign.setStatus(Campaign.Status.ENDED);
+			campaign.setRevertedAt(LocalDateTime.now());
+			Campaign saved = campaignRepository.save(campaign);
+
+			productService.refreshCatalog();
+			return saved;
+		} finally {
+			runLock.unlock();
+		}
+	}
+
+	@Override
+	public Campaign cancelCampaign(Integer id) {
+		runLock.lock();
+		try {
+			Campaign campaign = campaignRepository.findById(id).orElse(null);
+			if (campaign == null || campaign.getStatus() != Campaign.Status.SCHEDULED) {
+				return campaign;
+			}
+			campaign.setStatus(Campaign.Status.CANCELLED);
+			return campaignRepository.save(campaign);
+		} finally {
+			runLock.unlock();
+		}
+	}
+
+	@Scheduled(fixedDelayString = "${ecom.campaigns.check-interval-ms:60000}")
+	public void runDueCampaigns() {
+		LocalDateTime now = LocalDateTime.now();
+		for (Campaign campaign : campaignRepository.findByStatusAndEndsAtLessThanEqual(Campaign.Status.ACTIVE, now)) {
+			revertCampaign(campaign.getId());
+		}
+		for (Campaign campaign : campaignRepository.findByStatusAndStartsAtLessThanEqual(Campaign.Status.SCHEDULED,
+				now)) {
+			if (campaign.getEndsAt() != null && !campaign.getEndsAt().isAfter(now)) {
+				// Its whole window passed while the application was down
+				campaign.setStatus(Campaign.Status.ENDED);
+				campaignRepository.save(campaign);
+			} else {
+				applyCampaign(campaign.getId());
+			}
+		}
+	}
+
+	// {min, max} from a MIN/MAX query; {1, 0} (an empty loop) when there are no rows
+	private long[] idRange(String sql, Object... args) {
+		return jdbcTemplate.queryForObject(sql, (rs, rowNum) -> {
+			long min = rs.getLong(1);
+			return rs.wasNull() ? new long[] { 1, 0 } : new long[] { min, rs.getLong(2) };
+		}, args);
+	}
+
+}
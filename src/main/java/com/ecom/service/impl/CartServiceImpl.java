@@ -0,0 +1,371 @@
+package com.ecom.service.impl;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ecom.catalog.CatalogSnapshot;
+import com.ecom.catalog.ProductCatalog;
+import com.ecom.dto.CartLine;
+import com.ecom.dto.CartView;
+import com.ecom.model.Product;
+import com.ecom.service.CartService;
+
+import jakarta.annotation.PreDestroy;
+
+// Carts are kept in memory and changed without touching the database. The store is
+// split into shards, each a plain map behind its own lock, so carts on different
+// shards never contend; a cart itself is two int arrays (product ids, quantities).
+//
+// Changed carts are marked dirty and written together every flush interval: one
+// batched DELETE and one batched INSERT for all of them, in one transaction. A cart
+// that is not in memory (after a restart or an idle eviction) is read back from the
+// database the first time it is used.
+@Service
+public class CartServiceImpl implements CartService {
+
+	private static final String LOAD_SQL = "SELECT product_id, quantity FROM cart_item WHERE cart_id = ?";
+
+	private static final String DELETE_SQL = "DELETE FROM cart_item WHERE cart_id = ?";
+
+	private static final String INSERT_SQL = "INSERT INTO cart_item (cart_id, product_id, quantity, updated_at) "
+			+ "VALUES (?, ?, ?, ?)";
+
+	// Carts written per transaction
+	private static final int FLUSH_CHUNK = 500;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private ProductCatalog productCatalog;
+
+	private final Shard[] shards;
+
+	private final int maxLines;
+
+	private final int maxQuantity;
+
+	private final long idleMillis;
+
+	private final Set<String> dirty = ConcurrentHashMap.newKeySet();
+
+	// Held by flushes and evictions, so a cart is never dropped from memory while
+	// its latest state is still on its way to the database
+	private final ReentrantLock flushLock = new ReentrantLock();
+
+	public CartServiceImpl(@Value("${ecom.cart.shards:64}") int shardCount,
+			@Value("${ecom.cart.max-lines:50}") int maxLines,
+			@Value("${ecom.cart.max-quantity:10}") int maxQuantity,
+			@Value("${ecom.cart.idle-ttl:30m}") Duration idleTtl) {
+		this.shards = new Shard[Math.max(1, shardCount)];
+		for (int i = 0; i < shards.length; i++) {
+			shards[i] = new Shard();
+		}
+		this.maxLines = maxLines;
+		this.maxQuantity = maxQuantity;
+		this.idleMillis = idleTtl.toMillis();
+	}
+
+	@Override
+	public CartView getCart(String cartId) {
+		int[][] lines = read(cartId);
+		CatalogSnapshot snapshot = productCatalog.snapshot();
+
+		List<CartLine> cartLines = new ArrayList<>(lines[0].length);
+		int itemCount = 0;
+		BigDecimal total = BigDecimal.ZERO;
+		for (int i = 0; i < lines[0].length; i++) {
+			// Lines whose product was deleted or deactivated since are left out
+			Product product = snapshot.get(lines[0][i]);
+			if (product == null || !Boolean.TRUE.equals(product.getIsActive())) {
+				continue;
+			}
+			int quantity = lines[1][i];
+			BigDecimal lineTotal = product.getDiscountPrice().multiply(BigDecimal.valueOf(quantity));
+			cartLines.add(new CartLine(product, quantity, lineTotal));
+			itemCount += quantity;
+			total = total.add(lineTotal);
+		}
+		return new CartView(cartLines, itemCount, total);
+	}
+
+	@Override
+	public boolean addToCart(String cartId, Integer productId, int quantity) {
+		if (quantity <= 0 || !isBuyable(productId)) {
+			return false;
+		}
+		return change(cartId, cart -> cart.add(productId, quantity, maxQuantity, maxLines));
+	}
+
+	@Override
+	public boolean updateQuantity(String cartId, Integer productId, int quantity) {
+		if (quantity <= 0) {
+			return removeFromCart(cartId, productId);
+		}
+		return change(cartId, cart -> cart.update(productId, Math.min(quantity, maxQuantity)));
+	}
+
+	@Override
+	public boolean removeFromCart(String cartId, Integer productId) {
+		return change(cartId, cart -> cart.remove(productId));
+	}
+
+	@Override
+	public void clearCart(String cartId) {
+		change(cartId, Cart::clear);
+	}
+
+	@Override
+	@Scheduled(fixedDelayString = "${ecom.cart.flush-interval-ms:1000}")
+	public void flush() {
+		flushLock.lock();
+		try {
+			List<String> batch = new ArrayList<>(FLUSH_CHUNK);
+			Iterator<String> pending = dirty.iterator();
+			while (pending.hasNext()) {
+				batch.add(pending.next());
+				pending.remove();
+				if (batch.size() == FLUSH_CHUNK) {
+					write(batch);
+					batch.clear();
+				}
+			}
+			if (!batch.isEmpty()) {
+				write(batch);
+			}
+		} finally {
+			flushLock.unlock();
+		}
+	}
+
+	// Drops carts nobody has touched for the idle TTL; they are already in the database.
+	@Scheduled(fixedDelayString = "${ecom.cart.sweep-interval-ms:60000}")
+	public void evictIdleCarts() {
+		long cutoff = System.currentTimeMillis() - idleMillis;
+		flushLock.lock();
+		try {
+			for (Shard shard : shards) {
+				shard.lock.lock();
+				try {
+					shard.carts.entrySet().removeIf(
+							entry -> entry.getValue().lastAccess < cutoff && !dirty.contains(entry.getKey()));
+				} finally {
+					shard.lock.unlock();
+				}
+			}
+		} finally {
+			flushLock.unlock();
+		}
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		flush();
+	}
+
+	private boolean isBuyable(Integer productId) {
+		Product product = productCatalog.snapshot().get(productId);
+		return product != null && Boolean.TRUE.equals(product.getIsActive()) && product.getStock() > 0;
+	}
+
+	private boolean change(String cartId, Predicate<Cart> change) {
+		return withCart(cartId, cart -> {
+			boolean changed = change.test(cart);
+			if (changed) {
+				dirty.add(cartId);
+			}
+			return changed;
+		});
+	}
+
+	// Copies of the cart's product ids and quantities.
+	private int[][] read(String cartId) {
+		return withCart(cartId, Cart::copy);
+	}
+
+	// Runs action on the cart under its shard lock, reading the cart back from the
+	// database first if it is not in memory.
+	private <T> T withCart(String cartId, Function<Cart, T> action) {
+		Shard shard = shard(cartId);
+		Cart loaded = null;
+		while (true) {
+			shard.lock.lock();
+			try {
+				Cart cart = shard.carts.get(cartId);
+				if (cart == null && loaded != null) {
+					cart = loaded;
+					shard.carts.put(cartId, cart);
+				}
+				if (cart != null) {
+					cart.lastAccess = System.currentTimeMillis();
+					return action.apply(cart);
+				}
+			} finally {
+				shard.lock.unlock();
+			}
+			// Loaded outside the lock so the query does not block the rest of the shard
+			loaded = load(cartId);
+		}
+	}
+
+	private Cart load(String cartId) {
+		Cart cart = new Cart();
+		jdbcTemplate.query(LOAD_SQL, rs -> {
+			cart.append(rs.getInt(1), rs.getInt(2));
+		}, cartId);
+		return cart;
+	}
+
+	private void write(List<String> cartIds) {
+		Map<String, int[][]> contents = new HashMap<>(cartIds.size() * 2);
+		for (String cartId : cartIds) {
+			Shard shard = shard(cartId);
+			shard.lock.lock();
+			try {
+				Cart cart = shard.carts.get(cartId);
+				if (cart != null) {
+					contents.put(cartId, cart.copy());
+				}
+			} finally {
+				shard.lock.unlock();
+			}
+		}
+
+		Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+		List<Object[]> deletes = new ArrayList<>(contents.size());
+		List<Object[]> inserts = new ArrayList<>();
+		for (Map.Entry<String, int[][]> entry : contents.entrySet()) {
+			deletes.add(new Object[] { entry.getKey() });
+			int[][] lines = entry.getValue();
+			for (int i = 0; i < lines[0].length; i++) {
+				inserts.add(new Object[] { entry.getKey(), lines[0][i], lines[1][i], now });
+			}
+		}
+
+		try {
+			transactionTemplate.executeWithoutResult(status -> {
+				jdbcTemplate.batchUpdate(DELETE_SQL, deletes);
+				if (!inserts.isEmpty()) {
+					jdbcTemplate.batchUpdate(INSERT_SQL, inserts);
+				}
+			});
+		} catch (RuntimeException e) {
+			// Keep the carts for the next attempt
+			dirty.addAll(contents.keySet());
+			throw e;
+		}
+	}
+
+	private Shard shard(String cartId) {
+		return shards[Math.floorMod(cartId.hashCode(), shards.length)];
+	}
+
+	private static final class Shard {
+
+		final ReentrantLock lock = new ReentrantLock();
+
+		final HashMap<String, Cart> carts = new HashMap<>();
+
+	}
+
+	// Lines in the order they were added. Only used under its shard's lock.
+	private static final class Cart {
+
+		int[] productIds = new int[4];
+
+		int[] quantities = new int[4];
+
+		int size;
+
+		long lastAccess = System.currentTimeMillis();
+
+		boolean add(int productId, int quantity, int maxQuantity, int maxLines) {
+			int index = indexOf(productId);
+			if (index >= 0) {
+				int updated = Math.min(quantities[index] + quantity, maxQuantity);
+				boolean changed = updated != quantities[index];
+				quantities[index] = updated;
+				return changed;
+			}
+			if (size >= maxLines) {
+				return false;
+			}
+			append(productId, Math.min(quantity, maxQuantity));
+			return true;
+		}
+
+		boolean update(int productId, int quantity) {
+			int index = indexOf(productId);
+			if (index < 0 || quantities[index] == quantity) {
+				return false;
+			}
+			quantities[index] = quantity;
+			return true;
+		}
+
+		boolean remove(int productId) {
+			int index = indexOf(productId);
+			if (index < 0) {
+				return false;
+			}
+			System.arraycopy(productIds, index + 1, productIds, index, size - index - 1);
+			System.arraycopy(quantities, index + 1, quantities, index, size - index - 1);
+			size--;
+			return true;
+		}
+
+		boolean clear() {
+			boolean changed = size > 0;
+			size = 0;
+			return changed;
+		}
+
+		int[][] copy() {
+			return new int[][] { Arrays.copyOf(productIds, size), Arrays.copyOf(quantities, size) };
+		}
+
+		void append(int productId, int quantity) {
+			if (size == productIds.length) {
+				productIds = Arrays.copyOf(productIds, size * 2);
+				quantities = Arrays.copyOf(quantities, size * 2);
+			}
+			productIds[size] = productId;
+			quantities[size] = quantity;
+			size++;
+		}
+
+		private int indexOf(int productId) {
+			for (int i = 0; i < size; i++) {
+				if (productIds[i] == productId) {
+					return i;
+				}
+			}
+			return -1;
+		}
+
+	}
+
+}
@@ -2,21 +2,44 @@ package com.ecom.service.impl;
 
 import java.util.List;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.util.ObjectUtils;
+import com.ecom.event.CatalogEvent;
+import com.ecom.event.CatalogEventBus;
 import com.ecom.model.Category;
 import com.ecom.repositories.CategoryRepository;
+import com.ecom.repositories.ProductRepository;
 import com.ecom.service.CategoryService;
 
+import io.micrometer.core.annotation.Timed;
+
 @Service
+@Timed(value = "ecom.service", histogram = true)
 public class CategoryServiceImpl implements CategoryService {
     
     @Autowired
     private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+    
+    @Autowired
+    private CatalogEventBus catalogEvents;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
     
     @Override
     public boolean saveCategory(Category category) {
-        Category savedCategory = categoryRepository.save(category);
+        CatalogEvent.Type type = category.getId() == null ? CatalogEvent.Type.CATEGORY_CREATED
+                : CatalogEvent.Type.CATEGORY_UPDATED;
+        Category savedCategory = transactionTemplate.execute(status -> {
+            Category saved = categoryRepository.save(category);
+            catalogEvents.publish(CatalogEvent.category(type, saved));
+            return saved;
+        });
         return !ObjectUtils.isEmpty(savedCategory);
     }
     
@@ -38,11 +61,21 @@ public class CategoryServiceImpl implements CategoryService {
     @Override
     public boolean deleteCategory(Integer id) {
         try {
-            Category category = categoryRepository.findById(id).orElse(null);
-            if (category != null) {
+            // Products reference the category by foreign key; they have to be moved or deleted first.
+            // The count only saves a failing delete: a product saved after it still trips the key.
+            Boolean deleted = transactionTemplate.execute(status -> {
+                Category category = categoryRepository.findById(id).orElse(null);
+                if (category == null || productRepository.countByCategoryId(id) > 0) {
+                    return false;
+                }
                 categoryRepository.delete(category);
+                categoryRepository.flush();
+                catalogEvents.publish(CatalogEvent.categoryDeleted(id).releasing(category.getImageName()));
                 return true;
-            }
+            });
+            return Boolean.TRUE.equals(deleted);
+        } catch (DataIntegrityViolationException e) {
+            // A product was saved into the category in the meantime
             return false;
         } catch (Exception e) {
             e.printStackTrace();
@@ -50,12 +83,25 @@ public class CategoryServiceImpl implements CategoryService {
         }
     }
     
+    @Override
+    public long countProducts(Integer id) {
+        return productRepository.countByCategoryId(id);
+    }
+    
     @Override
     public boolean updateCategory(Category category) {
         try {
             Category existingCategory = categoryRepository.findById(category.getId()).orElse(null);
             if (existingCategory != null) {
-                Category updatedCategory = categoryRepository.save(category);
+                // A replaced image is released once the new one is committed
+                String oldImage = existingCategory.getImageName();
+                String releasedImage = oldImage != null && !oldImage.equals(category.getImageName()) ? oldImage : null;
+                Category updatedCategory = transactionTemplate.execute(status -> {
+                    Category saved = categoryRepository.save(category);
+                    catalogEvents.publish(CatalogEvent.category(CatalogEvent.Type.CATEGORY_UPDATED, saved)
+                            .releasing(releasedImage));
+                    return saved;
+                });
                 return !ObjectUtils.isEmpty(updatedCategory);
             }
             return false;
@@ -64,4 +110,14 @@ public class CategoryServiceImpl implements CategoryService {
             return false;
         }
     }
+    
+    @Override
+    public void updateThumbnail(Integer id, String imageName, String thumbnail) {
+        transactionTemplate.executeWithoutResult(status -> {
+            if (categoryRepository.updateThumbnail(id, imageName, thumbnail) > 0) {
+                categoryRepository.findById(id).ifPresent(category -> catalogEvents
+                        .publish(CatalogEvent.category(CatalogEvent.Type.CATEGORY_UPDATED, category)));
+            }
+        });
+    }
 }
\ No newline at end of file
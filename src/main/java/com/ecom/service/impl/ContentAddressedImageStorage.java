@@ -0,0 +1,217 @@
+package com.ecom.service.impl;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+import com.ecom.repositories.CategoryRepository;
+import com.ecom.repositories.ProductRepository;
+import com.ecom.service.ImageStorageService;
+
+import io.micrometer.core.annotation.Timed;
+
+// Stores uploads under ecom.upload.dir named by the SHA-256 of their content, so
+// the same vendor image uploaded for many products is kept on disk once. A blob
+// is only removed when no product or category row still points at it.
+//
+// store() returns before the row that will reference the blob is saved, so a
+// reference count taken at release time can miss it. Releases are therefore only
+// queued; the sweep deletes a blob once it was neither released nor stored again
+// for ecom.upload.gc-delay and the count, taken then, is still zero.
+@Service
+@Timed(value = "ecom.file.io", histogram = true)
+public class ContentAddressedImageStorage implements ImageStorageService {
+
+	private static final Logger log = LoggerFactory.getLogger(ContentAddressedImageStorage.class);
+
+	private static final long TRANSFER_CHUNK = 8L * 1024 * 1024;
+
+	private static final String[] VARIANT_SUFFIXES = { "_thumb.jpg", "_list.jpg" };
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private CategoryRepository categoryRepository;
+
+	private final Path root;
+
+	private final Duration gcDelay;
+
+	// Replaced in tests
+	private Clock clock = Clock.systemUTC();
+
+	// Serializes "does the blob exist / is it still referenced" decisions.
+	private final ReentrantLock blobLock = new ReentrantLock();
+
+	// Blobs released and waiting for the sweep, by when they were released
+	private final Map<Path, Instant> releasedAt = new ConcurrentHashMap<>();
+
+	// Blobs handed out by store() within the last gcDelay, by when
+	private final Map<Path, Instant> storedAt = new ConcurrentHashMap<>();
+
+	public ContentAddressedImageStorage(@Value("${ecom.upload.dir}") String uploadDir,
+			@Value("${ecom.upload.gc-delay:10m}") Duration gcDelay) {
+		this.root = Paths.get(uploadDir).toAbsolutePath().normalize();
+		this.gcDelay = gcDelay;
+	}
+
+	@Override
+	public String store(MultipartFile file, String subDirectory) throws IOException {
+		Path directory = Files.createDirectories(root.resolve(subDirectory));
+		Path temp = Files.createTempFile(directory, "upload", ".tmp");
+
+		String hash;
+		try {
+			MessageDigest digest = sha256();
+			// Hash while streaming, so the upload is read once. The digest has to see every
+			// byte, so this is an ordinary buffered copy through the heap.
+			try (InputStream in = new DigestInputStream(file.getInputStream(), digest);
+					ReadableByteChannel source = Channels.newChannel(in);
+					FileChannel target = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+				long position = 0;
+				long transferred;
+				while ((transferred = target.transferFrom(source, position, TRANSFER_CHUNK)) > 0) {
+					position += transferred;
+				}
+			}
+			hash = HexFormat.of().formatHex(digest.digest());
+		} catch (IOException | RuntimeException e) {
+			Files.deleteIfExists(temp);
+			throw e;
+		}
+
+		String fileName = hash + extension(file.getOriginalFilename());
+		Path blob = directory.resolve(fileName);
+
+		blobLock.lock();
+		try {
+			if (Files.exists(blob)) {
+				Files.delete(temp);
+			} else {
+				Files.move(temp, blob, StandardCopyOption.ATOMIC_MOVE);
+			}
+			// Keeps the sweep away until the caller has had time to save its row
+			storedAt.put(blob, clock.instant());
+		} finally {
+			blobLock.unlock();
+		}
+		return fileName;
+	}
+
+	@Override
+	public Path resolve(String subDirectory, String fileName) {
+		return root.resolve(subDirectory).resolve(fileName);
+	}
+
+	@Override
+	public void release(String subDirectory, String fileName) {
+		if (fileName == null || fileName.isEmpty()) {
+			return;
+		}
+		releasedAt.put(resolve(subDirectory, fileName), clock.instant());
+	}
+
+	// Deletes released blobs that are past the delay and still unreferenced
+	@Scheduled(fixedDelayString = "${ecom.upload.gc-interval-ms:60000}")
+	public void collectGarbage() {
+		Instant cutoff = clock.instant().minus(gcDelay);
+		blobLock.lock();
+		try {
+			storedAt.values().removeIf(stored -> stored.isBefore(cutoff));
+		} finally {
+			blobLock.unlock();
+		}
+
+		for (Iterator<Map.Entry<Path, Instant>> it = releasedAt.entrySet().iterator(); it.hasNext();) {
+			Map.Entry<Path, Instant> entry = it.next();
+			if (entry.getValue().isAfter(cutoff)) {
+				continue;
+			}
+			Path blob = entry.getKey();
+			blobLock.lock();
+			try {
+				if (storedAt.containsKey(blob)) {
+					// Stored again meanwhile; decided once that caller had time to save its row
+					continue;
+				}
+				if (referenceCount(blob) == 0) {
+					delete(blob);
+				}
+				it.remove();
+			} catch (IOException | RuntimeException e) {
+				// Stays queued for the next sweep
+				log.warn("Could not delete unreferenced upload {}", blob, e);
+			} finally {
+				blobLock.unlock();
+			}
+		}
+	}
+
+	private void delete(Path blob) throws IOException {
+		Files.deleteIfExists(blob);
+		String baseName = StringUtils.stripFilenameExtension(blob.getFileName().toString());
+		for (String suffix : VARIANT_SUFFIXES) {
+			Files.deleteIfExists(blob.resolveSibling(baseName + suffix));
+		}
+	}
+
+	private long referenceCount(Path blob) {
+		String subDirectory = blob.getParent().getFileName().toString();
+		String fileName = blob.getFileName().toString();
+		return referenceCount(subDirectory, fileName);
+	}
+
+	private long referenceCount(String subDirectory, String fileName) {
+		if ("category_img".equals(subDirectory)) {
+			return categoryRepository.countByImageName(fileName);
+		}
+		return productRepository.countByImage(fileName);
+	}
+
+	private static String extension(String originalFilename) {
+		String extension = StringUtils.getFilenameExtension(StringUtils.cleanPath(
+				originalFilename == null ? "" : originalFilename));
+		if (extension == null || !extension.matches("[A-Za-z0-9]{1,5}")) {
+			return "";
+		}
+		return "." + extension.toLowerCase(Locale.ROOT);
+	}
+
+	private static MessageDigest sha256() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+}
@@ -0,0 +1,132 @@
+package com.ecom.service.impl;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// RFC 4180 CSV with a header row: comma separated, fields may be quoted, quotes
+// inside quoted fields are doubled and quoted fields may span lines.
+final class CsvProductRowReader implements ProductRowReader {
+
+	private final Reader reader;
+
+	private final String[] header;
+
+	private final StringBuilder field = new StringBuilder();
+
+	private long lineNumber = 1;
+
+	private long rowLine;
+
+	private int pushedBack = -2;
+
+	CsvProductRowReader(Reader reader) throws IOException {
+		this.reader = reader;
+		List<String> names = readRecord();
+		if (names == null) {
+			throw new IOException("The file is empty");
+		}
+		this.header = new String[names.size()];
+		for (int i = 0; i < names.size(); i++) {
+			String name = names.get(i).trim().toLowerCase(Locale.ROOT);
+			// Excel writes a byte order mark in front of the first column name
+			header[i] = i == 0 && name.startsWith("\uFEFF") ? name.substring(1) : name;
+		}
+	}
+
+	@Override
+	public Map<String, String> next() throws IOException {
+		List<String> values;
+		do {
+			values = readRecord();
+			if (values == null) {
+				return null;
+			}
+		} while (values.size() == 1 && values.get(0).isBlank());
+
+		if (values.size() > header.length) {
+			throw new MalformedRowException("Expected " + header.length + " columns but found " + values.size());
+		}
+		Map<String, String> row = new HashMap<>();
+		for (int i = 0; i < values.size(); i++) {
+			row.put(header[i], values.get(i));
+		}
+		return row;
+	}
+
+	@Override
+	public long line() {
+		return rowLine;
+	}
+
+	@Override
+	public void close() throws IOException {
+		reader.close();
+	}
+
+	private List<String> readRecord() throws IOException {
+		int c = read();
+		if (c == -1) {
+			return null;
+		}
+		rowLine = lineNumber;
+		List<String> values = new ArrayList<>();
+		boolean quoted = false;
+		field.setLength(0);
+		while (true) {
+			if (quoted) {
+				if (c == -1) {
+					throw new IOException("Unterminated quoted field starting on line " + rowLine);
+				}
+				if (c == '"') {
+					int following = read();
+					if (following == '"') {
+						field.append('"');
+					} else {
+						quoted = false;
+						c = following;
+						continue;
+					}
+				} else {
+					field.append((char) c);
+				}
+			} else if (c == '"' && field.length() == 0) {
+				quoted = true;
+			} else if (c == ',') {
+				values.add(field.toString());
+				field.setLength(0);
+			} else if (c == '\r' || c == '\n' || c == -1) {
+				if (c == '\r') {
+					int following = read();
+					if (following != '\n') {
+						pushedBack = following;
+					}
+				}
+				values.add(field.toString());
+				return values;
+			} else {
+				field.append((char) c);
+			}
+			c = read();
+		}
+	}
+
+	private int read() throws IOException {
+		int c;
+		if (pushedBack != -2) {
+			c = pushedBack;
+			pushedBack = -2;
+		} else {
+			c = reader.read();
+		}
+		if (c == '\n') {
+			lineNumber++;
+		}
+		return c;
+	}
+
+}
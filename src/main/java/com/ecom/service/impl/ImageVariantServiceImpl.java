@@ -0,0 +1,149 @@
+package com.ecom.service.impl;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import com.ecom.dto.ImageVariants;
+import com.ecom.service.ImageVariantService;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+
+// Writes a square thumbnail and a listing-size copy of every uploaded image on a
+// small bounded pool, so the admin request only pays for storing the original.
+// The JDK has no WebP encoder, so variants are compact progressive JPEGs.
+@Service
+public class ImageVariantServiceImpl implements ImageVariantService {
+
+	private static final int THUMBNAIL_SIZE = 150;
+
+	private static final int LISTING_SIZE = 400;
+
+	private static final float JPEG_QUALITY = 0.8f;
+
+	private final ThreadPoolExecutor executor;
+
+	private final Timer resizeTimer;
+
+	public ImageVariantServiceImpl(@Value("${ecom.images.workers:2}") int workers,
+			@Value("${ecom.images.queue-capacity:200}") int queueCapacity, MeterRegistry registry) {
+		// Resizing is CPU-bound, so this stays a small platform-thread pool even when
+		// requests run on virtual threads: the worker count is what caps CPU use
+		this.executor = new ThreadPoolExecutor(workers, workers, 60, TimeUnit.SECONDS,
+				new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("image-variants-"),
+				new ThreadPoolExecutor.AbortPolicy());
+		// Queue depth and active workers show when uploads outrun the resizer
+		new ExecutorServiceMetrics(executor, "image-variants", Tags.empty()).bindTo(registry);
+		this.resizeTimer = Timer.builder("ecom.images.resize")
+				.description("Reading an original and writing its variants")
+				.publishPercentileHistogram()
+				.register(registry);
+	}
+
+	@Override
+	public CompletableFuture<ImageVariants> generateVariants(Path original) {
+		try {
+			return CompletableFuture.supplyAsync(() -> resizeTimer.record(() -> resize(original)), executor);
+		} catch (RejectedExecutionException e) {
+			// Queue full: the original is still served, only the variants are skipped.
+			return CompletableFuture.failedFuture(e);
+		}
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		executor.shutdown();
+	}
+
+	private ImageVariants resize(Path original) {
+		try {
+			String baseName = baseName(original.getFileName().toString());
+			String thumbnail = baseName + "_thumb.jpg";
+			String listing = baseName + "_list.jpg";
+
+			// Stored images are content-addressed, so existing variants are already correct.
+			if (Files.exists(original.resolveSibling(thumbnail)) && Files.exists(original.resolveSibling(listing))) {
+				return new ImageVariants(thumbnail, listing);
+			}
+
+			BufferedImage source = ImageIO.read(original.toFile());
+			if (source == null) {
+				throw new IOException("Unsupported image format: " + original.getFileName());
+			}
+
+			writeJpeg(scale(source, THUMBNAIL_SIZE), original.resolveSibling(thumbnail));
+			writeJpeg(scale(source, LISTING_SIZE), original.resolveSibling(listing));
+
+			return new ImageVariants(thumbnail, listing);
+		} catch (IOException e) {
+			throw new IllegalStateException("Could not create variants for " + original, e);
+		}
+	}
+
+	// Fits the image inside a size x size box, never upscaling.
+	private static BufferedImage scale(BufferedImage source, int size) {
+		double ratio = Math.min(1.0, Math.min((double) size / source.getWidth(), (double) size / source.getHeight()));
+		int width = Math.max(1, (int) Math.round(source.getWidth() * ratio));
+		int height = Math.max(1, (int) Math.round(source.getHeight() * ratio));
+
+		BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+		Graphics2D graphics = target.createGraphics();
+		try {
+			graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+			graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+			graphics.setColor(Color.WHITE);
+			graphics.fillRect(0, 0, width, height);
+			graphics.drawImage(source, 0, 0, width, height, null);
+		} finally {
+			graphics.dispose();
+		}
+		return target;
+	}
+
+	private static void writeJpeg(BufferedImage image, Path target) throws IOException {
+		ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+		ImageWriteParam param = writer.getDefaultWriteParam();
+		param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+		param.setCompressionQuality(JPEG_QUALITY);
+		param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+
+		Path temp = Files.createTempFile(target.getParent(), "variant", ".tmp");
+		try (ImageOutputStream output = ImageIO.createImageOutputStream(temp.toFile())) {
+			writer.setOutput(output);
+			writer.write(null, new IIOImage(image, null, null), param);
+		} finally {
+			writer.dispose();
+		}
+		Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	private static String baseName(String fileName) {
+		int dot = fileName.lastIndexOf('.');
+		return dot > 0 ? fileName.substring(0, dot) : fileName;
+	}
+
+}
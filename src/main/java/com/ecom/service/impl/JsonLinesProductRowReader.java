@@ -0,0 +1,67 @@
+package com.ecom.service.impl;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+// One JSON object per line; blank lines are skipped.
+final class JsonLinesProductRowReader implements ProductRowReader {
+
+	private static final ObjectMapper MAPPER = new ObjectMapper();
+
+	private final BufferedReader reader;
+
+	private long lineNumber;
+
+	JsonLinesProductRowReader(BufferedReader reader) {
+		this.reader = reader;
+	}
+
+	@Override
+	public Map<String, String> next() throws IOException {
+		String line;
+		do {
+			line = reader.readLine();
+			if (line == null) {
+				return null;
+			}
+			lineNumber++;
+		} while (line.isBlank());
+
+		JsonNode node;
+		try {
+			node = MAPPER.readTree(line);
+		} catch (JsonProcessingException e) {
+			throw new MalformedRowException("Invalid JSON: " + e.getOriginalMessage());
+		}
+		if (!node.isObject()) {
+			throw new MalformedRowException("Expected a JSON object");
+		}
+
+		Map<String, String> row = new HashMap<>();
+		for (Iterator<Map.Entry<String, JsonNode>> fields = node.fields(); fields.hasNext();) {
+			Map.Entry<String, JsonNode> field = fields.next();
+			JsonNode value = field.getValue();
+			row.put(field.getKey().toLowerCase(Locale.ROOT), value.isNull() ? null : value.asText());
+		}
+		return row;
+	}
+
+	@Override
+	public long line() {
+		return lineNumber;
+	}
+
+	@Override
+	public void close() throws IOException {
+		reader.close();
+	}
+
+}
@@ -0,0 +1,14 @@
+package com.ecom.service.impl;
+
+import java.io.IOException;
+
+// A single row could not be read; the reader is positioned at the next row.
+class MalformedRowException extends IOException {
+
+	private static final long serialVersionUID = 1L;
+
+	MalformedRowException(String message) {
+		super(message);
+	}
+
+}
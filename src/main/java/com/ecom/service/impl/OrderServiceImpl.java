@@ -0,0 +1,386 @@
+package com.ecom.service.impl;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ecom.dto.CartLine;
+import com.ecom.dto.CartView;
+import com.ecom.dto.CheckoutResult;
+import com.ecom.dto.StockReservation;
+import com.ecom.model.CustomerOrder;
+import com.ecom.repositories.OrderRepository;
+import com.ecom.service.CartService;
+import com.ecom.service.OrderService;
+import com.ecom.service.StockReservationService;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+// Checkout with group commit. The request thread does the in-memory part (prices
+// from the cart, stock from the reservation engine) and queues the order; a single
+// writer takes everything that queued up while the previous group was committing
+// and inserts it in one transaction with two JDBC batches. Under load the groups
+// grow on their own, so throughput follows the group size rather than the latency
+// of a commit; when idle a group is just one order and nothing waits.
+//
+// Stock is held as reservations until the group commits. Inside the group's
+// transaction each order's reservations are committed to the reservation engine,
+// which writes the decrements in that same transaction, so an order and its stock
+// decrement are durable together. An order whose reservations expired meanwhile is
+// left out of the group and fails. Confirmation work for a committed group goes to
+// a separate executor.
+@Service
+public class OrderServiceImpl implements OrderService {
+
+	private static final Logger log = LoggerFactory.getLogger(OrderServiceImpl.class);
+
+	private static final String INSERT_ORDER_SQL = "INSERT INTO customer_order "
+			+ "(id, idempotency_key, cart_id, status, item_count, total, created_at) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+	private static final String INSERT_ITEM_SQL = "INSERT INTO order_item "
+			+ "(order_id, product_id, title, unit_price, quantity) VALUES (?, ?, ?, ?, ?)";
+
+	private static final String EXISTING_KEYS_SQL = "SELECT idempotency_key, id FROM customer_order "
+			+ "WHERE idempotency_key IN (:keys)";
+
+	private static final String CONFIRM_SQL = "UPDATE customer_order SET status = ?, confirmed_at = ? "
+			+ "WHERE id = ? AND status = ?";
+
+	private static final int MAX_KEY_LENGTH = 64;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private OrderRepository orderRepository;
+
+	@Autowired
+	private CartService cartService;
+
+	@Autowired
+	private StockReservationService stockReservationService;
+
+	private final int maxBatch;
+
+	private final Duration checkoutTimeout;
+
+	private final BlockingQueue<PendingOrder> queue;
+
+	// Checkouts queued or committing, by idempotency key, so a retry joins the original
+	private final Map<String, CompletableFuture<CheckoutResult>> inFlight = new ConcurrentHashMap<>();
+
+	private final Thread writer;
+
+	private volatile boolean running = true;
+
+	private final ThreadPoolExecutor confirmations;
+
+	private final DistributionSummary groupSize;
+
+	private final Timer commitTimer;
+
+	public OrderServiceImpl(@Value("${ecom.orders.max-batch:200}") int maxBatch,
+			@Value("${ecom.orders.queue-capacity:2000}") int queueCapacity,
+			@Value("${ecom.orders.checkout-timeout:10s}") Duration checkoutTimeout,
+			@Value("${ecom.orders.confirm-workers:2}") int confirmWorkers,
+			@Value("${ecom.orders.confirm-queue-capacity:1000}") int confirmQueueCapacity,
+			MeterRegistry registry) {
+		this.maxBatch = maxBatch;
+		this.checkoutTimeout = checkoutTimeout;
+		this.queue = new ArrayBlockingQueue<>(queueCapacity);
+		this.writer = new CustomizableThreadFactory("order-commit-").newThread(this::runWriter);
+		this.confirmations = new ThreadPoolExecutor(confirmWorkers, confirmWorkers, 60, TimeUnit.SECONDS,
+				new ArrayBlockingQueue<>(confirmQueueCapacity), new CustomizableThreadFactory("order-confirm-"),
+				new ThreadPoolExecutor.AbortPolicy());
+		new ExecutorServiceMetrics(confirmations, "order-confirm", Tags.empty()).bindTo(registry);
+		this.groupSize = DistributionSummary.builder("ecom.orders.group.size")
+				.description("Orders committed together in one transaction")
+				.publishPercentileHistogram()
+				.maximumExpectedValue((double) maxBatch)
+				.register(registry);
+		this.commitTimer = Timer.builder("ecom.orders.group.commit")
+				.description("Inserting one group of orders, including the commit")
+				.publishPercentileHistogram()
+				.register(registry);
+		registry.gauge("ecom.orders.queue.size", queue, BlockingQueue::size);
+	}
+
+	@PostConstruct
+	public void start() {
+		writer.start();
+	}
+
+	@PreDestroy
+	public void shutdown() throws InterruptedException {
+		// The writer drains what is already queued before it stops
+		running = false;
+		writer.join(checkoutTimeout.toMillis());
+		confirmations.shutdown();
+		confirmations.awaitTermination(5, TimeUnit.SECONDS);
+	}
+
+	@Override
+	public CheckoutResult checkout(String cartId, String idempotencyKey) {
+		if (idempotencyKey == null || idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+			return CheckoutResult.failed("Invalid checkout request, please try again");
+		}
+		CompletableFuture<CheckoutResult> result = new CompletableFuture<>();
+		CompletableFuture<CheckoutResult> original = inFlight.putIfAbsent(idempotencyKey, result);
+		if (original != null) {
+			return await(original);
+		}
+		result.whenComplete((r, e) -> inFlight.remove(idempotencyKey, result));
+
+		try {
+			PendingOrder order = prepare(cartId, idempotencyKey, result);
+			if (order != null && !queue.offer(order)) {
+				release(order);
+				result.complete(CheckoutResult.failed("We are very busy right now, please try again in a moment"));
+			}
+		} catch (RuntimeException e) {
+			log.error("Checkout of cart {} failed", cartId, e);
+			result.complete(CheckoutResult.failed("Your order could not be placed, please try again"));
+		}
+		return await(result);
+	}
+
+	@Override
+	public CustomerOrder getOrder(String id) {
+		return orderRepository.findWithItemsById(id).orElse(null);
+	}
+
+	// Prices the cart and reserves its stock. Returns null after completing result
+	// when the order cannot be placed.
+	private PendingOrder prepare(String cartId, String idempotencyKey, CompletableFuture<CheckoutResult> result) {
+		CartView cart = cartService.getCart(cartId);
+		if (cart.isEmpty()) {
+			// The cart is emptied by a successful checkout, so this may be a retry of one
+			String orderId = orderRepository.findIdByIdempotencyKey(idempotencyKey).orElse(null);
+			result.complete(orderId != null ? CheckoutResult.placed(orderId) : CheckoutResult.failed("Your cart is empty"));
+			return null;
+		}
+
+		List<StockReservation> reservations = new ArrayList<>(cart.lines().size());
+		for (CartLine line : cart.lines()) {
+			StockReservation reservation = stockReservationService.reserve(line.product().getId(), line.quantity());
+			if (reservation == null) {
+				for (StockReservation held : reservations) {
+					stockReservationService.release(held.id());
+				}
+				result.complete(CheckoutResult.failed("Not enough stock for " + line.product().getTitle()));
+				return null;
+			}
+			reservations.add(reservation);
+		}
+		return new PendingOrder(UUID.randomUUID().toString(), idempotencyKey, cartId, cart, reservations, result);
+	}
+
+	private CheckoutResult await(CompletableFuture<CheckoutResult> result) {
+		try {
+			return result.get(checkoutTimeout.toMillis(), TimeUnit.MILLISECONDS);
+		} catch (TimeoutException e) {
+			// Still queued; the key stays in flight, so retrying it joins this checkout
+			return CheckoutResult.failed("Your order is still being processed, please submit it again");
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return CheckoutResult.failed("Your order is still being processed, please submit it again");
+		} catch (ExecutionException e) {
+			return CheckoutResult.failed("Your order could not be placed, please try again");
+		}
+	}
+
+	private void runWriter() {
+		List<PendingOrder> group = new ArrayList<>(maxBatch);
+		while (running || !queue.isEmpty()) {
+			try {
+				PendingOrder first = queue.poll(100, TimeUnit.MILLISECONDS);
+				if (first == null) {
+					continue;
+				}
+				group.add(first);
+				queue.drainTo(group, maxBatch - 1);
+				commit(group);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			} catch (RuntimeException e) {
+				log.error("Committing a group of {} order(s) failed", group.size(), e);
+				// Nobody may be left waiting. Orders are completed as soon as their outcome is
+				// known, so this only reaches the ones still undecided; a retry with the same
+				// key finds the order if it was placed after all.
+				for (PendingOrder order : group) {
+					if (!order.result().isDone()) {
+						release(order);
+						order.result().complete(CheckoutResult.failed("Your order could not be confirmed, please submit it again"));
+					}
+				}
+			} finally {
+				group.clear();
+			}
+		}
+	}
+
+	private void commit(List<PendingOrder> group) {
+		GroupOutcome outcome;
+		try {
+			outcome = commitTimer.record(() -> transactionTemplate.execute(status -> insert(group)));
+		} catch (RuntimeException e) {
+			if (group.size() > 1) {
+				// One bad order must not fail the others: retry them one transaction each
+				for (PendingOrder order : group) {
+					commit(List.of(order));
+				}
+				return;
+			}
+			PendingOrder order = group.get(0);
+			log.error("Order {} could not be committed", order.id(), e);
+			release(order);
+			// Most likely the same key was committed elsewhere in the meantime
+			String orderId = orderRepository.findIdByIdempotencyKey(order.idempotencyKey()).orElse(null);
+			order.result().complete(orderId != null ? CheckoutResult.placed(orderId)
+					: CheckoutResult.failed("Your order could not be placed, please try again"));
+			return;
+		}
+		groupSize.record(group.size());
+
+		List<String> placed = new ArrayList<>(group.size());
+		for (PendingOrder order : group) {
+			String duplicateOf = outcome.existing().get(order.idempotencyKey());
+			if (duplicateOf != null) {
+				release(order);
+				order.result().complete(CheckoutResult.placed(duplicateOf));
+				continue;
+			}
+			if (outcome.expired().contains(order.id())) {
+				release(order);
+				order.result().complete(CheckoutResult.failed("Your reserved stock expired, please check out again"));
+				continue;
+			}
+			// Placed as soon as the transaction committed, whatever happens to the clean-up below
+			placed.add(order.id());
+			order.result().complete(CheckoutResult.placed(order.id()));
+			try {
+				cartService.clearCart(order.cartId());
+			} catch (RuntimeException e) {
+				log.error("Order {} is placed but cart {} could not be cleared", order.id(), order.cartId(), e);
+			}
+		}
+
+		if (!placed.isEmpty()) {
+			try {
+				confirmations.execute(() -> confirm(placed));
+			} catch (RejectedExecutionException e) {
+				// The orders are placed; they stay PLACED until confirmed by hand
+				log.warn("Confirmation queue is full, {} order(s) stay PLACED", placed.size());
+			}
+		}
+	}
+
+	// Inserts the group, skipping keys that already have an order and orders whose
+	// reservations could no longer be committed.
+	private GroupOutcome insert(List<PendingOrder> group) {
+		List<String> keys = new ArrayList<>(group.size());
+		for (PendingOrder order : group) {
+			keys.add(order.idempotencyKey());
+		}
+		Map<String, String> existing = new HashMap<>();
+		namedParameterJdbcTemplate.query(EXISTING_KEYS_SQL, Map.of("keys", keys),
+				rs -> {
+					existing.put(rs.getString(1), rs.getString(2));
+				});
+
+		Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+		Set<String> expired = new HashSet<>();
+		List<Object[]> orders = new ArrayList<>(group.size());
+		List<Object[]> items = new ArrayList<>();
+		for (PendingOrder order : group) {
+			if (existing.containsKey(order.idempotencyKey())) {
+				continue;
+			}
+			// Writes the stock decrements in this transaction
+			if (!stockReservationService.commitInTransaction(order.reservations())) {
+				expired.add(order.id());
+				continue;
+			}
+			CartView cart = order.cart();
+			orders.add(new Object[] { order.id(), order.idempotencyKey(), order.cartId(),
+					CustomerOrder.Status.PLACED.name(), cart.itemCount(), cart.total(), now });
+			for (CartLine line : cart.lines()) {
+				items.add(new Object[] { order.id(), line.product().getId(), line.product().getTitle(),
+						line.product().getDiscountPrice(), line.quantity() });
+			}
+		}
+		if (!orders.isEmpty()) {
+			jdbcTemplate.batchUpdate(INSERT_ORDER_SQL, orders);
+			jdbcTemplate.batchUpdate(INSERT_ITEM_SQL, items);
+		}
+		return new GroupOutcome(existing, expired);
+	}
+
+	// Downstream of the commit: this is where confirmation mails and the like belong.
+	// For now it marks the group CONFIRMED with one batched update.
+	private void confirm(List<String> orderIds) {
+		Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+		List<Object[]> rows = new ArrayList<>(orderIds.size());
+		for (String id : orderIds) {
+			rows.add(new Object[] { CustomerOrder.Status.CONFIRMED.name(), now, id,
+					CustomerOrder.Status.PLACED.name() });
+		}
+		jdbcTemplate.batchUpdate(CONFIRM_SQL, rows);
+	}
+
+	private void release(PendingOrder order) {
+		for (StockReservation reservation : order.reservations()) {
+			stockReservationService.release(reservation.id());
+		}
+	}
+
+	// Idempotency keys that already had an order, with its id, and the ids of orders
+	// whose reservations had expired
+	private record GroupOutcome(Map<String, String> existing, Set<String> expired) {
+	}
+
+	// Prices come from the cart view, so they are the ones the customer saw at checkout
+	private record PendingOrder(String id, String idempotencyKey, String cartId, CartView cart,
+			List<StockReservation> reservations, CompletableFuture<CheckoutResult> result) {
+	}
+
+}
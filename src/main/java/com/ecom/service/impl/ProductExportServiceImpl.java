@@ -0,0 +1,182 @@
+package com.ecom.service.impl;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import com.ecom.service.ProductExportService;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+// Streams the product table straight from a forward-only JDBC result set to the
+// response. Rows are never mapped to entities, so nothing accumulates in a
+// persistence context and the heap holds at most one fetch of rows at a time.
+// Column names match what the bulk import reads, so an export can be re-imported.
+@Service
+public class ProductExportServiceImpl implements ProductExportService {
+
+	private static final String SELECT_SQL = "SELECT p.id, p.title, p.description, c.name AS category, p.price, "
+			+ "p.discount, p.discount_price, p.stock, p.is_active, p.image "
+			+ "FROM product p LEFT JOIN category c ON c.id = p.category_id ORDER BY p.id";
+
+	private static final String[] COLUMNS = { "id", "title", "description", "category", "price", "discount",
+			"discountPrice", "stock", "isActive", "image" };
+
+	private static final JsonFactory JSON = new JsonFactory();
+
+	private final JdbcTemplate jdbcTemplate;
+
+	public ProductExportServiceImpl(DataSource dataSource, @Value("${ecom.export.fetch-size:1000}") int fetchSize) {
+		this.jdbcTemplate = new JdbcTemplate(dataSource);
+		this.jdbcTemplate.setFetchSize(fetchSize);
+	}
+
+	@Override
+	public long exportProducts(Format format, OutputStream out) throws IOException {
+		Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+		RowWriter rowWriter = format == Format.NDJSON ? new JsonLinesRowWriter(writer) : new CsvRowWriter(writer);
+
+		long[] rows = { 0 };
+		try {
+			jdbcTemplate.query(SELECT_SQL, (ResultSet rs) -> {
+				try {
+					rowWriter.write(rs);
+				} catch (IOException e) {
+					// Client went away; stop reading from the database
+					throw new UncheckedIOException(e);
+				}
+				rows[0]++;
+			});
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+		rowWriter.finish();
+		writer.flush();
+		return rows[0];
+	}
+
+	private interface RowWriter {
+
+		void write(ResultSet rs) throws SQLException, IOException;
+
+		void finish() throws IOException;
+
+	}
+
+	private static final class CsvRowWriter implements RowWriter {
+
+		private final Writer writer;
+
+		CsvRowWriter(Writer writer) throws IOException {
+			this.writer = writer;
+			writer.write(String.join(",", COLUMNS));
+			writer.write("\r\n");
+		}
+
+		@Override
+		public void write(ResultSet rs) throws SQLException, IOException {
+			for (int i = 1; i <= COLUMNS.length; i++) {
+				if (i > 1) {
+					writer.write(',');
+				}
+				Object value = rs.getObject(i);
+				if (value instanceof BigDecimal number) {
+					writer.write(number.toPlainString());
+				} else if (value != null) {
+					writeField(value.toString());
+				}
+			}
+			writer.write("\r\n");
+		}
+
+		@Override
+		public void finish() {
+		}
+
+		private void writeField(String value) throws IOException {
+			boolean quote = false;
+			for (int i = 0; i < value.length() && !quote; i++) {
+				char c = value.charAt(i);
+				quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+			}
+			if (!quote) {
+				writer.write(value);
+				return;
+			}
+			writer.write('"');
+			writer.write(value.replace("\"", "\"\""));
+			writer.write('"');
+		}
+
+	}
+
+	private static final class JsonLinesRowWriter implements RowWriter {
+
+		private final Writer writer;
+
+		private final JsonGenerator generator;
+
+		JsonLinesRowWriter(Writer writer) throws IOException {
+			this.writer = writer;
+			this.generator = JSON.createGenerator(writer);
+			generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+			// Rows are flushed into the buffered writer only, never through to the socket
+			generator.disable(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM);
+			generator.setRootValueSeparator(null);
+		}
+
+		@Override
+		public void write(ResultSet rs) throws SQLException, IOException {
+			generator.writeStartObject();
+			generator.writeNumberField("id", rs.getInt(1));
+			writeString("title", rs.getString(2));
+			writeString("description", rs.getString(3));
+			writeString("category", rs.getString(4));
+			writeNumber("price", rs.getBigDecimal(5));
+			generator.writeNumberField("discount", rs.getInt(6));
+			writeNumber("discountPrice", rs.getBigDecimal(7));
+			generator.writeNumberField("stock", rs.getInt(8));
+			generator.writeBooleanField("isActive", rs.getBoolean(9));
+			writeString("image", rs.getString(10));
+			generator.writeEndObject();
+			generator.flush();
+			writer.write('\n');
+		}
+
+		@Override
+		public void finish() throws IOException {
+			generator.close();
+		}
+
+		private void writeNumber(String name, BigDecimal value) throws IOException {
+			if (value == null) {
+				generator.writeNullField(name);
+			} else {
+				generator.writeNumberField(name, value);
+			}
+		}
+
+		private void writeString(String name, String value) throws IOException {
+			if (value == null) {
+				generator.writeNullField(name);
+			} else {
+				generator.writeStringField(name, value);
+			}
+		}
+
+	}
+
+}
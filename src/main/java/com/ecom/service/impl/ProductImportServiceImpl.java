@@ -0,0 +1,412 @@
+package com.ecom.service.impl;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.ObjectUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+import com.ecom.dto.ImportJob;
+import com.ecom.model.Category;
+import com.ecom.repositories.CategoryRepository;
+import com.ecom.service.ProductImportService;
+import com.ecom.service.ProductService;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+
+// Imports supplier catalogs from CSV or JSON Lines. The upload is spooled to a temp
+// file and read one row at a time on a background worker; valid rows are written
+// with JDBC batch statements, one transaction per batch, so memory stays flat no
+// matter how large the file is.
+//
+// Rows with an id update that product, rows without one are inserted. Product ids
+// are SQL Server IDENTITY values, which Hibernate cannot batch inserts for, so this
+// path bypasses the persistence context and lets the database assign the ids.
+@Service
+public class ProductImportServiceImpl implements ProductImportService {
+
+	private static final String INSERT_SQL = "INSERT INTO product "
+			+ "(title, description, category_id, price, stock, image, discount, discount_price, is_active) "
+			+ "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+	private static final String UPDATE_SQL = "UPDATE product SET title = ?, description = ?, category_id = ?, "
+			+ "price = ?, stock = ?, discount = ?, discount_price = ?, is_active = ? WHERE id = ?";
+
+	private static final int MAX_RECENT_JOBS = 20;
+
+	// Largest value a DECIMAL(12,2) column holds
+	private static final BigDecimal MAX_PRICE = new BigDecimal("9999999999.99");
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private CategoryRepository categoryRepository;
+
+	@Autowired
+	private ProductService productService;
+
+	private final int batchSize;
+
+	private final ThreadPoolExecutor executor;
+
+	private final Timer spoolTimer;
+
+	private final Map<String, ImportJob> jobs = new ConcurrentHashMap<>();
+
+	public ProductImportServiceImpl(@Value("${ecom.import.batch-size:500}") int batchSize,
+			@Value("${ecom.import.queue-capacity:4}") int queueCapacity,
+			Environment environment, MeterRegistry registry) {
+		this.batchSize = batchSize;
+		// The worker spends its time waiting on file reads and JDBC batches, so in the
+		// virtual-thread mode it does not need to hold a platform thread
+		ThreadFactory threadFactory = Threading.VIRTUAL.isActive(environment)
+				? new VirtualThreadTaskExecutor("product-import-").getVirtualThreadFactory()
+				: new CustomizableThreadFactory("product-import-");
+		// One import at a time; concurrent imports would only contend for the same table.
+		this.executor = new ThreadPoolExecutor(1, 1, 60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(queueCapacity),
+				threadFactory, new ThreadPoolExecutor.AbortPolicy());
+		new ExecutorServiceMetrics(executor, "product-import", Tags.empty()).bindTo(registry);
+		this.spoolTimer = Timer.builder("ecom.import.spool")
+				.description("Copying an uploaded import file to the spool directory")
+				.register(registry);
+	}
+
+	@Override
+	public ImportJob startImport(MultipartFile file) throws IOException {
+		Path spool = Files.createTempFile("product-import-", ".tmp");
+		Timer.Sample sample = Timer.start();
+		try {
+			file.transferTo(spool);
+			sample.stop(spoolTimer);
+		} catch (IOException e) {
+			Files.deleteIfExists(spool);
+			throw e;
+		}
+
+		ImportJob job = new ImportJob(UUID.randomUUID().toString(), file.getOriginalFilename());
+		try {
+			executor.execute(() -> run(job, spool));
+		} catch (RejectedExecutionException e) {
+			Files.deleteIfExists(spool);
+			throw new IOException("Too many imports are waiting; try again when the current ones finish", e);
+		}
+		jobs.put(job.getId(), job);
+		forgetOldJobs();
+		return job;
+	}
+
+	@Override
+	public ImportJob getJob(String id) {
+		return jobs.get(id);
+	}
+
+	@Override
+	public List<ImportJob> getRecentJobs() {
+		List<ImportJob> recent = new ArrayList<>(jobs.values());
+		recent.sort(Comparator.comparing(ImportJob::getCreatedAt).reversed());
+		return recent;
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		executor.shutdownNow();
+	}
+
+	private void run(ImportJob job, Path spool) {
+		job.start();
+		try (ProductRowReader reader = ProductRowReader.open(spool, job.getFileName())) {
+			Map<String, Integer> categories = categoriesByName();
+			List<ImportRow> inserts = new ArrayList<>(batchSize);
+			List<ImportRow> updates = new ArrayList<>(batchSize);
+
+			while (true) {
+				Map<String, String> fields;
+				try {
+					fields = reader.next();
+				} catch (MalformedRowException e) {
+					job.rowRead();
+					job.rowFailed(reader.line(), e.getMessage());
+					continue;
+				}
+				if (fields == null) {
+					break;
+				}
+				job.rowRead();
+
+				ImportRow row;
+				try {
+					row = ImportRow.parse(reader.line(), fields, categories);
+				} catch (IllegalArgumentException e) {
+					job.rowFailed(reader.line(), e.getMessage());
+					continue;
+				}
+
+				(row.id() == null ? inserts : updates).add(row);
+				if (inserts.size() + updates.size() >= batchSize) {
+					flush(job, inserts, updates);
+				}
+			}
+			flush(job, inserts, updates);
+
+			refreshCatalog(job);
+			job.finish(ImportJob.Status.COMPLETED, null);
+		} catch (Exception e) {
+			e.printStackTrace();
+			// Batches written before the failure stay committed.
+			refreshCatalog(job);
+			job.finish(ImportJob.Status.FAILED, e.getMessage());
+		} finally {
+			try {
+				Files.deleteIfExists(spool);
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
+	}
+
+	private void refreshCatalog(ImportJob job) {
+		if (job.getInserted() + job.getUpdated() > 0) {
+			productService.refreshCatalog();
+		}
+	}
+
+	private void flush(ImportJob job, List<ImportRow> inserts, List<ImportRow> updates) {
+		if (inserts.isEmpty() && updates.isEmpty()) {
+			return;
+		}
+		try {
+			int[] updateCounts = transactionTemplate.execute(status -> {
+				batch(INSERT_SQL, inserts, this::bindInsert);
+				return batch(UPDATE_SQL, updates, this::bindUpdate);
+			});
+			job.inserted(inserts.size());
+			countUpdates(job, updates, updateCounts);
+		} catch (DataAccessException e) {
+			// One bad row rolls back the whole batch; replay it row by row to find it.
+			for (ImportRow row : inserts) {
+				try {
+					jdbcTemplate.update(INSERT_SQL, ps -> bindInsert(ps, row));
+					job.inserted(1);
+				} catch (DataAccessException rowError) {
+					job.rowFailed(row.line(), rootMessage(rowError));
+				}
+			}
+			for (ImportRow row : updates) {
+				try {
+					countUpdates(job, List.of(row),
+							new int[] { jdbcTemplate.update(UPDATE_SQL, ps -> bindUpdate(ps, row)) });
+				} catch (DataAccessException rowError) {
+					job.rowFailed(row.line(), rootMessage(rowError));
+				}
+			}
+		}
+		inserts.clear();
+		updates.clear();
+	}
+
+	private int[] batch(String sql, List<ImportRow> rows, ParameterizedPreparedStatementSetter<ImportRow> binder) {
+		if (rows.isEmpty()) {
+			return new int[0];
+		}
+		return jdbcTemplate.batchUpdate(sql, new BatchPreparedStatementSetter() {
+
+			@Override
+			public void setValues(PreparedStatement ps, int i) throws SQLException {
+				binder.setValues(ps, rows.get(i));
+			}
+
+			@Override
+			public int getBatchSize() {
+				return rows.size();
+			}
+		});
+	}
+
+	private void countUpdates(ImportJob job, List<ImportRow> updates, int[] counts) {
+		for (int i = 0; i < counts.length; i++) {
+			// Drivers may report SUCCESS_NO_INFO (-2) instead of a row count
+			if (counts[i] == 0) {
+				job.rowFailed(updates.get(i).line(), "No product with id " + updates.get(i).id());
+			} else {
+				job.updated(1);
+			}
+		}
+	}
+
+	private void bindInsert(PreparedStatement ps, ImportRow row) throws SQLException {
+		ps.setString(1, row.title());
+		ps.setString(2, row.description());
+		ps.setObject(3, row.categoryId());
+		ps.setBigDecimal(4, row.price());
+		ps.setInt(5, row.stock());
+		ps.setString(6, row.image());
+		ps.setInt(7, row.discount());
+		ps.setBigDecimal(8, row.discountPrice());
+		ps.setBoolean(9, row.isActive());
+	}
+
+	private void bindUpdate(PreparedStatement ps, ImportRow row) throws SQLException {
+		ps.setString(1, row.title());
+		ps.setString(2, row.description());
+		ps.setObject(3, row.categoryId());
+		ps.setBigDecimal(4, row.price());
+		ps.setInt(5, row.stock());
+		ps.setInt(6, row.discount());
+		ps.setBigDecimal(7, row.discountPrice());
+		ps.setBoolean(8, row.isActive());
+		ps.setInt(9, row.id());
+	}
+
+	private Map<String, Integer> categoriesByName() {
+		Map<String, Integer> categories = new HashMap<>();
+		for (Category category : categoryRepository.findAll()) {
+			if (!ObjectUtils.isEmpty(category.getName())) {
+				categories.putIfAbsent(category.getName().trim().toLowerCase(Locale.ROOT), category.getId());
+			}
+		}
+		return categories;
+	}
+
+	private void forgetOldJobs() {
+		if (jobs.size() <= MAX_RECENT_JOBS) {
+			return;
+		}
+		jobs.values().stream()
+				.filter(ImportJob::isFinished)
+				.sorted(Comparator.comparing(ImportJob::getCreatedAt))
+				.limit(jobs.size() - MAX_RECENT_JOBS)
+				.forEach(job -> jobs.remove(job.getId()));
+	}
+
+	private static String rootMessage(DataAccessException e) {
+		Throwable cause = e.getMostSpecificCause();
+		return cause.getMessage() != null ? cause.getMessage() : e.getMessage();
+	}
+
+	// A validated input row. Field names follow the Product properties.
+	record ImportRow(long line, Integer id, String title, String description, Integer categoryId, BigDecimal price,
+			int stock, String image, int discount, BigDecimal discountPrice, boolean isActive) {
+
+		static ImportRow parse(long line, Map<String, String> fields, Map<String, Integer> categories) {
+			Integer id = parseInt(fields, "id", null);
+			if (id != null && id <= 0) {
+				throw new IllegalArgumentException("id must be positive");
+			}
+
+			String title = text(fields, "title");
+			if (title == null) {
+				throw new IllegalArgumentException("title is required");
+			}
+			if (title.length() > 500) {
+				throw new IllegalArgumentException("title is longer than 500 characters");
+			}
+			String description = text(fields, "description");
+			if (description != null && description.length() > 5000) {
+				throw new IllegalArgumentException("description is longer than 5000 characters");
+			}
+
+			Integer categoryId = null;
+			String category = text(fields, "category");
+			if (category != null) {
+				categoryId = categories.get(category.toLowerCase(Locale.ROOT));
+				if (categoryId == null) {
+					throw new IllegalArgumentException("Unknown category '" + category + "'");
+				}
+			}
+
+			BigDecimal price = parseDecimal(fields, "price");
+			if (price == null || price.signum() < 0 || price.compareTo(MAX_PRICE) > 0) {
+				throw new IllegalArgumentException("price must be between 0 and " + MAX_PRICE.toPlainString());
+			}
+			int discount = parseInt(fields, "discount", 0);
+			if (discount < 0 || discount > 100) {
+				throw new IllegalArgumentException("discount must be between 0 and 100");
+			}
+			int stock = parseInt(fields, "stock", 0);
+			if (stock < 0) {
+				throw new IllegalArgumentException("stock cannot be negative");
+			}
+
+			String image = text(fields, "image");
+			String active = text(fields, "isactive");
+			boolean isActive = active == null || active.equalsIgnoreCase("true") || active.equals("1")
+					|| active.equalsIgnoreCase("yes");
+
+			return new ImportRow(line, id, title, description, categoryId, price, stock,
+					image == null ? "default.jpg" : image, discount,
+					ProductServiceImpl.discountPrice(price, discount), isActive);
+		}
+
+		private static String text(Map<String, String> fields, String name) {
+			String value = fields.get(name);
+			if (value == null || value.isBlank()) {
+				return null;
+			}
+			return value.trim();
+		}
+
+		private static Integer parseInt(Map<String, String> fields, String name, Integer defaultValue) {
+			String value = text(fields, name);
+			if (value == null) {
+				return defaultValue;
+			}
+			try {
+				return Integer.valueOf(value);
+			} catch (NumberFormatException e) {
+				throw new IllegalArgumentException(name + " is not a whole number: '" + value + "'");
+			}
+		}
+
+		private static BigDecimal parseDecimal(Map<String, String> fields, String name) {
+			String value = text(fields, name);
+			if (value == null) {
+				return null;
+			}
+			try {
+				return new BigDecimal(value).setScale(2, RoundingMode.HALF_UP);
+			} catch (NumberFormatException e) {
+				throw new IllegalArgumentException(name + " is not a number: '" + value + "'");
+			}
+		}
+
+	}
+
+}
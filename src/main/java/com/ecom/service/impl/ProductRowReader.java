@@ -0,0 +1,31 @@
+package com.ecom.service.impl;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Map;
+
+// Reads an import file one row at a time as field name -> raw text. Field names
+// are lower-cased; values are validated by the caller.
+interface ProductRowReader extends Closeable {
+
+	// Returns the next row, or null at the end of the file.
+	Map<String, String> next() throws IOException;
+
+	// Line on which the row last returned by next() started.
+	long line();
+
+	static ProductRowReader open(Path file, String fileName) throws IOException {
+		BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+		String name = fileName == null ? "" : fileName.toLowerCase(Locale.ROOT);
+		if (name.endsWith(".jsonl") || name.endsWith(".ndjson") || name.endsWith(".json")) {
+			return new JsonLinesProductRowReader(reader);
+		}
+		return new CsvProductRowReader(reader);
+	}
+
+}
@@ -1,34 +1,117 @@
 package com.ecom.service.impl;
 
-import java.io.File;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntPredicate;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.util.ObjectUtils;
 import org.springframework.web.multipart.MultipartFile;
 
+import com.ecom.catalog.CatalogSnapshot;
+import com.ecom.catalog.FacetedBrowser;
+import com.ecom.catalog.ProductCatalog;
+import com.ecom.catalog.ProductSearchIndex;
+import com.ecom.catalog.RelatedProducts;
+import com.ecom.catalog.SuggestionIndex;
+import com.ecom.dto.BrowseQuery;
+import com.ecom.dto.BrowseResult;
+import com.ecom.dto.CursorPage;
+import com.ecom.dto.ImageVariants;
+import com.ecom.dto.PageResult;
+import com.ecom.dto.ProductDetail;
+import com.ecom.dto.ProductSummary;
+import com.ecom.dto.Suggestion;
+import com.ecom.event.CatalogEvent;
+import com.ecom.event.CatalogEventBus;
+import com.ecom.model.Category;
 import com.ecom.model.Product;
+import com.ecom.repositories.CategoryRepository;
 import com.ecom.repositories.ProductRepository;
+import com.ecom.service.ImageStorageService;
+import com.ecom.service.ImageVariantService;
 import com.ecom.service.ProductService;
+import com.ecom.service.StockReservationService;
+
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManagerFactory;
 
 @Service
+@Timed(value = "ecom.service", histogram = true)
 public class ProductServiceImpl implements ProductService {
 
 	@Autowired
 	private ProductRepository productRepository;
 
+	@Autowired
+	private CategoryRepository categoryRepository;
+
+	@Autowired
+	private ProductCatalog productCatalog;
+
+	@Autowired
+	private CatalogEventBus catalogEvents;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private ImageVariantService imageVariantService;
+
+	@Autowired
+	private ImageStorageService imageStorageService;
+
+	@Autowired
+	private ProductSearchIndex productSearchIndex;
+
+	@Autowired
+	private SuggestionIndex suggestionIndex;
+
+	@Autowired
+	private FacetedBrowser facetedBrowser;
+
+	@Autowired
+	private RelatedProducts relatedProducts;
+
+	@Autowired
+	private StockReservationService stockReservationService;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+
+	// Cached COUNT(*) for the admin grid; -1 means it has to be recomputed.
+	private final AtomicLong productCount = new AtomicLong(-1);
+
 	@Override
 	public Product saveProduct(Product product) {
-		return productRepository.save(product);
+		product.setCategory(resolveCategory(product.getCategory()));
+		CatalogEvent.Type type = product.getId() == null ? CatalogEvent.Type.PRODUCT_CREATED
+				: CatalogEvent.Type.PRODUCT_UPDATED;
+		Product savedProduct = transactionTemplate.execute(status -> {
+			Product saved = productRepository.save(product);
+			catalogEvents.publish(CatalogEvent.product(type, saved));
+			return saved;
+		});
+		if (!ObjectUtils.isEmpty(savedProduct)) {
+			productCount.set(-1);
+		}
+		return savedProduct;
 	}
 
 	@Override
@@ -47,7 +130,12 @@ public class ProductServiceImpl implements ProductService {
 		Product product = productRepository.findById(id).orElse(null);
 
 		if (!ObjectUtils.isEmpty(product)) {
-			productRepository.delete(product);
+			transactionTemplate.executeWithoutResult(status -> {
+				productRepository.delete(product);
+				catalogEvents.publish(CatalogEvent.productDeleted(id).releasing(storedImage(product.getImage())));
+			});
+			stockReservationService.forget(id);
+			productCount.set(-1);
 			return true;
 		}
 		return false;
@@ -62,40 +150,67 @@ public class ProductServiceImpl implements ProductService {
 	@Override
 	public Product updateProduct(Product product, MultipartFile image) {
 
+		// Write pending sales first so the stock entered by the admin is not decremented again later
+		stockReservationService.flush();
 		Product dbProduct = getProductById(product.getId());
 
-		String imageName = image.isEmpty() ? dbProduct.getImage() : image.getOriginalFilename();
+		String oldImage = dbProduct.getImage();
+		String imageName = oldImage;
+		if (!image.isEmpty()) {
+			try {
+				imageName = imageStorageService.store(image, "product_img");
+			} catch (IOException e) {
+				// Keep the current image if the upload could not be stored.
+				e.printStackTrace();
+			}
+		}
+		boolean imageChanged = !Objects.equals(oldImage, imageName);
+		BigDecimal newPrice = discountPrice(product.getPrice(), product.getDiscount());
+
+		// Name the change subscribers are most likely to care about; the event carries the whole product anyway
+		CatalogEvent.Type type = CatalogEvent.Type.PRODUCT_UPDATED;
+		if (dbProduct.getDiscountPrice() == null || dbProduct.getDiscountPrice().compareTo(newPrice) != 0) {
+			type = CatalogEvent.Type.PRODUCT_PRICE_CHANGED;
+		} else if (dbProduct.getStock() != product.getStock()) {
+			type = CatalogEvent.Type.PRODUCT_STOCK_CHANGED;
+		}
 
 		dbProduct.setTitle(product.getTitle());
 		dbProduct.setDescription(product.getDescription());
-		dbProduct.setCategory(product.getCategory());
+		dbProduct.setCategory(resolveCategory(product.getCategory()));
 		dbProduct.setPrice(product.getPrice());
 		dbProduct.setStock(product.getStock());
 		dbProduct.setImage(imageName);
+		if (imageChanged) {
+			// Variants of the previous image are stale; they are regenerated below.
+			dbProduct.setThumbnailImage(null);
+			dbProduct.setListingImage(null);
+		}
 		dbProduct.setIsActive(product.getIsActive());
 		dbProduct.setDiscount(product.getDiscount());
 
-		// Calculate discount: 5% = 100 * (5/100); Final = 100 - 5 = 95
-		Double discount = product.getPrice() * (product.getDiscount() / 100.0);
-		Double discountPrice = product.getPrice() - discount;
-		dbProduct.setDiscountPrice(discountPrice);
+		dbProduct.setDiscountPrice(newPrice);
 
-		Product updateProduct = productRepository.save(dbProduct);
+		CatalogEvent.Type eventType = type;
+		String releasedImage = imageChanged ? storedImage(oldImage) : null;
+		Product updateProduct = transactionTemplate.execute(status -> {
+			Product saved = productRepository.save(dbProduct);
+			catalogEvents.publish(CatalogEvent.product(eventType, saved).releasing(releasedImage));
+			return saved;
+		});
 
 		if (!ObjectUtils.isEmpty(updateProduct)) {
 
-			if (!image.isEmpty()) {
-
-				try {
-					File saveFile = new ClassPathResource("static/img").getFile();
+			stockReservationService.resync(updateProduct.getId());
 
-					Path path = Paths.get(saveFile.getAbsolutePath() + File.separator + "product_img" + File.separator
-							+ image.getOriginalFilename());
-					Files.copy(image.getInputStream(), path, StandardCopyOption.REPLACE_EXISTING);
-
-				} catch (Exception e) {
-					e.printStackTrace();
-				}
+			if (imageChanged) {
+				String storedImage = imageName;
+				imageVariantService.generateVariants(imageStorageService.resolve("product_img", storedImage))
+						.thenAccept(variants -> updateImageVariants(updateProduct.getId(), storedImage, variants))
+						.exceptionally(e -> {
+							e.printStackTrace();
+							return null;
+						});
 			}
 			return product;
 		}
@@ -103,12 +218,13 @@ public class ProductServiceImpl implements ProductService {
 	}
 
 	@Override
-	public List<Product> getAllActiveProducts(String category) {
+	public List<Product> getAllActiveProducts(Integer categoryId) {
+		CatalogSnapshot snapshot = productCatalog.snapshot();
 		List<Product> products = null;
-		if (ObjectUtils.isEmpty(category)) {
-			products = productRepository.findByIsActiveTrue();
+		if (ObjectUtils.isEmpty(categoryId)) {
+			products = snapshot.active();
 		} else {
-			products = productRepository.findByCategory(category);
+			products = snapshot.activeByCategory(categoryId);
 		}
 
 		return products;
@@ -116,39 +232,208 @@ public class ProductServiceImpl implements ProductService {
 
 	@Override
 	public List<Product> searchProduct(String ch) {
-		return productRepository.findByTitleContainingIgnoreCaseOrCategoryContainingIgnoreCase(ch, ch);
+		CatalogSnapshot snapshot = productCatalog.snapshot();
+		return toProducts(snapshot, productSearchIndex.search(ch, id -> true));
 	}
 
 	@Override
 	public Page<Product> searchProductPagination(Integer pageNo, Integer pageSize, String ch) {
-		Pageable pageable = PageRequest.of(pageNo, pageSize);
-		return productRepository.findByTitleContainingIgnoreCaseOrCategoryContainingIgnoreCase(ch, ch, pageable);
+		CatalogSnapshot snapshot = productCatalog.snapshot();
+		return searchPage(snapshot, ch, id -> true, pageNo, pageSize);
 	}
 
 	@Override
-	public Page<Product> getAllActiveProductPagination(Integer pageNo, Integer pageSize, String category) {
+	public Page<Product> getAllActiveProductPagination(Integer pageNo, Integer pageSize, Integer categoryId) {
 
-		Pageable pageable = PageRequest.of(pageNo, pageSize);
+		CatalogSnapshot snapshot = productCatalog.snapshot();
 		Page<Product> pageProduct = null;
 
-		if (ObjectUtils.isEmpty(category)) {
-			pageProduct = productRepository.findByIsActiveTrue(pageable);
+		if (ObjectUtils.isEmpty(categoryId)) {
+			pageProduct = CatalogSnapshot.page(snapshot.active(), pageNo, pageSize);
 		} else {
-			pageProduct = productRepository.findByCategory(pageable, category);
+			pageProduct = CatalogSnapshot.page(snapshot.activeByCategory(categoryId), pageNo, pageSize);
 		}
 		return pageProduct;
 	}
 
 	@Override
-	public Page<Product> searchActiveProductPagination(Integer pageNo, Integer pageSize, String category, String ch) {
+	public Page<Product> searchActiveProductPagination(Integer pageNo, Integer pageSize, Integer categoryId, String ch) {
+
+		CatalogSnapshot snapshot = productCatalog.snapshot();
+		return searchPage(snapshot, ch, id -> {
+			Product product = snapshot.get(id);
+			return product != null && Boolean.TRUE.equals(product.getIsActive())
+					&& (categoryId == null
+							|| (product.getCategory() != null && categoryId.equals(product.getCategory().getId())));
+		}, pageNo, pageSize);
+	}
 
-		Page<Product> pageProduct = null;
-		Pageable pageable = PageRequest.of(pageNo, pageSize);
+	@Override
+	public CursorPage<Product> getAllProductsAfter(String cursor, Integer pageSize) {
+		// Fetch one extra row to learn whether another page exists without counting.
+		List<Product> rows = productRepository.findByIdGreaterThanOrderByIdAsc(CursorPage.decode(cursor),
+				Limit.of(pageSize + 1));
 
-		pageProduct = productRepository.findByIsActiveTrueAndTitleContainingIgnoreCaseOrCategoryContainingIgnoreCase(ch,
-				ch, pageable);
+		boolean hasNext = rows.size() > pageSize;
+		List<Product> content = hasNext ? rows.subList(0, pageSize) : rows;
+		String nextCursor = hasNext ? CursorPage.encode(content.get(content.size() - 1).getId()) : null;
 
-		return pageProduct;
+		return new CursorPage<>(content, nextCursor, !hasNext, countProducts());
+	}
+
+	@Override
+	public CursorPage<Product> getAllActiveProductsAfter(String cursor, Integer pageSize, Integer categoryId) {
+		CatalogSnapshot snapshot = productCatalog.snapshot();
+		List<Product> products = categoryId == null ? snapshot.active() : snapshot.activeByCategory(categoryId);
+		return CatalogSnapshot.pageAfter(products, cursor, pageSize);
+	}
+
+	@Override
+	public void updateImageVariants(Integer id, String image, ImageVariants variants) {
+		transactionTemplate.executeWithoutResult(status -> {
+			int updated = productRepository.updateImageVariants(id, image, variants.thumbnail(), variants.listing());
+			if (updated > 0) {
+				productRepository.findById(id).ifPresent(product -> catalogEvents
+						.publish(CatalogEvent.product(CatalogEvent.Type.PRODUCT_UPDATED, product)));
+			}
+		});
+	}
+
+	@Override
+	public Map<Integer, Integer> getActiveProductCounts() {
+		return productCatalog.snapshot().activeCounts();
+	}
+
+	@Override
+	public BrowseResult browseProducts(BrowseQuery query) {
+		return facetedBrowser.browse(query);
+	}
+
+	@Override
+	public CursorPage<ProductSummary> getActiveProductSummariesAfter(String cursor, Integer pageSize,
+			Integer categoryId) {
+		List<ProductSummary> rows = productRepository.findActiveSummariesAfter(CursorPage.decode(cursor), categoryId,
+				Limit.of(pageSize + 1));
+		boolean hasNext = rows.size() > pageSize;
+		List<ProductSummary> content = hasNext ? rows.subList(0, pageSize) : rows;
+		String nextCursor = hasNext ? CursorPage.encode(content.get(content.size() - 1).id()) : null;
+		return new CursorPage<>(content, nextCursor, !hasNext, null);
+	}
+
+	@Override
+	public ProductDetail getActiveProductDetail(Integer id) {
+		return productRepository.findActiveDetailById(id).orElse(null);
+	}
+
+	@Override
+	public PageResult<ProductSummary> searchActiveProductSummaries(String ch, Integer pageNo, Integer pageSize) {
+		CatalogSnapshot snapshot = productCatalog.snapshot();
+		ProductSearchIndex.Hits hits = productSearchIndex.search(ch, id -> {
+			Product product = snapshot.get(id);
+			return product != null && Boolean.TRUE.equals(product.getIsActive());
+		}, offset(pageNo, pageSize), pageSize);
+
+		// Ranking comes from the index; only the requested page is read from the database.
+		List<Integer> pageIds = new ArrayList<>(hits.ids().length);
+		for (int id : hits.ids()) {
+			pageIds.add(id);
+		}
+
+		List<ProductSummary> content = new ArrayList<>(pageIds.size());
+		if (!pageIds.isEmpty()) {
+			Map<Integer, ProductSummary> byId = new HashMap<>();
+			for (ProductSummary summary : productRepository.findSummariesByIdIn(pageIds)) {
+				byId.put(summary.id(), summary);
+			}
+			for (Integer id : pageIds) {
+				ProductSummary summary = byId.get(id);
+				if (summary != null) {
+					content.add(summary);
+				}
+			}
+		}
+		return new PageResult<>(content, pageNo, pageSize, hits.total());
+	}
+
+	@Override
+	public List<Product> getRelatedProducts(Integer id, Integer limit) {
+		CatalogSnapshot snapshot = productCatalog.snapshot();
+		List<Product> products = new ArrayList<>(limit);
+		for (int relatedId : relatedProducts.related(id)) {
+			// Computed by the last batch run; leave out what was deactivated or sold out since
+			Product product = snapshot.get(relatedId);
+			if (product != null && Boolean.TRUE.equals(product.getIsActive()) && product.getStock() > 0) {
+				products.add(product);
+				if (products.size() == limit) {
+					break;
+				}
+			}
+		}
+		return products;
+	}
+
+	@Override
+	public List<Suggestion> getSuggestions(String query, Integer limit) {
+		return suggestionIndex.suggest(query, limit);
+	}
+
+	@Override
+	public void refreshCatalog() {
+		// Bulk writers go around Hibernate, so cached product entities cannot be trusted anymore
+		entityManagerFactory.getCache().evict(Product.class);
+		catalogEvents.reload();
+		stockReservationService.resyncAll();
+		productCount.set(-1);
+	}
+
+	// Calculate discount: 5% = 100 * (5/100); Final = 100 - 5 = 95
+	static BigDecimal discountPrice(BigDecimal price, int discountPercent) {
+		BigDecimal discount = price.multiply(BigDecimal.valueOf(discountPercent)).divide(HUNDRED);
+		return price.subtract(discount).setScale(2, RoundingMode.HALF_UP);
+	}
+
+	// Uploads are shared by content hash and released by reference; the default image is not stored
+	private static String storedImage(String image) {
+		return image == null || image.equals("default.jpg") ? null : image;
+	}
+
+	// Forms only post category.id; load the row so the catalog snapshot sees its name.
+	private Category resolveCategory(Category category) {
+		if (category == null || category.getId() == null) {
+			return null;
+		}
+		return categoryRepository.findById(category.getId()).orElse(null);
+	}
+
+	private long countProducts() {
+		long count = productCount.get();
+		if (count < 0) {
+			count = productRepository.count();
+			productCount.set(count);
+		}
+		return count;
+	}
+
+	// Only the requested page is ranked and turned into products
+	private Page<Product> searchPage(CatalogSnapshot snapshot, String ch, IntPredicate filter, int pageNo,
+			int pageSize) {
+		ProductSearchIndex.Hits hits = productSearchIndex.search(ch, filter, offset(pageNo, pageSize), pageSize);
+		return new PageImpl<>(toProducts(snapshot, hits.ids()), PageRequest.of(pageNo, pageSize), hits.total());
+	}
+
+	private static int offset(int pageNo, int pageSize) {
+		return (int) Math.min((long) pageNo * pageSize, Integer.MAX_VALUE);
+	}
+
+	private List<Product> toProducts(CatalogSnapshot snapshot, int[] ids) {
+		List<Product> products = new ArrayList<>(ids.length);
+		for (int id : ids) {
+			Product product = snapshot.get(id);
+			if (product != null) {
+				products.add(product);
+			}
+		}
+		return products;
 	}
 
 }
\ No newline at end of file
@@ -0,0 +1,21 @@
+package com.ecom.service.impl;
+
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import com.ecom.service.SessionService;
+
+// Templates call it as ${@sessionService.removeSessionMessage()} after printing the message
+@Service("sessionService")
+public class SessionServiceImpl implements SessionService {
+
+    @Override
+    public void removeSessionMessage() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null) {
+            attributes.removeAttribute("succMsg", RequestAttributes.SCOPE_SESSION);
+            attributes.removeAttribute("errorMsg", RequestAttributes.SCOPE_SESSION);
+        }
+    }
+}
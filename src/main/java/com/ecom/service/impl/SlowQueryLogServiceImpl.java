@@ -0,0 +1,200 @@
+package com.ecom.service.impl;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.ecom.dto.SlowQuery;
+import com.ecom.service.SlowQueryLogService;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+
+// Statement timing for the data source proxy set up in SlowQueryLogConfig. Every
+// statement is timed, but only the ones over the threshold and a random sample of the
+// rest are kept, each in a fixed-size ring buffer that overwrites its oldest entry.
+// Bind values and the call site are only rendered for a kept statement, so the cost
+// on the normal path is a clock read and a random number.
+@Service
+public class SlowQueryLogServiceImpl implements SlowQueryLogService, QueryExecutionListener {
+
+	private static final int MAX_VALUE_LENGTH = 100;
+
+	private static final StackWalker STACK_WALKER = StackWalker.getInstance(StackWalker.Option.RETAIN_CLASS_REFERENCE);
+
+	private final boolean enabled;
+
+	private final long thresholdMillis;
+
+	private final double sampleRate;
+
+	private final RingBuffer slow;
+
+	private final RingBuffer sampled;
+
+	private final LongAdder statementCount = new LongAdder();
+
+	private final LongAdder slowCount = new LongAdder();
+
+	public SlowQueryLogServiceImpl(@Value("${ecom.slow-query.enabled:false}") boolean enabled,
+			@Value("${ecom.slow-query.threshold:250ms}") Duration threshold,
+			@Value("${ecom.slow-query.sample-rate:0.001}") double sampleRate,
+			@Value("${ecom.slow-query.capacity:200}") int capacity) {
+		this.enabled = enabled;
+		this.thresholdMillis = threshold.toMillis();
+		this.sampleRate = sampleRate;
+		this.slow = new RingBuffer(capacity);
+		this.sampled = new RingBuffer(capacity);
+	}
+
+	@Override
+	public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+	}
+
+	@Override
+	public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+		statementCount.increment();
+		long elapsed = execInfo.getElapsedTime();
+		if (elapsed >= thresholdMillis) {
+			slowCount.increment();
+			slow.add(entry(execInfo, queryInfoList, false));
+		} else if (sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate) {
+			sampled.add(entry(execInfo, queryInfoList, true));
+		}
+	}
+
+	@Override
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	@Override
+	public List<SlowQuery> getSlowQueries() {
+		List<SlowQuery> queries = slow.snapshot();
+		queries.sort(Comparator.comparingLong(SlowQuery::elapsedMillis).reversed());
+		return queries;
+	}
+
+	@Override
+	public List<SlowQuery> getSampledQueries() {
+		List<SlowQuery> queries = sampled.snapshot();
+		queries.sort(Comparator.comparing(SlowQuery::executedAt).reversed());
+		return queries;
+	}
+
+	@Override
+	public long getStatementCount() {
+		return statementCount.sum();
+	}
+
+	@Override
+	public long getSlowCount() {
+		return slowCount.sum();
+	}
+
+	@Override
+	public void clear() {
+		slow.clear();
+		sampled.clear();
+		statementCount.reset();
+		slowCount.reset();
+	}
+
+	private SlowQuery entry(ExecutionInfo execInfo, List<QueryInfo> queryInfoList, boolean sampledEntry) {
+		StringBuilder sql = new StringBuilder();
+		List<String> parameters = List.of();
+		for (QueryInfo query : queryInfoList) {
+			if (sql.length() > 0) {
+				sql.append(";\n");
+			}
+			sql.append(query.getQuery());
+			if (parameters.isEmpty() && !query.getParametersList().isEmpty()) {
+				parameters = parameters(query.getParametersList().get(0));
+			}
+		}
+		int batchSize = execInfo.isBatch() ? execInfo.getBatchSize() : 0;
+		return new SlowQuery(Instant.now(), execInfo.getElapsedTime(), sql.toString(), parameters, batchSize,
+				callSite(), Thread.currentThread().getName(), sampledEntry);
+	}
+
+	// Values in bind order; setNull carries the SQL type as its value, so it is shown as NULL
+	private static List<String> parameters(List<ParameterSetOperation> operations) {
+		List<ParameterSetOperation> ordered = new ArrayList<>(operations);
+		ordered.sort(Comparator.comparingInt(operation -> operation.getArgs()[0] instanceof Integer index ? index : 0));
+		List<String> values = new ArrayList<>(ordered.size());
+		for (ParameterSetOperation operation : ordered) {
+			Object[] args = operation.getArgs();
+			String value;
+			if (ParameterSetOperation.isSetNullParameterOperation(operation) || args.length < 2) {
+				value = "NULL";
+			} else {
+				value = String.valueOf(args[1]);
+				if (value.length() > MAX_VALUE_LENGTH) {
+					value = value.substring(0, MAX_VALUE_LENGTH) + "...";
+				}
+			}
+			values.add(value);
+		}
+		return values;
+	}
+
+	// The innermost application frame, skipping Spring's CGLIB proxies; repository interfaces are JDK proxies, so this lands on the
+	// service method (ProductServiceImpl.getAllActiveProducts) that issued the query
+	private static String callSite() {
+		return STACK_WALKER.walk(frames -> frames
+				.filter(frame -> {
+					String className = frame.getClassName();
+					return className.startsWith("com.ecom.") && !className.contains("$$")
+							&& frame.getDeclaringClass() != SlowQueryLogServiceImpl.class;
+				})
+				.findFirst()
+				.map(frame -> frame.getDeclaringClass().getSimpleName() + "." + frame.getMethodName() + ":"
+						+ frame.getLineNumber())
+				.orElse("-"));
+	}
+
+	private static final class RingBuffer {
+
+		private final AtomicReferenceArray<SlowQuery> slots;
+
+		private final AtomicLong cursor = new AtomicLong();
+
+		RingBuffer(int capacity) {
+			slots = new AtomicReferenceArray<>(Math.max(1, capacity));
+		}
+
+		void add(SlowQuery query) {
+			slots.set((int) (cursor.getAndIncrement() % slots.length()), query);
+		}
+
+		List<SlowQuery> snapshot() {
+			List<SlowQuery> queries = new ArrayList<>(slots.length());
+			for (int i = 0; i < slots.length(); i++) {
+				SlowQuery query = slots.get(i);
+				if (query != null) {
+					queries.add(query);
+				}
+			}
+			return queries;
+		}
+
+		void clear() {
+			for (int i = 0; i < slots.length(); i++) {
+				slots.set(i, null);
+			}
+		}
+
+	}
+
+}
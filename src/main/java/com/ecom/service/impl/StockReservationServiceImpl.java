@@ -0,0 +1,507 @@
+package com.ecom.service.impl;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.ecom.dto.StockReservation;
+import com.ecom.event.CatalogEvent;
+import com.ecom.event.CatalogEventBus;
+import com.ecom.model.Product;
+import com.ecom.repositories.ProductRepository;
+import com.ecom.service.StockReservationService;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
+
+// Sells stock from in-memory counters so hot products never wait on a row lock.
+// Each product has a counter that reservations take from; committed units are
+// written as "UPDATE ... SET stock = stock - ? WHERE stock >= ?", either in the
+// caller's transaction (commitInTransaction, used by checkout) or collected per
+// product and written by one batch every flush interval (commit).
+//
+// available = database stock - open reservations - committed but not yet flushed
+//
+// The three numbers of a counter only change together under its lock. Writes
+// to the database stock and resync's re-read of it are serialized by writeLock,
+// so resync never sees a decrement that is in the database but not yet accounted
+// for in the counter, or the other way round.
+//
+// Both paths evict the products they wrote from the L2 cache and publish
+// PRODUCT_STOCK_CHANGED. commitInTransaction publishes inside the caller's
+// transaction, so the catalog only sees the decrement if the order commits.
+//
+// Sales committed through commit() are only in memory until the next flush: a
+// crash in between loses them and the database keeps the higher stock.
+@Service
+public class StockReservationServiceImpl implements StockReservationService {
+
+	private static final Logger log = LoggerFactory.getLogger(StockReservationServiceImpl.class);
+
+	private static final String DECREMENT_SQL = "UPDATE product SET stock = stock - ? WHERE id = ? AND stock >= ?";
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private CatalogEventBus catalogEvents;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private final Duration reservationTtl;
+
+	private final Counter oversold;
+
+	private final ConcurrentHashMap<Integer, StockCounter> counters = new ConcurrentHashMap<>();
+
+	private final ConcurrentHashMap<String, StockReservation> reservations = new ConcurrentHashMap<>();
+
+	private final ReentrantLock writeLock = new ReentrantLock();
+
+	public StockReservationServiceImpl(@Value("${ecom.stock.reservation-ttl:10m}") Duration reservationTtl,
+			MeterRegistry registry) {
+		this.reservationTtl = reservationTtl;
+		this.oversold = Counter.builder("ecom.stock.oversold")
+				.description("Flushes that found less stock in the database than was sold")
+				.register(registry);
+	}
+
+	@Override
+	public StockReservation reserve(Integer productId, int quantity) {
+		if (quantity <= 0) {
+			throw new IllegalArgumentException("quantity must be positive");
+		}
+		StockCounter counter = counter(productId);
+		if (counter == null || !counter.reserve(quantity)) {
+			return null;
+		}
+
+		StockReservation reservation = new StockReservation(UUID.randomUUID().toString(), productId, quantity,
+				Instant.now().plus(reservationTtl));
+		reservations.put(reservation.id(), reservation);
+		return reservation;
+	}
+
+	@Override
+	public boolean commit(String reservationId) {
+		// remove() is the single point that decides whether commit, release or expiry wins
+		StockReservation reservation = reservations.remove(reservationId);
+		if (reservation == null) {
+			return false;
+		}
+		StockCounter counter = counters.get(reservation.productId());
+		if (counter == null) {
+			// Product was deleted while the reservation was open
+			return false;
+		}
+		counter.commit(reservation.quantity());
+		return true;
+	}
+
+	@Override
+	public boolean commitInTransaction(List<StockReservation> toCommit) {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			throw new IllegalStateException("commitInTransaction needs an active transaction");
+		}
+		List<StockReservation> claimed = new ArrayList<>(toCommit.size());
+		for (StockReservation reservation : toCommit) {
+			// Taken out of the open set so expiry and release cannot touch it while the transaction runs
+			if (!reservations.remove(reservation.id(), reservation)) {
+				reopen(claimed);
+				return false;
+			}
+			claimed.add(reservation);
+		}
+
+		// Released when the transaction completes, see the class comment
+		writeLock.lock();
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+			@Override
+			public void afterCompletion(int status) {
+				try {
+					// Either way the read below may have cached the row as this transaction saw it
+					evict(productIds(claimed));
+					if (status == STATUS_COMMITTED) {
+						settle(claimed);
+					} else {
+						reopen(claimed);
+					}
+				} finally {
+					writeLock.unlock();
+				}
+			}
+		});
+
+		int[] updated = jdbcTemplate.batchUpdate(DECREMENT_SQL, new BatchPreparedStatementSetter() {
+
+			@Override
+			public void setValues(PreparedStatement ps, int i) throws SQLException {
+				StockReservation reservation = claimed.get(i);
+				ps.setInt(1, reservation.quantity());
+				ps.setInt(2, reservation.productId());
+				ps.setInt(3, reservation.quantity());
+			}
+
+			@Override
+			public int getBatchSize() {
+				return claimed.size();
+			}
+		});
+		for (int i = 0; i < updated.length; i++) {
+			if (updated[i] == 0) {
+				oversold.increment();
+				throw new IllegalStateException("Product " + claimed.get(i).productId()
+						+ " has less stock in the database than was reserved");
+			}
+		}
+		// Goes to the outbox with the order, and to the catalog once it commits
+		publishStockChanged(productIds(claimed));
+		return true;
+	}
+
+	@Override
+	public boolean release(String reservationId) {
+		StockReservation reservation = reservations.remove(reservationId);
+		if (reservation == null) {
+			return false;
+		}
+		giveBack(reservation);
+		return true;
+	}
+
+	@Override
+	public int getAvailableStock(Integer productId) {
+		StockCounter counter = counter(productId);
+		return counter == null ? 0 : Math.max(counter.available(), 0);
+	}
+
+	@Scheduled(fixedDelayString = "${ecom.stock.reservation-sweep-ms:1000}")
+	public void expireReservations() {
+		Instant now = Instant.now();
+		for (StockReservation reservation : reservations.values()) {
+			if (reservation.expiresAt().isBefore(now) && reservations.remove(reservation.id(), reservation)) {
+				giveBack(reservation);
+			}
+		}
+	}
+
+	@Override
+	@Scheduled(fixedDelayString = "${ecom.stock.flush-interval-ms:500}")
+	public void flush() {
+		writeLock.lock();
+		try {
+			List<Integer> ids = new ArrayList<>();
+			List<Integer> quantities = new ArrayList<>();
+			for (Map.Entry<Integer, StockCounter> entry : counters.entrySet()) {
+				int sold = entry.getValue().drain();
+				if (sold > 0) {
+					ids.add(entry.getKey());
+					quantities.add(sold);
+				}
+			}
+			if (ids.isEmpty()) {
+				return;
+			}
+
+			int[] updated;
+			try {
+				updated = jdbcTemplate.batchUpdate(DECREMENT_SQL, new BatchPreparedStatementSetter() {
+
+					@Override
+					public void setValues(PreparedStatement ps, int i) throws SQLException {
+						ps.setInt(1, quantities.get(i));
+						ps.setInt(2, ids.get(i));
+						ps.setInt(3, quantities.get(i));
+					}
+
+					@Override
+					public int getBatchSize() {
+						return ids.size();
+					}
+				});
+			} catch (RuntimeException e) {
+				// Keep the sales for the next attempt
+				for (int i = 0; i < ids.size(); i++) {
+					StockCounter counter = counters.get(ids.get(i));
+					if (counter != null) {
+						counter.undrain(quantities.get(i));
+					}
+				}
+				throw e;
+			}
+
+			List<Integer> written = new ArrayList<>(ids.size());
+			for (int i = 0; i < ids.size(); i++) {
+				if (updated[i] != 0) {
+					written.add(ids.get(i));
+					continue;
+				}
+				// The row has less stock than we sold, e.g. after a manual edit. Nothing is
+				// written: the sale stays pending, and resync leaves the counter negative so
+				// nothing more is sold until someone corrects the stock.
+				StockCounter counter = counters.get(ids.get(i));
+				if (counter != null) {
+					counter.undrain(quantities.get(i));
+					if (counter.markOversold()) {
+						oversold.increment();
+						log.error("Oversold product {}: {} unit(s) sold but not in the database stock; "
+								+ "they are written once the stock is corrected", ids.get(i), quantities.get(i));
+					}
+				}
+				resync(ids.get(i));
+			}
+			if (written.isEmpty()) {
+				return;
+			}
+
+			publishStockChanged(written);
+		} finally {
+			writeLock.unlock();
+		}
+	}
+
+	@Override
+	public void resync(Integer productId) {
+		StockCounter counter = counters.get(productId);
+		if (counter == null) {
+			return;
+		}
+		writeLock.lock();
+		try {
+			Integer stock = productRepository.findStockById(productId).orElse(null);
+			if (stock == null) {
+				counters.remove(productId);
+				return;
+			}
+			counter.resync(stock);
+		} finally {
+			writeLock.unlock();
+		}
+	}
+
+	@Override
+	public void resyncAll() {
+		for (Integer productId : counters.keySet()) {
+			resync(productId);
+		}
+	}
+
+	@Override
+	public void forget(Integer productId) {
+		counters.remove(productId);
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		flush();
+	}
+
+	private StockCounter counter(Integer productId) {
+		StockCounter counter = counters.get(productId);
+		if (counter != null) {
+			return counter;
+		}
+		// Loaded outside computeIfAbsent so the query does not block other products
+		Integer stock = productRepository.findStockById(productId).orElse(null);
+		if (stock == null) {
+			return null;
+		}
+		return counters.computeIfAbsent(productId, id -> new StockCounter(stock));
+	}
+
+	// Keeps the storefront's in-stock flags and facet counts, and the admin's edit
+	// form, current after a decrement
+	private void publishStockChanged(List<Integer> productIds) {
+		evict(productIds);
+		List<CatalogEvent> events = new ArrayList<>(productIds.size());
+		for (Product product : productRepository.findAllById(productIds)) {
+			events.add(CatalogEvent.product(CatalogEvent.Type.PRODUCT_STOCK_CHANGED, product));
+		}
+		catalogEvents.publishAll(events);
+	}
+
+	private void evict(List<Integer> productIds) {
+		Cache entityCache = entityManagerFactory.getCache();
+		for (Integer id : productIds) {
+			entityCache.evict(Product.class, id);
+		}
+	}
+
+	private static List<Integer> productIds(List<StockReservation> reservations) {
+		List<Integer> ids = new ArrayList<>(reservations.size());
+		for (StockReservation reservation : reservations) {
+			if (!ids.contains(reservation.productId())) {
+				ids.add(reservation.productId());
+			}
+		}
+		return ids;
+	}
+
+	private void giveBack(StockReservation reservation) {
+		StockCounter counter = counters.get(reservation.productId());
+		if (counter != null) {
+			counter.release(reservation.quantity());
+		}
+	}
+
+	// The units are in the database now, so they stop counting as reserved
+	private void settle(List<StockReservation> claimed) {
+		for (StockReservation reservation : claimed) {
+			StockCounter counter = counters.get(reservation.productId());
+			if (counter != null) {
+				counter.settle(reservation.quantity());
+			}
+		}
+	}
+
+	// Rolled back: the reservations are open again and can still be committed, released or expire
+	private void reopen(List<StockReservation> claimed) {
+		for (StockReservation reservation : claimed) {
+			reservations.put(reservation.id(), reservation);
+		}
+	}
+
+	// Guarded by a ReentrantLock rather than synchronized: reserve, commit and release
+	// run on request threads, which may be virtual, and must not pin their carrier.
+	private static final class StockCounter {
+
+		private final ReentrantLock lock = new ReentrantLock();
+
+		// Negative when the database has less than is reserved and sold
+		private int available;
+
+		private int reserved;
+
+		private int unflushed;
+
+		private boolean oversold;
+
+		StockCounter(int stock) {
+			this.available = Math.max(stock, 0);
+		}
+
+		int available() {
+			lock.lock();
+			try {
+				return available;
+			} finally {
+				lock.unlock();
+			}
+		}
+
+		boolean reserve(int quantity) {
+			lock.lock();
+			try {
+				if (available < quantity) {
+					return false;
+				}
+				available -= quantity;
+				reserved += quantity;
+				return true;
+			} finally {
+				lock.unlock();
+			}
+		}
+
+		void commit(int quantity) {
+			lock.lock();
+			try {
+				reserved -= quantity;
+				unflushed += quantity;
+			} finally {
+				lock.unlock();
+			}
+		}
+
+		void settle(int quantity) {
+			lock.lock();
+			try {
+				reserved -= quantity;
+			} finally {
+				lock.unlock();
+			}
+		}
+
+		void release(int quantity) {
+			lock.lock();
+			try {
+				reserved -= quantity;
+				available += quantity;
+			} finally {
+				lock.unlock();
+			}
+		}
+
+		int drain() {
+			lock.lock();
+			try {
+				int sold = unflushed;
+				unflushed = 0;
+				return sold;
+			} finally {
+				lock.unlock();
+			}
+		}
+
+		void undrain(int quantity) {
+			lock.lock();
+			try {
+				unflushed += quantity;
+			} finally {
+				lock.unlock();
+			}
+		}
+
+		// True only the first time, so an oversold product is reported once and not on every flush
+		boolean markOversold() {
+			lock.lock();
+			try {
+				boolean first = !oversold;
+				oversold = true;
+				return first;
+			} finally {
+				lock.unlock();
+			}
+		}
+
+		void resync(int stock) {
+			lock.lock();
+			try {
+				available = stock - reserved - unflushed;
+				if (available >= 0) {
+					oversold = false;
+				}
+			} finally {
+				lock.unlock();
+			}
+		}
+
+	}
+
+}
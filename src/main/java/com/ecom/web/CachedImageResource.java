@@ -0,0 +1,52 @@
+package com.ecom.web;
+
+import org.springframework.core.io.ByteArrayResource;
+
+// An upload held in memory together with the validators the handler needs.
+class CachedImageResource extends ByteArrayResource {
+
+	private final String filename;
+
+	private final long lastModified;
+
+	private final String etag;
+
+	private final long loadedAt;
+
+	CachedImageResource(byte[] content, String filename, long lastModified, String etag, long loadedAt) {
+		super(content, filename);
+		this.filename = filename;
+		this.lastModified = lastModified;
+		this.etag = etag;
+		this.loadedAt = loadedAt;
+	}
+
+	@Override
+	public String getFilename() {
+		return filename;
+	}
+
+	@Override
+	public long lastModified() {
+		return lastModified;
+	}
+
+	String getEtag() {
+		return etag;
+	}
+
+	long getLoadedAt() {
+		return loadedAt;
+	}
+
+	@Override
+	public boolean equals(Object other) {
+		return this == other;
+	}
+
+	@Override
+	public int hashCode() {
+		return System.identityHashCode(this);
+	}
+
+}
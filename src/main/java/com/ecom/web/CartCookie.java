@@ -0,0 +1,94 @@
+package com.ecom.web;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.UUID;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.stereotype.Component;
+
+import jakarta.servlet.http.HttpServletResponse;
+
+// Carts are keyed by this cookie rather than the HTTP session, so they survive
+// session expiry and restarts, and browsing does not have to create a session.
+//
+// The value is "<cart id>.<HMAC-SHA256 of the id>". Only ids carrying our signature
+// are used as keys, so a client cannot make the cart store load or keep a cart for
+// an id we did not issue; checking it costs no lookup.
+@Component
+public class CartCookie {
+
+	public static final String NAME = "cartId";
+
+	private static final String ALGORITHM = "HmacSHA256";
+
+	private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+	private final SecretKeySpec key;
+
+	private final Duration maxAge;
+
+	// Mac instances are not thread-safe
+	private final ThreadLocal<Mac> macs;
+
+	public CartCookie(@Value("${ecom.cart.cookie-secret}") String secret,
+			@Value("${ecom.cart.cookie-max-age:30d}") Duration maxAge) {
+		if (secret == null || secret.length() < 32) {
+			throw new IllegalArgumentException("ecom.cart.cookie-secret must be at least 32 characters");
+		}
+		this.key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), ALGORITHM);
+		this.maxAge = maxAge;
+		this.macs = ThreadLocal.withInitial(this::newMac);
+	}
+
+	// The cart id of a cookie value we signed, or null
+	public String cartId(String cookieValue) {
+		if (cookieValue == null) {
+			return null;
+		}
+		int dot = cookieValue.indexOf('.');
+		if (dot != 36) {
+			return null;
+		}
+		String cartId = cookieValue.substring(0, dot);
+		byte[] expected = sign(cartId).getBytes(StandardCharsets.US_ASCII);
+		byte[] actual = cookieValue.substring(dot + 1).getBytes(StandardCharsets.US_ASCII);
+		return MessageDigest.isEqual(expected, actual) ? cartId : null;
+	}
+
+	// Starts a new cart: sets its cookie on the response and returns its id
+	public String issue(HttpServletResponse response) {
+		String cartId = UUID.randomUUID().toString();
+		ResponseCookie cookie = ResponseCookie.from(NAME, cartId + "." + sign(cartId))
+				.path("/")
+				.maxAge(maxAge)
+				.httpOnly(true)
+				.sameSite("Lax")
+				.build();
+		response.addHeader(HttpHeaders.SET_COOKIE, cookie.toString());
+		return cartId;
+	}
+
+	private String sign(String cartId) {
+		return ENCODER.encodeToString(macs.get().doFinal(cartId.getBytes(StandardCharsets.UTF_8)));
+	}
+
+	private Mac newMac() {
+		try {
+			Mac mac = Mac.getInstance(ALGORITHM);
+			mac.init(key);
+			return mac;
+		} catch (GeneralSecurityException e) {
+			throw new IllegalStateException(ALGORITHM + " is not available", e);
+		}
+	}
+
+}
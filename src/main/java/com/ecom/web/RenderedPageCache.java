@@ -0,0 +1,75 @@
+package com.ecom.web;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Rendered HTML pages in memory, LRU and bounded by total bytes. Each page remembers
+// the catalog version it was rendered at; a lookup at any other version drops it.
+public class RenderedPageCache {
+
+	record Page(byte[] body, String contentType, long version) {
+	}
+
+	private final long maxBytes;
+
+	private final long maxEntryBytes;
+
+	private final ReentrantLock lock = new ReentrantLock();
+
+	private final LinkedHashMap<String, Page> entries = new LinkedHashMap<>(256, 0.75f, true);
+
+	private long totalBytes;
+
+	public RenderedPageCache(long maxBytes, long maxEntryBytes) {
+		this.maxBytes = maxBytes;
+		this.maxEntryBytes = maxEntryBytes;
+	}
+
+	Page get(String key, long version) {
+		lock.lock();
+		try {
+			Page page = entries.get(key);
+			if (page != null && page.version() != version) {
+				entries.remove(key);
+				totalBytes -= page.body().length;
+				return null;
+			}
+			return page;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	void put(String key, Page page) {
+		if (page.body().length > maxEntryBytes) {
+			return;
+		}
+		lock.lock();
+		try {
+			Page previous = entries.put(key, page);
+			if (previous != null) {
+				totalBytes -= previous.body().length;
+			}
+			totalBytes += page.body().length;
+
+			Iterator<Page> eldest = entries.values().iterator();
+			while (totalBytes > maxBytes && eldest.hasNext()) {
+				totalBytes -= eldest.next().body().length;
+				eldest.remove();
+			}
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public long totalBytes() {
+		lock.lock();
+		try {
+			return totalBytes;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+}
@@ -0,0 +1,150 @@
+package com.ecom.web;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpSession;
+
+// Serves the listing pages (storefront, product grid, admin product grid) from
+// RenderedPageCache, so a page is rendered and queried once per catalog version
+// instead of on every request.
+//
+// Each path names the version its page depends on. The storefront pages only show
+// whether a product is in stock and use the content version, which stock flushes
+// leave alone; the admin grid prints stock counts and uses the full version.
+//
+// The ETag is that version, so a revalidation is answered with a 304 before the
+// controller, the database or Thymeleaf are touched. Pages are cached whole; the
+// only per-user content on them is the session flash message, and requests that
+// carry one bypass the cache in both directions.
+public class RenderedPageCacheFilter extends OncePerRequestFilter {
+
+	// Parameters that select what a listing shows; anything else does not change the page
+	private static final List<String> KEY_PARAMETERS = List.of("category", "ch", "cursor", "pageNo", "pageSize");
+
+	private static final List<String> FLASH_ATTRIBUTES = List.of("succMsg", "errorMsg", "successMsg");
+
+	private final RenderedPageCache cache;
+
+	// Cached paths and the catalog version each one is rendered from
+	private final Map<String, LongSupplier> versions;
+
+	// Tells a version apart from the same number in an earlier run of the application
+	private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+
+	private final Counter hits;
+
+	private final Counter misses;
+
+	private final Counter notModified;
+
+	public RenderedPageCacheFilter(RenderedPageCache cache, Map<String, LongSupplier> versions,
+			MeterRegistry registry) {
+		this.cache = cache;
+		this.versions = versions;
+		this.hits = counter(registry, "hit");
+		this.misses = counter(registry, "miss");
+		this.notModified = counter(registry, "not_modified");
+		Gauge.builder("ecom.page.cache.size", cache, RenderedPageCache::totalBytes)
+				.description("Bytes of rendered HTML held by the page cache")
+				.baseUnit("bytes")
+				.register(registry);
+	}
+
+	@Override
+	protected boolean shouldNotFilter(HttpServletRequest request) {
+		return !"GET".equals(request.getMethod()) || !versions.containsKey(request.getServletPath())
+				|| hasFlashMessage(request);
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+			throws ServletException, IOException {
+		// Read before rendering: a write during rendering moves the version on, so a page
+		// that might contain it is filed under the old version and never served again
+		long version = versions.get(request.getServletPath()).getAsLong();
+		String etag = "\"" + epoch + "-" + version + "\"";
+
+		if (etag.equals(request.getHeader(HttpHeaders.IF_NONE_MATCH))) {
+			notModified.increment();
+			response.setHeader(HttpHeaders.ETAG, etag);
+			response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+			return;
+		}
+
+		String key = key(request);
+		RenderedPageCache.Page page = cache.get(key, version);
+		if (page != null) {
+			hits.increment();
+			writeHeaders(response, etag);
+			response.setContentType(page.contentType());
+			response.setContentLength(page.body().length);
+			response.getOutputStream().write(page.body());
+			return;
+		}
+
+		misses.increment();
+		ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+		filterChain.doFilter(request, wrapper);
+
+		String contentType = wrapper.getContentType();
+		if (wrapper.getStatus() == HttpServletResponse.SC_OK && contentType != null
+				&& contentType.startsWith(MediaType.TEXT_HTML_VALUE) && !hasFlashMessage(request)) {
+			cache.put(key, new RenderedPageCache.Page(wrapper.getContentAsByteArray(), contentType, version));
+			writeHeaders(wrapper, etag);
+		}
+		wrapper.copyBodyToResponse();
+	}
+
+	private static void writeHeaders(HttpServletResponse response, String etag) {
+		response.setHeader(HttpHeaders.ETAG, etag);
+		// Listings change with the catalog; browsers keep the copy but ask every time
+		response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+	}
+
+	private static String key(HttpServletRequest request) {
+		StringBuilder key = new StringBuilder(request.getServletPath());
+		for (String name : KEY_PARAMETERS) {
+			String value = request.getParameter(name);
+			if (value != null && !value.isEmpty()) {
+				key.append('|').append(name).append('=').append(value);
+			}
+		}
+		return key.toString();
+	}
+
+	private static boolean hasFlashMessage(HttpServletRequest request) {
+		HttpSession session = request.getSession(false);
+		if (session == null) {
+			return false;
+		}
+		for (String name : FLASH_ATTRIBUTES) {
+			if (session.getAttribute(name) != null) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static Counter counter(MeterRegistry registry, String result) {
+		return Counter.builder("ecom.page.cache.requests")
+				.description("Listing page requests by page cache outcome")
+				.tag("result", result)
+				.register(registry);
+	}
+
+}
@@ -0,0 +1,53 @@
+package com.ecom.web;
+
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+// Records how many SQL statements each request issued, per URI template, as the
+// ecom.http.sql.statements histogram. A max far above the median for one endpoint
+// is the signature of an N+1 or of the same row being loaded twice.
+public class SqlMetricsFilter extends OncePerRequestFilter {
+
+	private final MeterRegistry registry;
+
+	// One summary per URI template, built once so the hot path only looks it up
+	private final ConcurrentHashMap<String, DistributionSummary> summaries = new ConcurrentHashMap<>();
+
+	public SqlMetricsFilter(MeterRegistry registry) {
+		this.registry = registry;
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+			throws ServletException, IOException {
+		SqlStatementCounter.start();
+		try {
+			filterChain.doFilter(request, response);
+		} finally {
+			int statements = SqlStatementCounter.stop();
+			Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+			String uri = pattern instanceof String ? (String) pattern : "UNKNOWN";
+			summaries.computeIfAbsent(uri, this::summary).record(statements);
+		}
+	}
+
+	private DistributionSummary summary(String uri) {
+		return DistributionSummary.builder("ecom.http.sql.statements")
+				.description("SQL statements issued by Hibernate per request")
+				.tag("uri", uri)
+				.publishPercentileHistogram()
+				.maximumExpectedValue(1000.0)
+				.register(registry);
+	}
+
+}
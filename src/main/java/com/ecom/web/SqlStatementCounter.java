@@ -0,0 +1,31 @@
+package com.ecom.web;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+// Counts the SQL statements Hibernate prepares on the current request thread.
+// SqlMetricsFilter opens and closes the count; statements run outside a request
+// (scheduled jobs, the import worker) are not counted.
+public class SqlStatementCounter implements StatementInspector {
+
+	private static final ThreadLocal<int[]> COUNT = new ThreadLocal<>();
+
+	static void start() {
+		COUNT.set(new int[1]);
+	}
+
+	static int stop() {
+		int[] count = COUNT.get();
+		COUNT.remove();
+		return count == null ? 0 : count[0];
+	}
+
+	@Override
+	public String inspect(String sql) {
+		int[] count = COUNT.get();
+		if (count != null) {
+			count[0]++;
+		}
+		return sql;
+	}
+
+}
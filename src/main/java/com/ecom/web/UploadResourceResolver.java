@@ -0,0 +1,180 @@
+package com.ecom.web;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.springframework.core.io.Resource;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.servlet.resource.ResourceResolver;
+import org.springframework.web.servlet.resource.ResourceResolverChain;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+// Keeps the hottest small images in memory (LRU, bounded by total bytes) and
+// supplies strong, content-derived ETags for everything served under /uploads.
+public class UploadResourceResolver implements ResourceResolver {
+
+	// <sha256>.ext and its _thumb/_list variants, as written by the upload store
+	static final Pattern FINGERPRINTED = Pattern.compile("^([0-9a-f]{64})(_thumb|_list)?\\.[a-z0-9]+$");
+
+	private static final int MAX_ETAG_MEMO = 10_000;
+
+	private final long maxBytes;
+
+	private final long maxEntryBytes;
+
+	private final long ttlMillis;
+
+	private final ReentrantLock lock = new ReentrantLock();
+
+	private final LinkedHashMap<String, CachedImageResource> entries = new LinkedHashMap<>(256, 0.75f, true);
+
+	private long totalBytes;
+
+	// ETags of files too large to cache, keyed by name, size and modification time.
+	private final Map<String, String> etagMemo = new ConcurrentHashMap<>();
+
+	public UploadResourceResolver(long maxBytes, long maxEntryBytes, long ttlMillis) {
+		this.maxBytes = maxBytes;
+		this.maxEntryBytes = maxEntryBytes;
+		this.ttlMillis = ttlMillis;
+	}
+
+	public static boolean isFingerprinted(String filename) {
+		return filename != null && FINGERPRINTED.matcher(filename).matches();
+	}
+
+	@Override
+	public Resource resolveResource(HttpServletRequest request, String requestPath,
+			List<? extends Resource> locations, ResourceResolverChain chain) {
+		long now = System.currentTimeMillis();
+		CachedImageResource cached = get(requestPath, now);
+		if (cached != null) {
+			return cached;
+		}
+
+		Resource resource = chain.resolveResource(request, requestPath, locations);
+		if (resource == null) {
+			return null;
+		}
+		try {
+			long length = resource.contentLength();
+			if (length > maxEntryBytes) {
+				return resource;
+			}
+			byte[] content;
+			try (InputStream in = resource.getInputStream()) {
+				content = StreamUtils.copyToByteArray(in);
+			}
+			String etag = etagFromName(resource.getFilename());
+			if (etag == null) {
+				etag = HexFormat.of().formatHex(sha256().digest(content));
+			}
+			cached = new CachedImageResource(content, resource.getFilename(), resource.lastModified(), etag, now);
+			put(requestPath, cached);
+			return cached;
+		} catch (IOException e) {
+			return resource;
+		}
+	}
+
+	@Override
+	public String resolveUrlPath(String resourcePath, List<? extends Resource> locations, ResourceResolverChain chain) {
+		return chain.resolveUrlPath(resourcePath, locations);
+	}
+
+	public String etag(Resource resource) {
+		if (resource instanceof CachedImageResource cached) {
+			return cached.getEtag();
+		}
+		String etag = etagFromName(resource.getFilename());
+		if (etag != null) {
+			return etag;
+		}
+		try {
+			String key = resource.getFilename() + '|' + resource.contentLength() + '|' + resource.lastModified();
+			etag = etagMemo.get(key);
+			if (etag == null) {
+				MessageDigest digest = sha256();
+				try (InputStream in = new DigestInputStream(resource.getInputStream(), digest)) {
+					StreamUtils.drain(in);
+				}
+				etag = HexFormat.of().formatHex(digest.digest());
+				if (etagMemo.size() >= MAX_ETAG_MEMO) {
+					etagMemo.clear();
+				}
+				etagMemo.put(key, etag);
+			}
+			return etag;
+		} catch (IOException e) {
+			return null;
+		}
+	}
+
+	private CachedImageResource get(String key, long now) {
+		lock.lock();
+		try {
+			CachedImageResource cached = entries.get(key);
+			if (cached != null && now - cached.getLoadedAt() > ttlMillis) {
+				entries.remove(key);
+				totalBytes -= cached.contentLength();
+				return null;
+			}
+			return cached;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private void put(String key, CachedImageResource resource) {
+		lock.lock();
+		try {
+			CachedImageResource previous = entries.put(key, resource);
+			if (previous != null) {
+				totalBytes -= previous.contentLength();
+			}
+			totalBytes += resource.contentLength();
+
+			Iterator<CachedImageResource> eldest = entries.values().iterator();
+			while (totalBytes > maxBytes && eldest.hasNext()) {
+				totalBytes -= eldest.next().contentLength();
+				eldest.remove();
+			}
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	// A content-addressed name already is the content hash (variants add a suffix).
+	private static String etagFromName(String filename) {
+		if (filename == null) {
+			return null;
+		}
+		Matcher matcher = FINGERPRINTED.matcher(filename);
+		if (!matcher.matches()) {
+			return null;
+		}
+		return matcher.group(2) == null ? matcher.group(1) : matcher.group(1) + matcher.group(2);
+	}
+
+	private static MessageDigest sha256() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+}
@@ -0,0 +1,38 @@
+// Typeahead for search boxes marked with data-suggest: fills a datalist from
+// /api/suggest as the user types. Requests are debounced, and an answer that
+// arrives after a newer keystroke is dropped.
+document.querySelectorAll('input[data-suggest]').forEach(input => {
+    const list = document.createElement('datalist');
+    list.id = input.name + '-suggestions';
+    input.setAttribute('list', list.id);
+    input.setAttribute('autocomplete', 'off');
+    input.after(list);
+
+    let timer;
+    let latest = 0;
+    input.addEventListener('input', () => {
+        clearTimeout(timer);
+        const q = input.value.trim();
+        if (q.length === 0) {
+            list.replaceChildren();
+            return;
+        }
+        timer = setTimeout(() => {
+            const request = ++latest;
+            fetch('/api/suggest?q=' + encodeURIComponent(q))
+                .then(response => response.json())
+                .then(suggestions => {
+                    if (request !== latest) {
+                        return;
+                    }
+                    list.replaceChildren(...suggestions.map(s => {
+                        const option = document.createElement('option');
+                        option.value = s.text;
+                        option.label = s.type === 'category' ? 'Category · ' + s.count : s.count + ' products';
+                        return option;
+                    }));
+                })
+                .catch(() => list.replaceChildren());
+        }, 80);
+    });
+});
@@ -0,0 +1,165 @@
+package com.ecom.catalog;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+
+import com.ecom.dto.CursorPage;
+import com.ecom.model.Category;
+import com.ecom.model.Product;
+
+class CatalogSnapshotTest {
+
+	private static final Category LAMPS = new Category(1, "Lamps", null, null, true);
+
+	private static final Category CHAIRS = new Category(2, "Chairs", null, null, true);
+
+	@Test
+	void categoryListingsOnlyHoldActiveProducts() {
+		CatalogSnapshot snapshot = CatalogSnapshot.of(List.of(product(1, LAMPS, true), product(2, LAMPS, false),
+				product(3, LAMPS, true), product(4, CHAIRS, false)));
+
+		assertThat(ids(snapshot.activeByCategory(1))).containsExactly(1, 3);
+		assertThat(snapshot.activeByCategory(2)).isEmpty();
+		assertThat(ids(snapshot.byCategory(1))).containsExactly(1, 2, 3);
+		assertThat(snapshot.activeCounts()).containsEntry(1, 2).doesNotContainKey(2);
+	}
+
+	@Test
+	void deactivatingAProductRemovesItFromItsCategoryListing() {
+		CatalogSnapshot snapshot = CatalogSnapshot.of(List.of(product(1, LAMPS, true), product(2, LAMPS, true)));
+
+		CatalogSnapshot updated = snapshot.with(product(2, LAMPS, false));
+
+		assertThat(ids(updated.activeByCategory(1))).containsExactly(1);
+		assertThat(ids(updated.byCategory(1))).containsExactly(1, 2);
+		assertThat(updated.activeCounts()).containsEntry(1, 1);
+		// The previous snapshot is untouched
+		assertThat(ids(snapshot.activeByCategory(1))).containsExactly(1, 2);
+	}
+
+	@Test
+	void movingAnActiveProductMovesItBetweenCategoryListings() {
+		CatalogSnapshot snapshot = CatalogSnapshot.of(List.of(product(1, LAMPS, true), product(2, LAMPS, true)));
+
+		CatalogSnapshot updated = snapshot.with(product(2, CHAIRS, true));
+
+		assertThat(ids(updated.activeByCategory(1))).containsExactly(1);
+		assertThat(ids(updated.activeByCategory(2))).containsExactly(2);
+	}
+
+	@Test
+	void removingAProductRemovesItFromItsCategoryListing() {
+		CatalogSnapshot snapshot = CatalogSnapshot.of(List.of(product(1, LAMPS, true), product(2, LAMPS, true)));
+
+		CatalogSnapshot updated = snapshot.without(1);
+
+		assertThat(ids(updated.activeByCategory(1))).containsExactly(2);
+		assertThat(updated.activeCounts()).containsEntry(1, 1);
+	}
+
+	@Test
+	void buildsItsColumnsOnceOnFirstUse() {
+		CatalogSnapshot snapshot = CatalogSnapshot.of(List.of(product(1, LAMPS, true), product(2, CHAIRS, true)));
+
+		CatalogSnapshot updated = snapshot.with(product(2, CHAIRS, true).toBuilder().stock(5).build());
+
+		assertThat(updated.columns()).isSameAs(updated.columns());
+		assertThat(updated.columns().source).isSameAs(updated);
+		assertThat(updated.columns().ids).containsExactly(1, 2);
+		assertThat(updated.columns().stocks).containsExactly(0, 5);
+		assertThat(snapshot.columns().stocks).containsExactly(0, 0);
+	}
+
+	@Test
+	void appliesABatchLikeARebuild() {
+		CatalogSnapshot snapshot = CatalogSnapshot.of(List.of(product(1, LAMPS, true), product(2, LAMPS, true),
+				product(3, CHAIRS, true), product(4, CHAIRS, false)));
+
+		CatalogSnapshot updated = snapshot.withAll(List.of(product(6, CHAIRS, true), product(2, CHAIRS, true),
+				product(3, CHAIRS, false), product(5, LAMPS, true), product(6, LAMPS, true)));
+
+		CatalogSnapshot rebuilt = CatalogSnapshot.of(List.of(product(1, LAMPS, true), product(2, CHAIRS, true),
+				product(3, CHAIRS, false), product(4, CHAIRS, false), product(5, LAMPS, true),
+				product(6, LAMPS, true)));
+		assertThat(ids(updated.all())).isEqualTo(ids(rebuilt.all()));
+		assertThat(ids(updated.active())).isEqualTo(ids(rebuilt.active()));
+		for (Integer category : List.of(1, 2)) {
+			assertThat(ids(updated.byCategory(category))).isEqualTo(ids(rebuilt.byCategory(category)));
+			assertThat(ids(updated.activeByCategory(category))).isEqualTo(ids(rebuilt.activeByCategory(category)));
+			assertThat(updated.activeCounts().get(category)).isEqualTo(rebuilt.activeCounts().get(category));
+		}
+		assertThat(updated.get(6).getCategory()).isEqualTo(LAMPS);
+		assertThat(snapshot.size()).isEqualTo(4);
+	}
+
+	@Test
+	void pagesByPageNumber() {
+		List<Product> products = CatalogSnapshot.of(List.of(product(1, LAMPS, true), product(2, LAMPS, true),
+				product(3, LAMPS, true), product(4, LAMPS, true), product(5, LAMPS, true))).active();
+
+		Page<Product> second = CatalogSnapshot.page(products, 1, 2);
+		Page<Product> beyond = CatalogSnapshot.page(products, 9, 2);
+
+		assertThat(ids(second.getContent())).containsExactly(3, 4);
+		assertThat(second.getTotalElements()).isEqualTo(5);
+		assertThat(second.getTotalPages()).isEqualTo(3);
+		assertThat(beyond.getContent()).isEmpty();
+	}
+
+	@Test
+	void walksEveryProductOnceWithKeysetCursors() {
+		List<Product> all = new ArrayList<>();
+		for (int id = 1; id <= 7; id++) {
+			all.add(product(id * 10, LAMPS, true));
+		}
+		List<Product> products = CatalogSnapshot.of(all).active();
+
+		List<Integer> seen = new ArrayList<>();
+		String cursor = null;
+		CursorPage<Product> page;
+		do {
+			page = CatalogSnapshot.pageAfter(products, cursor, 3);
+			seen.addAll(ids(page.getContent()));
+			cursor = page.getNextCursor();
+		} while (!page.isLast());
+
+		assertThat(seen).containsExactly(10, 20, 30, 40, 50, 60, 70);
+		assertThat(page.getNextCursor()).isNull();
+		assertThat(page.getTotalElements()).isEqualTo(7);
+	}
+
+	@Test
+	void continuesAfterTheCursorProductWasDeleted() {
+		CatalogSnapshot snapshot = CatalogSnapshot.of(List.of(product(1, LAMPS, true), product(2, LAMPS, true),
+				product(3, LAMPS, true), product(4, LAMPS, true)));
+		String cursor = CatalogSnapshot.pageAfter(snapshot.active(), null, 2).getNextCursor();
+
+		CursorPage<Product> next = CatalogSnapshot.pageAfter(snapshot.without(2).active(), cursor, 2);
+
+		assertThat(ids(next.getContent())).containsExactly(3, 4);
+		assertThat(next.isLast()).isTrue();
+	}
+
+	@Test
+	void startsFromTheBeginningOnAMalformedCursor() {
+		List<Product> products = CatalogSnapshot.of(List.of(product(1, LAMPS, true), product(2, LAMPS, true)))
+				.active();
+
+		assertThat(ids(CatalogSnapshot.pageAfter(products, "not a cursor!", 1).getContent())).containsExactly(1);
+		assertThat(CursorPage.decode(CursorPage.encode(42))).isEqualTo(42);
+	}
+
+	static Product product(int id, Category category, boolean active) {
+		return Product.builder().id(id).title("Product " + id).category(category).isActive(active).build();
+	}
+
+	static List<Integer> ids(List<Product> products) {
+		return products.stream().map(Product::getId).toList();
+	}
+
+}
@@ -0,0 +1,99 @@
+package com.ecom.catalog;
+
+import static com.ecom.catalog.CatalogSnapshotTest.product;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.groups.Tuple.tuple;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.ecom.dto.BrowseQuery;
+import com.ecom.dto.BrowseResult;
+import com.ecom.dto.FacetCount;
+import com.ecom.dto.ProductSummary;
+import com.ecom.model.Category;
+import com.ecom.model.Product;
+import com.ecom.repositories.ProductRepository;
+
+class FacetedBrowserTest {
+
+	private static final Category LAMPS = new Category(1, "Lamps", null, null, true);
+
+	private static final Category CHAIRS = new Category(2, "Chairs", null, null, true);
+
+	private FacetedBrowser browser;
+
+	@BeforeEach
+	void setUp() {
+		List<Product> products = new ArrayList<>();
+		products.add(priced(1, LAMPS, "400.00", 0, 5));
+		products.add(priced(2, LAMPS, "800.00", 20, 0));
+		products.add(priced(3, CHAIRS, "3000.00", 0, 2));
+		products.add(priced(4, CHAIRS, "700.00", 5, 1));
+		Product inactive = priced(5, LAMPS, "400.00", 0, 5);
+		inactive.setIsActive(false);
+		products.add(inactive);
+
+		ProductRepository productRepository = mock(ProductRepository.class);
+		when(productRepository.findAllForCatalog()).thenReturn(products);
+		ProductCatalog productCatalog = new ProductCatalog();
+		ReflectionTestUtils.setField(productCatalog, "productRepository", productRepository);
+		browser = new FacetedBrowser();
+		ReflectionTestUtils.setField(browser, "productCatalog", productCatalog);
+	}
+
+	@Test
+	void listsActiveProductsWithFacetCounts() {
+		BrowseResult result = browser.browse(new BrowseQuery(null, null, null, null, 0, 10));
+
+		assertThat(result.products()).extracting(ProductSummary::id).containsExactly(1, 2, 3, 4);
+		assertThat(result.totalElements()).isEqualTo(4);
+		assertThat(result.categories()).extracting(FacetCount::key, FacetCount::count)
+				.containsExactlyInAnyOrder(tuple(1, 2L), tuple(2, 2L));
+		assertThat(counts(result.stock())).containsExactly(3L, 1L);
+		// Under 500, 500 - 999, 1,000 - 4,999
+		assertThat(counts(result.priceBands())).containsExactly(1L, 2L, 1L, 0L, 0L);
+	}
+
+	@Test
+	void countsEachFacetWithEveryOtherFilterApplied() {
+		BrowseResult result = browser.browse(new BrowseQuery(1, null, null, true, 0, 10));
+
+		assertThat(result.products()).extracting(ProductSummary::id).containsExactly(1);
+		// The category facet ignores the category filter, the stock facet the stock filter
+		assertThat(result.categories()).extracting(FacetCount::key, FacetCount::count)
+				.containsExactlyInAnyOrder(tuple(1, 1L), tuple(2, 2L));
+		assertThat(counts(result.stock())).containsExactly(1L, 1L);
+	}
+
+	@Test
+	void pagesThroughTheMatches() {
+		BrowseResult result = browser.browse(new BrowseQuery(null, null, null, null, 1, 3));
+
+		assertThat(result.products()).extracting(ProductSummary::id).containsExactly(4);
+		assertThat(result.totalElements()).isEqualTo(4);
+	}
+
+	// Counts in the order the result lists the facet values
+	private static List<Long> counts(List<FacetCount> facets) {
+		return facets.stream().map(FacetCount::count).toList();
+	}
+
+	private static Product priced(int id, Category category, String price, int discount, int stock) {
+		BigDecimal amount = new BigDecimal(price);
+		return product(id, category, true).toBuilder()
+				.price(amount)
+				.discount(discount)
+				.discountPrice(amount.subtract(amount.multiply(BigDecimal.valueOf(discount)).movePointLeft(2)))
+				.stock(stock)
+				.build();
+	}
+
+}
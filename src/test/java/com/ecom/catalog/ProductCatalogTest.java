@@ -0,0 +1,86 @@
+package com.ecom.catalog;
+
+import static com.ecom.catalog.CatalogSnapshotTest.product;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.ecom.event.CatalogEvent;
+import com.ecom.model.Category;
+import com.ecom.model.Product;
+import com.ecom.repositories.ProductRepository;
+
+class ProductCatalogTest {
+
+	private static final Category LAMPS = new Category(1, "Lamps", null, null, true);
+
+	private ProductCatalog productCatalog;
+
+	@BeforeEach
+	void setUp() {
+		ProductRepository productRepository = mock(ProductRepository.class);
+		when(productRepository.findAllForCatalog())
+				.thenReturn(List.of(stocked(1, 10), stocked(2, 1), stocked(3, 0)));
+		productCatalog = new ProductCatalog();
+		ReflectionTestUtils.setField(productCatalog, "productRepository", productRepository);
+		productCatalog.snapshot();
+	}
+
+	@Test
+	void stockFlushThatKeepsAvailabilityOnlyMovesTheVersion() {
+		long version = productCatalog.version();
+		long contentVersion = productCatalog.contentVersion();
+
+		productCatalog.onEvents(List.of(stockChanged(stocked(1, 7))));
+
+		assertThat(productCatalog.version()).isGreaterThan(version);
+		assertThat(productCatalog.contentVersion()).isEqualTo(contentVersion);
+		assertThat(productCatalog.snapshot().get(1).getStock()).isEqualTo(7);
+	}
+
+	@Test
+	void stockFlushThatSellsOutMovesTheContentVersion() {
+		long contentVersion = productCatalog.contentVersion();
+
+		productCatalog.onEvents(List.of(stockChanged(stocked(1, 7)), stockChanged(stocked(2, 0))));
+
+		assertThat(productCatalog.contentVersion()).isGreaterThan(contentVersion);
+	}
+
+	@Test
+	void restockingMovesTheContentVersion() {
+		long contentVersion = productCatalog.contentVersion();
+
+		productCatalog.onEvents(List.of(stockChanged(stocked(3, 5))));
+
+		assertThat(productCatalog.contentVersion()).isGreaterThan(contentVersion);
+	}
+
+	@Test
+	void anyOtherProductWriteMovesBothVersions() {
+		long version = productCatalog.version();
+		long contentVersion = productCatalog.contentVersion();
+
+		Product renamed = stocked(1, 10);
+		renamed.setTitle("Brass lamp");
+		productCatalog.onEvents(List.of(CatalogEvent.product(CatalogEvent.Type.PRODUCT_UPDATED, renamed)));
+
+		assertThat(productCatalog.version()).isGreaterThan(version);
+		assertThat(productCatalog.contentVersion()).isGreaterThan(contentVersion);
+	}
+
+	private static Product stocked(int id, int stock) {
+		return product(id, LAMPS, true).toBuilder().stock(stock).build();
+	}
+
+	private static CatalogEvent stockChanged(Product product) {
+		return CatalogEvent.product(CatalogEvent.Type.PRODUCT_STOCK_CHANGED, product);
+	}
+
+}
@@ -0,0 +1,115 @@
+package com.ecom.catalog;
+
+import static com.ecom.catalog.CatalogSnapshotTest.product;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.ecom.model.Product;
+import com.ecom.repositories.ProductRepository;
+
+class ProductSearchIndexTest {
+
+	private ProductSearchIndex searchIndex;
+
+	@BeforeEach
+	void setUp() {
+		List<Product> products = new ArrayList<>();
+		products.add(titled(1, "Brass desk lamp", "Warm light for reading"));
+		products.add(titled(2, "Floor lamp", "Tall lamp with a linen shade"));
+		products.add(titled(3, "Laptop stand", "Aluminium, fits a desk"));
+		for (int id = 4; id <= 2000; id++) {
+			products.add(titled(id, "Filler item " + id, "Nothing to see"));
+		}
+		ProductRepository productRepository = mock(ProductRepository.class);
+		when(productRepository.findAllForCatalog()).thenReturn(products);
+
+		ProductCatalog productCatalog = new ProductCatalog();
+		ReflectionTestUtils.setField(productCatalog, "productRepository", productRepository);
+		searchIndex = new ProductSearchIndex();
+		ReflectionTestUtils.setField(searchIndex, "productCatalog", productCatalog);
+	}
+
+	@Test
+	void everyWordMustMatchAndTheLastOneMayBeAPrefix() {
+		assertThat(searchIndex.search("desk lam", id -> true)).containsExactly(1);
+		assertThat(searchIndex.search("lap", id -> true)).containsExactly(3);
+		assertThat(searchIndex.search("desk lamp shade", id -> true)).isEmpty();
+	}
+
+	@Test
+	void titleMatchesRankAboveDescriptionMatches() {
+		assertThat(searchIndex.search("desk", id -> true)).containsExactly(1, 3);
+	}
+
+	@Test
+	void appliesTheFilter() {
+		assertThat(searchIndex.search("lamp", id -> id != 1)).containsExactly(2);
+	}
+
+	@Test
+	void pagesThroughTheRanking() {
+		assertThat(searchIndex.search("lamp", id -> true, 0, 1).ids()).containsExactly(2);
+		assertThat(searchIndex.search("lamp", id -> true, 1, 1).ids()).containsExactly(1);
+		assertThat(searchIndex.search("lamp", id -> true, 2, 1).ids()).isEmpty();
+		assertThat(searchIndex.search("lamp", id -> true, 2, 1).total()).isEqualTo(2);
+
+		// Equal scores fall back to id order
+		ProductSearchIndex.Hits evens = searchIndex.search("filler", id -> id % 2 == 0, 10, 5);
+		assertThat(evens.ids()).containsExactly(24, 26, 28, 30, 32);
+		assertThat(evens.total()).isEqualTo(999);
+	}
+
+	@Test
+	void followsSingleProductUpdates() {
+		searchIndex.search("lamp", id -> true);
+
+		searchIndex.index(titled(3, "Reading lamp", "Clamp-on"));
+		searchIndex.remove(2);
+
+		assertThat(searchIndex.search("lamp", id -> true)).containsExactlyInAnyOrder(1, 3);
+		assertThat(searchIndex.search("laptop", id -> true)).isEmpty();
+	}
+
+	@Test
+	void searchesDuringRebuildsNeverSeeAnEmptyIndex() throws InterruptedException {
+		searchIndex.search("lamp", id -> true);
+
+		AtomicBoolean done = new AtomicBoolean();
+		AtomicInteger rebuilds = new AtomicInteger();
+		Thread rebuilder = new Thread(() -> {
+			while (!done.get()) {
+				searchIndex.rebuild();
+				rebuilds.incrementAndGet();
+			}
+		});
+		rebuilder.start();
+		try {
+			while (rebuilds.get() < 20) {
+				assertThat(searchIndex.search("lamp", id -> true)).containsExactly(2, 1);
+				assertThat(searchIndex.search("fil", id -> true)).hasSize(1997);
+			}
+		} finally {
+			done.set(true);
+			rebuilder.join();
+		}
+	}
+
+	private static Product titled(int id, String title, String description) {
+		// No category: its name would be indexed into every product
+		Product product = product(id, null, true);
+		product.setTitle(title);
+		product.setDescription(description);
+		return product;
+	}
+
+}
@@ -0,0 +1,119 @@
+package com.ecom.catalog;
+
+import static com.ecom.catalog.CatalogSnapshotTest.product;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.ecom.event.CatalogEvent;
+import com.ecom.model.Category;
+import com.ecom.model.Product;
+import com.ecom.repositories.ProductRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class RelatedProductsTest {
+
+	private static final Category LAMPS = new Category(1, "Lamps", null, null, true);
+
+	private static final Category CHAIRS = new Category(2, "Chairs", null, null, true);
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+	private ProductCatalog productCatalog;
+
+	private RelatedProducts relatedProducts;
+
+	@BeforeEach
+	void setUp() {
+		List<Product> products = new ArrayList<>();
+		products.add(described(1, LAMPS, "Brass desk lamp", "500.00"));
+		products.add(described(2, LAMPS, "Brass floor lamp", "900.00"));
+		products.add(described(3, CHAIRS, "Oak chair", "2000.00"));
+		products.add(described(4, CHAIRS, "Oak rocking chair", "3500.00"));
+		products.add(described(5, LAMPS, "Paper lantern", "300.00"));
+
+		ProductRepository productRepository = mock(ProductRepository.class);
+		when(productRepository.findAllForCatalog()).thenReturn(products);
+		productCatalog = new ProductCatalog();
+		ReflectionTestUtils.setField(productCatalog, "productRepository", productRepository);
+
+		// Two workers and 5 rows: one leaf, then the next run reuses the same worker's scratch
+		relatedProducts = new RelatedProducts(2, 2, registry);
+		ReflectionTestUtils.setField(relatedProducts, "productCatalog", productCatalog);
+	}
+
+	@AfterEach
+	void tearDown() {
+		relatedProducts.shutdown();
+	}
+
+	@Test
+	void relatesProductsSharingWordsAndCategory() {
+		relatedProducts.refresh();
+
+		assertThat(relatedProducts.related(1)).startsWith(2);
+		assertThat(relatedProducts.related(3)).startsWith(4);
+		assertThat(relatedProducts.related(99)).isEmpty();
+	}
+
+	@Test
+	void givesTheSameResultWhenRebuiltWithReusedScratchArrays() {
+		relatedProducts.rebuild();
+		int[][] first = { relatedProducts.related(1), relatedProducts.related(3), relatedProducts.related(5) };
+
+		relatedProducts.rebuild();
+		relatedProducts.rebuild();
+
+		assertThat(relatedProducts.related(1)).isEqualTo(first[0]);
+		assertThat(relatedProducts.related(3)).isEqualTo(first[1]);
+		assertThat(relatedProducts.related(5)).isEqualTo(first[2]);
+	}
+
+	@Test
+	void stockFlushesDoNotTriggerARebuild() {
+		relatedProducts.refresh();
+		Product restocked = productCatalog.snapshot().get(1).toBuilder().stock(4).build();
+
+		productCatalog.onEvents(List.of(CatalogEvent.product(CatalogEvent.Type.PRODUCT_STOCK_CHANGED, restocked)));
+		productCatalog.onEvents(List.of(CatalogEvent.product(CatalogEvent.Type.PRODUCT_STOCK_CHANGED,
+				restocked.toBuilder().stock(3).build())));
+		relatedProducts.refresh();
+
+		assertThat(builds()).isEqualTo(1);
+	}
+
+	@Test
+	void contentChangesTriggerARebuild() {
+		relatedProducts.refresh();
+		Product renamed = productCatalog.snapshot().get(5).toBuilder().title("Brass lantern").build();
+
+		productCatalog.onEvents(List.of(CatalogEvent.product(CatalogEvent.Type.PRODUCT_UPDATED, renamed)));
+		relatedProducts.refresh();
+
+		assertThat(builds()).isEqualTo(2);
+	}
+
+	private long builds() {
+		return registry.timer("ecom.related.build").count();
+	}
+
+	private static Product described(int id, Category category, String title, String price) {
+		return product(id, category, true).toBuilder()
+				.title(title)
+				.stock(5)
+				.price(new BigDecimal(price))
+				.discountPrice(new BigDecimal(price))
+				.build();
+	}
+
+}
@@ -0,0 +1,107 @@
+package com.ecom.catalog;
+
+import static com.ecom.catalog.CatalogSnapshotTest.product;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.ecom.dto.Suggestion;
+import com.ecom.model.Category;
+import com.ecom.model.Product;
+import com.ecom.repositories.CategoryRepository;
+import com.ecom.repositories.ProductRepository;
+
+class SuggestionIndexTest {
+
+	private static final Category LAMPS = new Category(1, "Lamps", null, null, true);
+
+	private static final Category LAPTOPS = new Category(2, "Laptops", null, null, true);
+
+	private SuggestionIndex suggestionIndex;
+
+	@BeforeEach
+	void setUp() {
+		List<Product> products = new ArrayList<>();
+		products.add(titled(1, LAMPS, "Brass lamp"));
+		products.add(titled(2, LAMPS, "Floor lamp"));
+		products.add(titled(3, LAPTOPS, "Laptop sleeve"));
+		Product inactive = titled(4, LAMPS, "Lantern");
+		inactive.setIsActive(false);
+		products.add(inactive);
+
+		ProductRepository productRepository = mock(ProductRepository.class);
+		when(productRepository.findAllForCatalog()).thenReturn(products);
+		CategoryRepository categoryRepository = mock(CategoryRepository.class);
+		when(categoryRepository.findAll()).thenReturn(List.of(LAMPS, LAPTOPS));
+
+		ProductCatalog productCatalog = new ProductCatalog();
+		ReflectionTestUtils.setField(productCatalog, "productRepository", productRepository);
+		suggestionIndex = new SuggestionIndex();
+		ReflectionTestUtils.setField(suggestionIndex, "productCatalog", productCatalog);
+		ReflectionTestUtils.setField(suggestionIndex, "categoryRepository", categoryRepository);
+	}
+
+	@Test
+	void suggestsCategoriesFirstThenWordsByPopularity() {
+		List<Suggestion> suggestions = suggestionIndex.suggest("la", 10);
+
+		assertThat(suggestions).extracting(Suggestion::text).containsExactly("Lamps", "Laptops", "lamp", "laptop");
+	}
+
+	@Test
+	void keepsEarlierWordsAsTyped() {
+		assertThat(suggestionIndex.suggest("Floor LA", 10)).extracting(Suggestion::text)
+				.containsExactly("floor lamp", "floor laptop");
+	}
+
+	@Test
+	void followsSingleProductUpdates() {
+		suggestionIndex.suggest("l", 10);
+
+		suggestionIndex.index(titled(5, LAMPS, "Lantern"));
+		suggestionIndex.remove(3);
+
+		assertThat(suggestionIndex.suggest("l", 10)).extracting(Suggestion::text)
+				.contains("lamp", "lantern").doesNotContain("laptop");
+	}
+
+	@Test
+	void suggestionsDuringRebuildsNeverComeBackEmpty() throws InterruptedException {
+		suggestionIndex.suggest("lam", 10);
+
+		AtomicBoolean done = new AtomicBoolean();
+		AtomicInteger rebuilds = new AtomicInteger();
+		Thread rebuilder = new Thread(() -> {
+			while (!done.get()) {
+				suggestionIndex.rebuild();
+				rebuilds.incrementAndGet();
+			}
+		});
+		rebuilder.start();
+		try {
+			while (rebuilds.get() < 100) {
+				assertThat(suggestionIndex.suggest("lam", 10)).extracting(Suggestion::text).contains("lamp");
+				assertThat(suggestionIndex.suggest("b", 10)).extracting(Suggestion::text).containsExactly("brass");
+			}
+		} finally {
+			done.set(true);
+			rebuilder.join();
+		}
+	}
+
+	private static Product titled(int id, Category category, String title) {
+		Product product = product(id, category, true);
+		product.setTitle(title);
+		return product;
+	}
+
+}
@@ -0,0 +1,81 @@
+package com.ecom.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.ui.ExtendedModelMap;
+
+import com.ecom.dto.CursorPage;
+import com.ecom.service.CategoryService;
+import com.ecom.service.ProductService;
+
+class PageSizesTest {
+
+	private ProductService productService;
+
+	private HomeController homeController;
+
+	private AdminController adminController;
+
+	@BeforeEach
+	void setUp() {
+		productService = mock(ProductService.class);
+		when(productService.getActiveProductCounts()).thenReturn(Map.of());
+		when(productService.getAllActiveProductsAfter(any(), anyInt(), any()))
+				.thenReturn(new CursorPage<>(List.of(), null, true, 0L));
+		when(productService.getAllProductsAfter(any(), anyInt()))
+				.thenReturn(new CursorPage<>(List.of(), null, true, 0L));
+		when(productService.searchProductPagination(anyInt(), anyInt(), any())).thenReturn(Page.empty());
+		CategoryService categoryService = mock(CategoryService.class);
+		when(categoryService.getAllCategory()).thenReturn(List.of());
+
+		homeController = new HomeController();
+		ReflectionTestUtils.setField(homeController, "productService", productService);
+		ReflectionTestUtils.setField(homeController, "categoryService", categoryService);
+		adminController = new AdminController();
+		ReflectionTestUtils.setField(adminController, "productService", productService);
+	}
+
+	@Test
+	void clampsToOneThroughTheMaximum() {
+		assertThat(PageSizes.clamp(-5)).isEqualTo(1);
+		assertThat(PageSizes.clamp(0)).isEqualTo(1);
+		assertThat(PageSizes.clamp(12)).isEqualTo(12);
+		assertThat(PageSizes.clamp(10_000)).isEqualTo(PageSizes.MAX);
+	}
+
+	@Test
+	void storefrontListsOneProductForAZeroOrNegativePageSize() {
+		ExtendedModelMap model = new ExtendedModelMap();
+
+		homeController.products(null, null, null, 0, 0, model);
+		homeController.products(null, null, null, 0, -3, model);
+
+		verify(productService, times(2)).getAllActiveProductsAfter(isNull(), eq(1), isNull());
+		assertThat(model.getAttribute("pageSize")).isEqualTo(1);
+	}
+
+	@Test
+	void adminListsOneProductForAZeroOrNegativePageSize() {
+		adminController.viewProducts(0, 0, null, null, new ExtendedModelMap());
+		adminController.viewProducts(-1, -10, "lamp", null, new ExtendedModelMap());
+
+		verify(productService).getAllProductsAfter(null, 1);
+		verify(productService).searchProductPagination(0, 1, "lamp");
+	}
+
+}
@@ -0,0 +1,160 @@
+package com.ecom.event;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.ecom.model.Product;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class CatalogEventBusTest {
+
+	private RecordingListener snapshot;
+
+	private CatalogEventListener index;
+
+	private CatalogEventBus bus;
+
+	@BeforeEach
+	void setUp() {
+		snapshot = new RecordingListener();
+		index = mock(CatalogEventListener.class);
+		bus = new CatalogEventBus(2, 100, 16, false, Duration.ofDays(7), new SimpleMeterRegistry());
+		ReflectionTestUtils.setField(bus, "listeners", List.of(snapshot, index));
+		bus.start();
+	}
+
+	@AfterEach
+	void tearDown() throws InterruptedException {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+		bus.shutdown();
+	}
+
+	@Test
+	void appliesSynchronousListenersBeforePublishReturns() {
+		bus.publish(updated(1));
+
+		assertThat(snapshot.seen).extracting(CatalogEvent::entityId).containsExactly(1);
+		verify(index, timeout(1000)).onEvents(anyList());
+	}
+
+	@Test
+	void appliesSynchronousListenersInTheAfterCommitHook() {
+		TransactionSynchronizationManager.initSynchronization();
+		bus.publish(updated(1));
+		assertThat(snapshot.seen).isEmpty();
+
+		List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+		TransactionSynchronizationManager.clearSynchronization();
+		synchronizations.forEach(TransactionSynchronization::afterCommit);
+
+		assertThat(snapshot.seen).extracting(CatalogEvent::entityId).containsExactly(1);
+	}
+
+	@Test
+	void dropsEventsOfARolledBackTransaction() throws InterruptedException {
+		TransactionSynchronizationManager.initSynchronization();
+		bus.publish(updated(1));
+		List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+		TransactionSynchronizationManager.clearSynchronization();
+		synchronizations.forEach(synchronization -> synchronization
+				.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+		Thread.sleep(300);
+		assertThat(snapshot.seen).isEmpty();
+		verify(index, never()).onEvents(anyList());
+	}
+
+	@Test
+	void reloadsEveryListenerWhenASynchronousOneFails() {
+		snapshot.failNext = true;
+
+		bus.publish(updated(1));
+
+		verify(index, timeout(1000)).onReload();
+		assertThat(snapshot.reloads).isEqualTo(1);
+	}
+
+	@Test
+	void reloadsWhenALaneListenerFails() {
+		doThrow(new IllegalStateException("index broken")).when(index).onEvents(anyList());
+
+		bus.publish(updated(1));
+
+		verify(index, timeout(1000)).onReload();
+	}
+
+	@Test
+	void keepsTheSequenceOrderAcrossPublishers() throws InterruptedException {
+		List<Thread> publishers = new ArrayList<>();
+		for (int t = 0; t < 4; t++) {
+			int offset = t * 1000;
+			publishers.add(new Thread(() -> {
+				for (int i = 0; i < 200; i++) {
+					bus.publish(updated(offset + i));
+				}
+			}));
+		}
+		publishers.forEach(Thread::start);
+		for (Thread publisher : publishers) {
+			publisher.join();
+		}
+
+		assertThat(snapshot.seen).hasSize(800)
+				.extracting(CatalogEvent::sequence)
+				.isSorted();
+	}
+
+	private static CatalogEvent updated(int id) {
+		return CatalogEvent.product(CatalogEvent.Type.PRODUCT_UPDATED, Product.builder().id(id).build());
+	}
+
+	private static final class RecordingListener implements CatalogEventListener {
+
+		final List<CatalogEvent> seen = new CopyOnWriteArrayList<>();
+
+		volatile boolean failNext;
+
+		volatile int reloads;
+
+		@Override
+		public void onEvents(List<CatalogEvent> events) {
+			if (failNext) {
+				failNext = false;
+				throw new IllegalStateException("snapshot broken");
+			}
+			seen.addAll(events);
+		}
+
+		@Override
+		public void onReload() {
+			reloads++;
+		}
+
+		@Override
+		public boolean isSynchronous() {
+			return true;
+		}
+
+	}
+
+}
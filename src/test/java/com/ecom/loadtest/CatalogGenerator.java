@@ -0,0 +1,203 @@
+package com.ecom.loadtest;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+// Writes a synthetic catalog that looks like a real one to the code that reads it:
+// category sizes and brands follow a Zipf curve, titles are 3-8 words, descriptions
+// a few sentences of varying length, prices log-normal with ".99" endings, most
+// products undiscounted, some out of stock and a few inactive.
+//
+// Everything comes from one seeded generator and rows are inserted in order, so a
+// given (seed, categories, products) always produces the same rows with the same ids
+// on an empty database.
+public class CatalogGenerator {
+
+	public static final String[] CATEGORY_NAMES = { "Mobiles", "Laptops", "Televisions", "Headphones", "Cameras",
+			"Tablets", "Smart Watches", "Speakers", "Printers", "Monitors", "Keyboards", "Mice", "Storage",
+			"Networking", "Gaming", "Kitchen Appliances", "Home Decor", "Furniture", "Lighting", "Bedding",
+			"Men's Clothing", "Women's Clothing", "Kids' Clothing", "Footwear", "Watches", "Bags", "Jewellery",
+			"Beauty", "Personal Care", "Health", "Fitness", "Sports", "Outdoor", "Toys", "Books", "Stationery",
+			"Music", "Movies", "Groceries", "Beverages", "Pet Supplies", "Baby Care", "Automotive", "Tools",
+			"Garden", "Cleaning", "Office", "Travel", "Gifts", "Collectibles" };
+
+	public static final String[] BRANDS = { "Samsung", "Apple", "Sony", "LG", "Philips", "Boat", "Xiaomi", "Lenovo",
+			"HP", "Dell", "Asus", "Acer", "OnePlus", "Realme", "Oppo", "Vivo", "Nokia", "Motorola", "JBL", "Bose",
+			"Canon", "Nikon", "Fujifilm", "Panasonic", "Bajaj", "Prestige", "Havells", "Usha", "Pigeon", "Milton",
+			"Nike", "Adidas", "Puma", "Reebok", "Levis", "Wrangler", "Allen Solly", "Peter England", "Titan",
+			"Fastrack", "Casio", "Fossil", "Skybags", "Wildcraft", "American Tourister", "Lakme", "Himalaya",
+			"Nivea", "Dove", "Lego", "Hasbro", "Funskool", "Classmate", "Camlin", "Bosch", "Black Decker", "Godrej",
+			"Nilkamal", "Urban Ladder", "Generic" };
+
+	public static final String[] ADJECTIVES = { "wireless", "portable", "smart", "premium", "classic", "ultra", "slim",
+			"compact", "heavy duty", "waterproof", "lightweight", "ergonomic", "foldable", "rechargeable", "digital",
+			"stainless steel", "cotton", "leather", "bluetooth", "fast charging", "noise cancelling", "4k", "hd",
+			"pro", "mini", "max", "eco", "organic", "handmade", "vintage" };
+
+	public static final String[] NOUNS = { "phone", "laptop", "tv", "headphones", "earbuds", "camera", "tablet",
+			"watch", "speaker", "printer", "monitor", "keyboard", "mouse", "ssd", "router", "controller", "mixer",
+			"kettle", "toaster", "lamp", "chair", "table", "bedsheet", "pillow", "shirt", "t-shirt", "jeans", "kurta",
+			"dress", "shoes", "sneakers", "sandals", "backpack", "handbag", "wallet", "necklace", "perfume", "shampoo",
+			"cream", "trimmer", "dumbbell", "yoga mat", "football", "tent", "puzzle", "action figure", "novel",
+			"notebook", "pen", "guitar", "coffee", "tea", "dog food", "diaper", "car charger", "drill", "planter",
+			"mop", "suitcase", "gift box" };
+
+	private static final String[] FEATURES = { "long battery life", "a two year warranty", "fast charging support",
+			"a durable build", "a sleek design", "easy cleaning", "low power consumption", "a comfortable fit",
+			"premium materials", "a compact footprint", "crystal clear sound", "vivid colours", "smooth performance",
+			"all day comfort", "simple setup", "a lifetime guarantee", "skin friendly ingredients",
+			"recycled packaging", "a non slip base", "adjustable settings" };
+
+	private static final String[] SENTENCES = { "Designed for everyday use with %s.",
+			"This %s comes with %s.", "Customers love it for %s and %s.", "Built to last, it offers %s.",
+			"Perfect as a gift, featuring %s.", "Now with %s and improved quality.",
+			"Trusted by thousands of buyers for %s.", "Available in multiple colours with %s." };
+
+	private static final int[] DISCOUNTS = { 5, 10, 10, 15, 20, 20, 25, 30, 40, 50, 60, 70 };
+
+	private static final String INSERT_CATEGORY_SQL = "INSERT INTO category (name, is_active) VALUES (?, ?)";
+
+	private static final String INSERT_PRODUCT_SQL = "INSERT INTO product "
+			+ "(title, description, category_id, price, stock, image, discount, discount_price, is_active) "
+			+ "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+	private static final int BATCH_SIZE = 1000;
+
+	private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+
+	private final JdbcTemplate jdbcTemplate;
+
+	private final SplittableRandom random;
+
+	public CatalogGenerator(JdbcTemplate jdbcTemplate, long seed) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.random = new SplittableRandom(seed);
+	}
+
+	// Returns the ids of the generated categories, in insertion order.
+	public List<Integer> generate(int categories, int products) {
+		List<Integer> categoryIds = generateCategories(categories);
+		Zipf categoryPicker = new Zipf(categoryIds.size(), 1.0);
+		Zipf brandPicker = new Zipf(BRANDS.length, 1.1);
+
+		List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+		for (int i = 0; i < products; i++) {
+			batch.add(product(categoryIds.get(categoryPicker.next(random)), brandPicker));
+			if (batch.size() == BATCH_SIZE) {
+				jdbcTemplate.batchUpdate(INSERT_PRODUCT_SQL, batch);
+				batch.clear();
+			}
+		}
+		if (!batch.isEmpty()) {
+			jdbcTemplate.batchUpdate(INSERT_PRODUCT_SQL, batch);
+		}
+		return categoryIds;
+	}
+
+	private List<Integer> generateCategories(int categories) {
+		List<Integer> ids = new ArrayList<>(categories);
+		for (int i = 0; i < categories; i++) {
+			String name = CATEGORY_NAMES[i % CATEGORY_NAMES.length];
+			if (i >= CATEGORY_NAMES.length) {
+				name += " " + (i / CATEGORY_NAMES.length + 1);
+			}
+			jdbcTemplate.update(INSERT_CATEGORY_SQL, name, Boolean.TRUE);
+			ids.add(jdbcTemplate.queryForObject("SELECT MAX(id) FROM category", Integer.class));
+		}
+		return ids;
+	}
+
+	private Object[] product(Integer categoryId, Zipf brandPicker) {
+		String noun = pick(NOUNS);
+		StringBuilder title = new StringBuilder(BRANDS[brandPicker.next(random)]);
+		int adjectives = random.nextInt(1, 4);
+		for (int i = 0; i < adjectives; i++) {
+			title.append(' ').append(pick(ADJECTIVES));
+		}
+		title.append(' ').append(noun);
+		if (random.nextInt(3) == 0) {
+			title.append(' ').append((char) ('A' + random.nextInt(26))).append(random.nextInt(10, 1000));
+		}
+
+		// Log-normal around a median of roughly 1100 with a long tail of expensive items
+		double rupees = Math.exp(7.0 + 1.1 * gaussian());
+		long whole = Math.max(49, Math.min(499_999, Math.round(rupees)));
+		BigDecimal price = BigDecimal.valueOf(whole * 100 - 1, 2);
+
+		int discount = random.nextInt(10) < 6 ? 0 : DISCOUNTS[random.nextInt(DISCOUNTS.length)];
+		BigDecimal discountPrice = price.subtract(price.multiply(BigDecimal.valueOf(discount)).divide(HUNDRED))
+				.setScale(2, RoundingMode.HALF_UP);
+
+		int stock = random.nextInt(100) < 8 ? 0 : (int) Math.min(500, 1 + Math.round(-40 * Math.log(random.nextDouble())));
+		boolean active = random.nextInt(100) >= 5;
+
+		return new Object[] { title.toString(), description(noun), categoryId, price, stock, "default.jpg", discount,
+				discountPrice, active };
+	}
+
+	private String description(String noun) {
+		int sentences = 1 + (int) Math.min(7, Math.round(-1.8 * Math.log(random.nextDouble())));
+		StringBuilder description = new StringBuilder();
+		for (int i = 0; i < sentences; i++) {
+			if (i > 0) {
+				description.append(' ');
+			}
+			String sentence = pick(SENTENCES);
+			description.append(sentence.startsWith("This %s")
+					? String.format(sentence, noun, pick(FEATURES))
+					: String.format(sentence, pick(FEATURES), pick(FEATURES)));
+		}
+		return description.toString();
+	}
+
+	private String pick(String[] values) {
+		return values[random.nextInt(values.length)];
+	}
+
+	// Box-Muller; SplittableRandom has no nextGaussian on Java 17
+	private double gaussian() {
+		double u = 1.0 - random.nextDouble();
+		double v = random.nextDouble();
+		return Math.sqrt(-2 * Math.log(u)) * Math.cos(2 * Math.PI * v);
+	}
+
+	// Rank r (0-based) is picked with probability proportional to 1 / (r + 1)^s
+	private static final class Zipf {
+
+		private final double[] cumulative;
+
+		Zipf(int size, double exponent) {
+			cumulative = new double[size];
+			double sum = 0;
+			for (int i = 0; i < size; i++) {
+				sum += 1 / Math.pow(i + 1, exponent);
+				cumulative[i] = sum;
+			}
+			for (int i = 0; i < size; i++) {
+				cumulative[i] /= sum;
+			}
+		}
+
+		int next(SplittableRandom random) {
+			double target = random.nextDouble();
+			int low = 0;
+			int high = cumulative.length - 1;
+			while (low < high) {
+				int mid = (low + high) >>> 1;
+				if (cumulative[mid] < target) {
+					low = mid + 1;
+				} else {
+					high = mid;
+				}
+			}
+			return low;
+		}
+
+	}
+
+}
@@ -0,0 +1,44 @@
+package com.ecom.loadtest;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+
+// Fills the embedded load-test database before the web server starts, so the first
+// request already sees the whole catalog. An existing catalog (e.g. a file-based
+// H2 database from an earlier run) is left alone.
+@Component
+@Profile("loadtest")
+@DependsOn("entityManagerFactory")
+public class LoadTestSeeder {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${ecom.loadtest.products:1000000}")
+    private int products;
+
+    @Value("${ecom.loadtest.categories:50}")
+    private int categories;
+
+    @Value("${ecom.loadtest.seed:42}")
+    private long seed;
+
+    public LoadTestSeeder(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @PostConstruct
+    public void seed() {
+        Integer existing = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM product", Integer.class);
+        if (existing != null && existing > 0) {
+            return;
+        }
+        new CatalogGenerator(jdbcTemplate, seed).generate(categories, products);
+    }
+}
@@ -0,0 +1,95 @@
+package com.ecom.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ecom.dto.CampaignForm;
+import com.ecom.model.Campaign;
+import com.ecom.model.Category;
+import com.ecom.repositories.CampaignRepository;
+import com.ecom.repositories.CategoryRepository;
+import com.ecom.service.ProductService;
+
+class CampaignServiceImplTest {
+
+	private final Category lamps = new Category(1, "Lamps", null, null, true);
+
+	private CampaignRepository campaignRepository;
+
+	private JdbcTemplate jdbcTemplate;
+
+	private CampaignServiceImpl campaignService;
+
+	@BeforeEach
+	void setUp() {
+		campaignRepository = mock(CampaignRepository.class);
+		when(campaignRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+		CategoryRepository categoryRepository = mock(CategoryRepository.class);
+		when(categoryRepository.findById(1)).thenReturn(Optional.of(lamps));
+		jdbcTemplate = mock(JdbcTemplate.class);
+		TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+		doAnswer(invocation -> {
+			invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+			return null;
+		}).when(transactionTemplate).executeWithoutResult(any());
+
+		campaignService = new CampaignServiceImpl(5000);
+		ReflectionTestUtils.setField(campaignService, "campaignRepository", campaignRepository);
+		ReflectionTestUtils.setField(campaignService, "categoryRepository", categoryRepository);
+		ReflectionTestUtils.setField(campaignService, "productService", mock(ProductService.class));
+		ReflectionTestUtils.setField(campaignService, "jdbcTemplate", jdbcTemplate);
+		ReflectionTestUtils.setField(campaignService, "transactionTemplate", transactionTemplate);
+	}
+
+	@Test
+	void schedulesACampaignFromTheFormFields() {
+		LocalDateTime endsAt = LocalDateTime.now().plusDays(3);
+
+		Campaign saved = campaignService.saveCampaign(
+				new CampaignForm("Diwali sale", 1, new BigDecimal("100"), null, 30, null, endsAt));
+
+		assertThat(saved.getId()).isNull();
+		assertThat(saved.getStatus()).isEqualTo(Campaign.Status.SCHEDULED);
+		assertThat(saved.getCategory()).isSameAs(lamps);
+		assertThat(saved.getDiscount()).isEqualTo(30);
+		assertThat(saved.getStartsAt()).isNotNull();
+		assertThat(saved.getEndsAt()).isEqualTo(endsAt);
+		assertThat(saved.getProductCount()).isNull();
+	}
+
+	@Test
+	void revertOnlyRestoresProductsStillAtTheCampaignDiscount() {
+		Campaign campaign = Campaign.builder().id(5).name("Diwali sale").discount(30)
+				.status(Campaign.Status.ACTIVE).build();
+		when(campaignRepository.findById(5)).thenReturn(Optional.of(campaign));
+		when(jdbcTemplate.queryForObject(startsWith("SELECT MIN(product_id)"), any(RowMapper.class), eq(5)))
+				.thenReturn(new long[] { 1, 10 });
+
+		Campaign reverted = campaignService.revertCampaign(5);
+
+		assertThat(reverted.getStatus()).isEqualTo(Campaign.Status.ENDED);
+		verify(jdbcTemplate).update(contains("AND discount = ?"), eq(5), eq(5), eq(1L), eq(5000L), eq(30), eq(5));
+		verify(jdbcTemplate).update(startsWith("DELETE FROM campaign_product"), eq(5), eq(1L), eq(5000L));
+	}
+
+}
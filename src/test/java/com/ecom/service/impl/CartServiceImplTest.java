@@ -0,0 +1,186 @@
+package com.ecom.service.impl;
+
+import static com.ecom.catalog.CatalogSnapshotTest.product;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ecom.catalog.ProductCatalog;
+import com.ecom.dto.CartView;
+import com.ecom.model.Category;
+import com.ecom.model.Product;
+import com.ecom.repositories.ProductRepository;
+
+class CartServiceImplTest {
+
+	private static final Category LAMPS = new Category(1, "Lamps", null, null, true);
+
+	private JdbcTemplate jdbcTemplate;
+
+	private TransactionTemplate transactionTemplate;
+
+	private ProductCatalog productCatalog;
+
+	private CartServiceImpl cartService;
+
+	@BeforeEach
+	void setUp() {
+		ProductRepository productRepository = mock(ProductRepository.class);
+		when(productRepository.findAllForCatalog()).thenReturn(List.of(priced(1, 5, true), priced(2, 5, true),
+				priced(3, 0, true), priced(4, 5, false), priced(5, 5, true)));
+		productCatalog = new ProductCatalog();
+		ReflectionTestUtils.setField(productCatalog, "productRepository", productRepository);
+
+		jdbcTemplate = mock(JdbcTemplate.class);
+		transactionTemplate = mock(TransactionTemplate.class);
+		doAnswer(invocation -> {
+			invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+			return null;
+		}).when(transactionTemplate).executeWithoutResult(any());
+
+		// Two lines and ten units per line at most
+		cartService = cartService(10);
+	}
+
+	private CartServiceImpl cartService(int maxQuantity) {
+		CartServiceImpl service = new CartServiceImpl(4, 2, maxQuantity, Duration.ofMinutes(30));
+		ReflectionTestUtils.setField(service, "jdbcTemplate", jdbcTemplate);
+		ReflectionTestUtils.setField(service, "transactionTemplate", transactionTemplate);
+		ReflectionTestUtils.setField(service, "productCatalog", productCatalog);
+		return service;
+	}
+
+	@Test
+	void pricesLinesFromTheCatalog() {
+		cartService.addToCart("cart-1", 1, 2);
+		cartService.addToCart("cart-1", 2, 1);
+
+		CartView cart = cartService.getCart("cart-1");
+
+		assertThat(cart.lines()).extracting(line -> line.product().getId()).containsExactly(1, 2);
+		assertThat(cart.itemCount()).isEqualTo(3);
+		assertThat(cart.total()).isEqualByComparingTo("30.00");
+	}
+
+	@Test
+	void refusesUnbuyableProductsAndEnforcesTheLimits() {
+		assertThat(cartService.addToCart("cart-1", 3, 1)).as("out of stock").isFalse();
+		assertThat(cartService.addToCart("cart-1", 4, 1)).as("inactive").isFalse();
+		assertThat(cartService.addToCart("cart-1", 99, 1)).as("unknown").isFalse();
+
+		cartService.addToCart("cart-1", 1, 8);
+		cartService.addToCart("cart-1", 1, 8);
+		cartService.addToCart("cart-1", 2, 1);
+		assertThat(cartService.addToCart("cart-1", 5, 1)).as("cart full").isFalse();
+
+		assertThat(cartService.getCart("cart-1").lines()).extracting(line -> line.quantity()).containsExactly(10, 1);
+	}
+
+	@Test
+	void writesOnlyChangedCartsWhenFlushing() {
+		cartService.addToCart("cart-1", 1, 2);
+		cartService.flush();
+		cartService.flush();
+
+		@SuppressWarnings("unchecked")
+		ArgumentCaptor<List<Object[]>> inserts = ArgumentCaptor.forClass(List.class);
+		verify(jdbcTemplate, times(1)).batchUpdate(startsWith("INSERT INTO cart_item"), inserts.capture());
+		assertThat(inserts.getValue()).hasSize(1);
+		assertThat(inserts.getValue().get(0)).startsWith("cart-1", 1, 2);
+	}
+
+	@Test
+	void keepsCartsDirtyWhenTheFlushFails() {
+		cartService.addToCart("cart-1", 1, 2);
+		when(jdbcTemplate.batchUpdate(startsWith("DELETE FROM cart_item"), anyList()))
+				.thenThrow(new DataAccessResourceFailureException("connection lost"))
+				.thenReturn(new int[] { 1 });
+
+		assertThatThrownBy(cartService::flush).isInstanceOf(DataAccessResourceFailureException.class);
+		cartService.flush();
+
+		verify(jdbcTemplate).batchUpdate(startsWith("INSERT INTO cart_item"), anyList());
+	}
+
+	@Test
+	void readsACartBackFromTheDatabaseOnFirstUse() throws Exception {
+		ResultSet row = mock(ResultSet.class);
+		when(row.getInt(1)).thenReturn(2);
+		when(row.getInt(2)).thenReturn(3);
+		doAnswer(invocation -> {
+			invocation.<RowCallbackHandler>getArgument(1).processRow(row);
+			return null;
+		}).when(jdbcTemplate).query(startsWith("SELECT product_id"), any(RowCallbackHandler.class), eq("cart-9"));
+
+		CartView cart = cartService.getCart("cart-9");
+		cartService.getCart("cart-9");
+
+		assertThat(cart.itemCount()).isEqualTo(3);
+		verify(jdbcTemplate, times(1)).query(startsWith("SELECT product_id"), any(RowCallbackHandler.class),
+				eq("cart-9"));
+		verify(jdbcTemplate, never()).batchUpdate(any(String.class), anyList());
+	}
+
+	@Test
+	void concurrentAddsToOneCartAreNotLost() throws InterruptedException {
+		CartServiceImpl service = cartService(1000);
+
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		for (int t = 0; t < 8; t++) {
+			executor.execute(() -> {
+				try {
+					start.await();
+					for (int i = 0; i < 100; i++) {
+						service.addToCart("cart-1", 1, 1);
+					}
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			});
+		}
+		start.countDown();
+		executor.shutdown();
+		assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+
+		assertThat(service.getCart("cart-1").itemCount()).isEqualTo(800);
+	}
+
+	private static Product priced(int id, int stock, boolean active) {
+		return product(id, LAMPS, active).toBuilder()
+				.stock(stock)
+				.price(new BigDecimal("10.00"))
+				.discountPrice(new BigDecimal("10.00"))
+				.build();
+	}
+
+}
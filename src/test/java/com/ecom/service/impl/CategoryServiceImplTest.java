@@ -0,0 +1,80 @@
+package com.ecom.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ecom.event.CatalogEventBus;
+import com.ecom.model.Category;
+import com.ecom.repositories.CategoryRepository;
+import com.ecom.repositories.ProductRepository;
+
+class CategoryServiceImplTest {
+
+	private final Category lamps = new Category(1, "Lamps", "lamps.jpg", null, true);
+
+	private CategoryRepository categoryRepository;
+
+	private ProductRepository productRepository;
+
+	private CatalogEventBus catalogEvents;
+
+	private CategoryServiceImpl categoryService;
+
+	@BeforeEach
+	void setUp() {
+		categoryRepository = mock(CategoryRepository.class);
+		when(categoryRepository.findById(1)).thenReturn(Optional.of(lamps));
+		productRepository = mock(ProductRepository.class);
+		catalogEvents = mock(CatalogEventBus.class);
+		TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+		when(transactionTemplate.execute(any())).thenAnswer(
+				invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+
+		categoryService = new CategoryServiceImpl();
+		ReflectionTestUtils.setField(categoryService, "categoryRepository", categoryRepository);
+		ReflectionTestUtils.setField(categoryService, "productRepository", productRepository);
+		ReflectionTestUtils.setField(categoryService, "catalogEvents", catalogEvents);
+		ReflectionTestUtils.setField(categoryService, "transactionTemplate", transactionTemplate);
+	}
+
+	@Test
+	void deletesAnEmptyCategory() {
+		assertThat(categoryService.deleteCategory(1)).isTrue();
+
+		verify(categoryRepository).delete(lamps);
+		verify(catalogEvents).publish(any());
+	}
+
+	@Test
+	void refusesToDeleteACategoryWithProducts() {
+		when(productRepository.countByCategoryId(1)).thenReturn(3L);
+
+		assertThat(categoryService.deleteCategory(1)).isFalse();
+
+		verify(categoryRepository, never()).delete(any());
+	}
+
+	@Test
+	void reportsTheForeignKeyWhenAProductArrivesDuringTheDelete() {
+		doThrow(new DataIntegrityViolationException("FK_product_category")).when(categoryRepository).flush();
+
+		assertThat(categoryService.deleteCategory(1)).isFalse();
+
+		verify(catalogEvents, never()).publish(any());
+	}
+
+}
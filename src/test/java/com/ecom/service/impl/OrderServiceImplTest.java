@@ -0,0 +1,223 @@
+package com.ecom.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ecom.catalog.ProductCatalog;
+import com.ecom.dto.CartLine;
+import com.ecom.dto.CartView;
+import com.ecom.dto.CheckoutResult;
+import com.ecom.dto.StockReservation;
+import com.ecom.event.CatalogEventBus;
+import com.ecom.model.Product;
+import com.ecom.repositories.OrderRepository;
+import com.ecom.repositories.ProductRepository;
+import com.ecom.service.CartService;
+import com.ecom.service.StockReservationService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
+
+class OrderServiceImplTest {
+
+	private static final String CART = "cart-1";
+
+	private final StockReservation reservation = new StockReservation("r-1", 1, 2, Instant.now().plusSeconds(600));
+
+	private JdbcTemplate jdbcTemplate;
+
+	private CartService cartService;
+
+	private StockReservationService stockReservationService;
+
+	private OrderServiceImpl orderService;
+
+	@BeforeEach
+	void setUp() {
+		Product product = Product.builder().id(1).title("Lamp").discountPrice(new BigDecimal("10.00")).build();
+		CartView cart = new CartView(List.of(new CartLine(product, 2, new BigDecimal("20.00"))), 2,
+				new BigDecimal("20.00"));
+
+		jdbcTemplate = mock(JdbcTemplate.class);
+		cartService = mock(CartService.class);
+		when(cartService.getCart(CART)).thenReturn(cart);
+		stockReservationService = mock(StockReservationService.class);
+		when(stockReservationService.reserve(1, 2)).thenReturn(reservation);
+		when(stockReservationService.commitInTransaction(List.of(reservation))).thenReturn(true);
+
+		orderService = new OrderServiceImpl(200, 100, Duration.ofSeconds(5), 1, 10, new SimpleMeterRegistry());
+		ReflectionTestUtils.setField(orderService, "jdbcTemplate", jdbcTemplate);
+		ReflectionTestUtils.setField(orderService, "namedParameterJdbcTemplate", mock(NamedParameterJdbcTemplate.class));
+		ReflectionTestUtils.setField(orderService, "transactionTemplate", new TransactionTemplate(new NoOpTransactionManager()));
+		ReflectionTestUtils.setField(orderService, "orderRepository", mock(OrderRepository.class));
+		ReflectionTestUtils.setField(orderService, "cartService", cartService);
+		ReflectionTestUtils.setField(orderService, "stockReservationService", stockReservationService);
+		orderService.start();
+	}
+
+	@AfterEach
+	void tearDown() throws InterruptedException {
+		orderService.shutdown();
+	}
+
+	@Test
+	void placesTheOrderAndCommitsItsStockInTheSameTransaction() {
+		CheckoutResult result = orderService.checkout(CART, "key-1");
+
+		assertThat(result.isPlaced()).isTrue();
+		verify(stockReservationService).commitInTransaction(List.of(reservation));
+		verify(jdbcTemplate).batchUpdate(startsWith("INSERT INTO customer_order"), anyList());
+		// The result is completed before the cart is cleared
+		verify(cartService, timeout(1000)).clearCart(CART);
+		verify(stockReservationService, never()).release(anyString());
+	}
+
+	@Test
+	void showsTheCheckedOutStockInTheCatalogOnceTheOrderCommits() throws InterruptedException {
+		Product lamp = Product.builder().id(1).title("Lamp").stock(5).isActive(true)
+				.discountPrice(new BigDecimal("10.00")).build();
+		ProductRepository productRepository = mock(ProductRepository.class);
+		when(productRepository.findAllForCatalog()).thenReturn(List.of(lamp));
+		when(productRepository.findStockById(1)).thenReturn(Optional.of(5));
+		when(productRepository.findAllById(List.of(1))).thenReturn(List.of(lamp.toBuilder().stock(3).build()));
+
+		ProductCatalog productCatalog = new ProductCatalog();
+		ReflectionTestUtils.setField(productCatalog, "productRepository", productRepository);
+		productCatalog.snapshot();
+		CatalogEventBus catalogEvents = new CatalogEventBus(1, 100, 16, false, Duration.ofDays(7),
+				new SimpleMeterRegistry());
+		ReflectionTestUtils.setField(catalogEvents, "listeners", List.of(productCatalog));
+		catalogEvents.start();
+
+		JdbcTemplate stockJdbcTemplate = mock(JdbcTemplate.class);
+		when(stockJdbcTemplate.batchUpdate(anyString(), any(BatchPreparedStatementSetter.class)))
+				.thenReturn(new int[] { 1 });
+		Cache entityCache = mock(Cache.class);
+		EntityManagerFactory entityManagerFactory = mock(EntityManagerFactory.class);
+		when(entityManagerFactory.getCache()).thenReturn(entityCache);
+		StockReservationServiceImpl stock = new StockReservationServiceImpl(Duration.ofMinutes(10),
+				new SimpleMeterRegistry());
+		ReflectionTestUtils.setField(stock, "productRepository", productRepository);
+		ReflectionTestUtils.setField(stock, "jdbcTemplate", stockJdbcTemplate);
+		ReflectionTestUtils.setField(stock, "entityManagerFactory", entityManagerFactory);
+		ReflectionTestUtils.setField(stock, "catalogEvents", catalogEvents);
+		ReflectionTestUtils.setField(orderService, "stockReservationService", stock);
+
+		try {
+			CheckoutResult result = orderService.checkout(CART, "key-1");
+
+			assertThat(result.isPlaced()).isTrue();
+			assertThat(productCatalog.snapshot().get(1).getStock()).isEqualTo(3);
+			verify(entityCache, atLeastOnce()).evict(Product.class, 1);
+		} finally {
+			catalogEvents.shutdown();
+		}
+	}
+
+	@Test
+	void failsTheOrderWhenItsReservationExpiredBeforeTheCommit() {
+		when(stockReservationService.commitInTransaction(List.of(reservation))).thenReturn(false);
+
+		CheckoutResult result = orderService.checkout(CART, "key-1");
+
+		assertThat(result.isPlaced()).isFalse();
+		assertThat(result.message()).contains("expired");
+		verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+		verify(cartService, never()).clearCart(CART);
+		verify(stockReservationService).release("r-1");
+	}
+
+	@Test
+	void failsTheOrderAndReleasesItsStockWhenTheInsertFails() {
+		when(jdbcTemplate.batchUpdate(startsWith("INSERT INTO customer_order"), anyList()))
+				.thenThrow(new DataAccessResourceFailureException("connection lost"));
+
+		CheckoutResult result = orderService.checkout(CART, "key-1");
+
+		assertThat(result.isPlaced()).isFalse();
+		verify(cartService, never()).clearCart(CART);
+		verify(stockReservationService).release("r-1");
+	}
+
+	@Test
+	void reportsAPlacedOrderAsPlacedWhenClearingTheCartFails() {
+		doThrow(new IllegalStateException("cart store down")).when(cartService).clearCart(CART);
+
+		CheckoutResult result = orderService.checkout(CART, "key-1");
+
+		assertThat(result.isPlaced()).isTrue();
+		verify(stockReservationService, never()).release(anyString());
+	}
+
+	@Test
+	void failsWithoutQueueingWhenThereIsNotEnoughStock() {
+		when(stockReservationService.reserve(1, 2)).thenReturn(null);
+
+		CheckoutResult result = orderService.checkout(CART, "key-1");
+
+		assertThat(result.isPlaced()).isFalse();
+		assertThat(result.message()).startsWith("Not enough stock");
+		verify(stockReservationService, never()).commitInTransaction(any());
+	}
+
+	@Test
+	void rejectsAMissingIdempotencyKey() {
+		CheckoutResult result = orderService.checkout(CART, " ");
+
+		assertThat(result.isPlaced()).isFalse();
+		verify(cartService, never()).getCart(anyString());
+	}
+
+	// Runs transaction synchronizations like a real manager, without a database
+	private static final class NoOpTransactionManager extends AbstractPlatformTransactionManager {
+
+		@Override
+		protected Object doGetTransaction() {
+			return new Object();
+		}
+
+		@Override
+		protected void doBegin(Object transaction, TransactionDefinition definition) {
+		}
+
+		@Override
+		protected void doCommit(DefaultTransactionStatus status) {
+		}
+
+		@Override
+		protected void doRollback(DefaultTransactionStatus status) {
+		}
+
+	}
+
+}
@@ -0,0 +1,282 @@
+package com.ecom.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+import java.sql.PreparedStatement;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.ecom.dto.StockReservation;
+import com.ecom.event.CatalogEventBus;
+import com.ecom.repositories.ProductRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
+
+class StockReservationServiceImplTest {
+
+	private static final int PRODUCT = 7;
+
+	// Stands in for product.stock; the mocked JdbcTemplate applies the decrements to it
+	private final AtomicInteger dbStock = new AtomicInteger();
+
+	private StockReservationServiceImpl service;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		// stubOnly: the concurrent tests call these millions of times, nothing needs to be verified
+		ProductRepository productRepository = mock(ProductRepository.class, withSettings().stubOnly());
+		when(productRepository.findStockById(PRODUCT)).thenAnswer(invocation -> Optional.of(dbStock.get()));
+		when(productRepository.findAllById(any())).thenReturn(List.of());
+
+		JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class, withSettings().stubOnly());
+		when(jdbcTemplate.batchUpdate(any(String.class), any(BatchPreparedStatementSetter.class)))
+				.thenAnswer(invocation -> decrement(invocation.getArgument(1)));
+
+		EntityManagerFactory entityManagerFactory = mock(EntityManagerFactory.class);
+		when(entityManagerFactory.getCache()).thenReturn(mock(Cache.class));
+
+		service = new StockReservationServiceImpl(Duration.ofMinutes(10), new SimpleMeterRegistry());
+		ReflectionTestUtils.setField(service, "productRepository", productRepository);
+		ReflectionTestUtils.setField(service, "jdbcTemplate", jdbcTemplate);
+		ReflectionTestUtils.setField(service, "entityManagerFactory", entityManagerFactory);
+		ReflectionTestUtils.setField(service, "catalogEvents", mock(CatalogEventBus.class));
+	}
+
+	@AfterEach
+	void clearSynchronization() {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+	}
+
+	// Same semantics as DECREMENT_SQL: stock = stock - ? WHERE id = ? AND stock >= ?
+	private int[] decrement(BatchPreparedStatementSetter setter) throws Exception {
+		int[] updated = new int[setter.getBatchSize()];
+		for (int i = 0; i < updated.length; i++) {
+			int[] params = new int[4];
+			PreparedStatement ps = mock(PreparedStatement.class, withSettings().stubOnly());
+			doAnswer(invocation -> {
+				params[invocation.<Integer>getArgument(0)] = invocation.<Integer>getArgument(1);
+				return null;
+			}).when(ps).setInt(anyInt(), anyInt());
+			setter.setValues(ps, i);
+			int quantity = params[1];
+			updated[i] = dbStock.getAndUpdate(stock -> stock >= quantity ? stock - quantity : stock) >= quantity ? 1 : 0;
+		}
+		return updated;
+	}
+
+	@Test
+	void neverSellsMoreThanTheStock() throws Exception {
+		dbStock.set(100);
+
+		AtomicInteger sold = runConcurrently(8, 50, () -> {
+			StockReservation reservation = service.reserve(PRODUCT, 1);
+			return reservation != null && service.commit(reservation.id());
+		});
+
+		assertThat(sold.get()).isEqualTo(100);
+		assertThat(service.getAvailableStock(PRODUCT)).isZero();
+		service.flush();
+		assertThat(dbStock.get()).isZero();
+	}
+
+	@Test
+	void resyncDuringReservesAndFlushesDoesNotAddPhantomUnits() throws Exception {
+		dbStock.set(500);
+		service.getAvailableStock(PRODUCT);
+
+		AtomicBoolean done = new AtomicBoolean();
+		Thread resyncer = new Thread(() -> {
+			while (!done.get()) {
+				service.resync(PRODUCT);
+			}
+		});
+		Thread flusher = new Thread(() -> {
+			while (!done.get()) {
+				service.flush();
+			}
+		});
+		resyncer.start();
+		flusher.start();
+
+		AtomicInteger sold;
+		try {
+			sold = runConcurrently(8, 100, () -> {
+				StockReservation reservation = service.reserve(PRODUCT, 1);
+				if (reservation == null) {
+					return false;
+				}
+				// Leave some open and release others, so all three counters move
+				if (reservation.id().hashCode() % 3 == 0) {
+					service.release(reservation.id());
+					return false;
+				}
+				return service.commit(reservation.id());
+			});
+		} finally {
+			done.set(true);
+			resyncer.join();
+			flusher.join();
+		}
+		service.flush();
+		service.resync(PRODUCT);
+
+		assertThat(sold.get()).isLessThanOrEqualTo(500);
+		assertThat(dbStock.get()).isEqualTo(500 - sold.get());
+		assertThat(service.getAvailableStock(PRODUCT)).isEqualTo(dbStock.get());
+	}
+
+	@Test
+	void flushKeepsASaleTheDatabaseCannotCoverInsteadOfClampingIt() {
+		dbStock.set(5);
+		StockReservation reservation = service.reserve(PRODUCT, 5);
+		service.commit(reservation.id());
+		// An admin lowers the stock behind the engine's back
+		dbStock.set(2);
+
+		service.flush();
+
+		assertThat(dbStock.get()).isEqualTo(2);
+		assertThat(service.getAvailableStock(PRODUCT)).isZero();
+		assertThat(service.reserve(PRODUCT, 1)).isNull();
+
+		// Once the stock is corrected the pending sale is written
+		dbStock.set(10);
+		service.flush();
+		service.resync(PRODUCT);
+		assertThat(dbStock.get()).isEqualTo(5);
+		assertThat(service.getAvailableStock(PRODUCT)).isEqualTo(5);
+	}
+
+	@Test
+	void commitInTransactionWritesTheDecrementAndSettlesOnCommit() {
+		dbStock.set(10);
+		StockReservation reservation = service.reserve(PRODUCT, 3);
+
+		TransactionSynchronizationManager.initSynchronization();
+		assertThat(service.commitInTransaction(List.of(reservation))).isTrue();
+		complete(TransactionSynchronization.STATUS_COMMITTED);
+
+		assertThat(dbStock.get()).isEqualTo(7);
+		assertThat(service.release(reservation.id())).isFalse();
+		service.resync(PRODUCT);
+		assertThat(service.getAvailableStock(PRODUCT)).isEqualTo(7);
+	}
+
+	@Test
+	void commitInTransactionReopensTheReservationOnRollback() {
+		dbStock.set(10);
+		StockReservation reservation = service.reserve(PRODUCT, 3);
+
+		TransactionSynchronizationManager.initSynchronization();
+		assertThat(service.commitInTransaction(List.of(reservation))).isTrue();
+		// The mocked database has no rollback, so put the units back by hand
+		dbStock.addAndGet(3);
+		complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+		assertThat(service.getAvailableStock(PRODUCT)).isEqualTo(7);
+		assertThat(service.release(reservation.id())).isTrue();
+		assertThat(service.getAvailableStock(PRODUCT)).isEqualTo(10);
+	}
+
+	@Test
+	void commitInTransactionRefusesAReleasedReservation() {
+		dbStock.set(10);
+		StockReservation reservation = service.reserve(PRODUCT, 3);
+		service.release(reservation.id());
+
+		TransactionSynchronizationManager.initSynchronization();
+		assertThat(service.commitInTransaction(List.of(reservation))).isFalse();
+
+		assertThat(TransactionSynchronizationManager.getSynchronizations()).isEmpty();
+		assertThat(dbStock.get()).isEqualTo(10);
+	}
+
+	@Test
+	void commitInTransactionFailsWhenTheDatabaseIsShort() {
+		dbStock.set(10);
+		StockReservation reservation = service.reserve(PRODUCT, 3);
+		dbStock.set(1);
+
+		TransactionSynchronizationManager.initSynchronization();
+		assertThatThrownBy(() -> service.commitInTransaction(List.of(reservation)))
+				.isInstanceOf(IllegalStateException.class);
+		complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+		assertThat(service.release(reservation.id())).isTrue();
+	}
+
+	@Test
+	void commitInTransactionNeedsATransaction() {
+		dbStock.set(10);
+		StockReservation reservation = service.reserve(PRODUCT, 1);
+
+		assertThatThrownBy(() -> service.commitInTransaction(List.of(reservation)))
+				.isInstanceOf(IllegalStateException.class);
+	}
+
+	private static void complete(int status) {
+		List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+		TransactionSynchronizationManager.clearSynchronization();
+		for (TransactionSynchronization synchronization : synchronizations) {
+			synchronization.afterCompletion(status);
+		}
+	}
+
+	private static AtomicInteger runConcurrently(int threads, int attemptsPerThread, Attempt attempt)
+			throws InterruptedException {
+		AtomicInteger succeeded = new AtomicInteger();
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		for (int t = 0; t < threads; t++) {
+			executor.execute(() -> {
+				try {
+					start.await();
+					for (int i = 0; i < attemptsPerThread; i++) {
+						if (attempt.run()) {
+							succeeded.incrementAndGet();
+						}
+					}
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			});
+		}
+		start.countDown();
+		executor.shutdown();
+		assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+		return succeeded;
+	}
+
+	@FunctionalInterface
+	private interface Attempt {
+		boolean run();
+	}
+
+}
@@ -0,0 +1,68 @@
+package com.ecom.web;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+class CartCookieTest {
+
+	private static final String SECRET = "0123456789abcdef0123456789abcdef";
+
+	private final CartCookie cartCookie = new CartCookie(SECRET, Duration.ofDays(30));
+
+	@Test
+	void acceptsTheCookieItIssued() {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		String cartId = cartCookie.issue(response);
+
+		String header = response.getHeader(HttpHeaders.SET_COOKIE);
+		assertThat(header).startsWith(CartCookie.NAME + "=" + cartId + ".").contains("HttpOnly");
+		String value = header.substring(header.indexOf('=') + 1, header.indexOf(';'));
+		assertThat(cartCookie.cartId(value)).isEqualTo(cartId);
+	}
+
+	@Test
+	void rejectsAnUnsignedOrForgedId() {
+		String cartId = UUID.randomUUID().toString();
+
+		assertThat(cartCookie.cartId(null)).isNull();
+		assertThat(cartCookie.cartId(cartId)).isNull();
+		assertThat(cartCookie.cartId(cartId + ".forged")).isNull();
+	}
+
+	@Test
+	void rejectsASignatureMovedToAnotherId() {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		String cartId = cartCookie.issue(response);
+		String header = response.getHeader(HttpHeaders.SET_COOKIE);
+		String signature = header.substring(header.indexOf('.') + 1, header.indexOf(';'));
+
+		String otherId = UUID.randomUUID().toString();
+
+		assertThat(otherId).isNotEqualTo(cartId);
+		assertThat(cartCookie.cartId(otherId + "." + signature)).isNull();
+	}
+
+	@Test
+	void rejectsACookieSignedWithAnotherSecret() {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		new CartCookie("another-secret-another-secret-another", Duration.ofDays(30)).issue(response);
+		String header = response.getHeader(HttpHeaders.SET_COOKIE);
+
+		assertThat(cartCookie.cartId(header.substring(header.indexOf('=') + 1, header.indexOf(';')))).isNull();
+	}
+
+	@Test
+	void refusesAShortSecret() {
+		assertThatThrownBy(() -> new CartCookie("short", Duration.ofDays(30)))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+}
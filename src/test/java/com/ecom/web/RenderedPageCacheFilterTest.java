@@ -0,0 +1,88 @@
+package com.ecom.web;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+
+class RenderedPageCacheFilterTest {
+
+	private final AtomicLong version = new AtomicLong(1);
+
+	private final AtomicLong contentVersion = new AtomicLong(1);
+
+	private final AtomicInteger renders = new AtomicInteger();
+
+	private final RenderedPageCacheFilter filter = new RenderedPageCacheFilter(
+			new RenderedPageCache(1 << 20, 1 << 16),
+			Map.of("/products", contentVersion::get, "/admin/products", version::get), new SimpleMeterRegistry());
+
+	// Renders a page that tells the renders apart
+	private final FilterChain chain = (request, response) -> {
+		response.setContentType("text/html;charset=UTF-8");
+		response.getOutputStream().write(("render " + renders.incrementAndGet()).getBytes(StandardCharsets.UTF_8));
+	};
+
+	@Test
+	void servesTheStorefrontFromCacheUntilItsContentVersionMoves() throws Exception {
+		assertThat(get("/products", null).getContentAsString()).isEqualTo("render 1");
+
+		// A stock flush: only the full version moves
+		version.incrementAndGet();
+		assertThat(get("/products", null).getContentAsString()).isEqualTo("render 1");
+
+		contentVersion.incrementAndGet();
+		assertThat(get("/products", null).getContentAsString()).isEqualTo("render 2");
+	}
+
+	@Test
+	void rendersTheAdminGridAgainOnEveryVersion() throws Exception {
+		assertThat(get("/admin/products", null).getContentAsString()).isEqualTo("render 1");
+
+		version.incrementAndGet();
+		assertThat(get("/admin/products", null).getContentAsString()).isEqualTo("render 2");
+	}
+
+	@Test
+	void answersARevalidationWithTheSameContentVersionWith304() throws Exception {
+		String etag = get("/products", null).getHeader(HttpHeaders.ETAG);
+		version.incrementAndGet();
+
+		MockHttpServletResponse response = get("/products", etag);
+
+		assertThat(response.getStatus()).isEqualTo(304);
+		assertThat(renders.get()).isEqualTo(1);
+	}
+
+	@Test
+	void leavesOtherPathsAlone() throws Exception {
+		get("/cart", null);
+		get("/cart", null);
+
+		assertThat(renders.get()).isEqualTo(2);
+	}
+
+	private MockHttpServletResponse get(String path, String ifNoneMatch) throws ServletException, IOException {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+		request.setServletPath(path);
+		if (ifNoneMatch != null) {
+			request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+		}
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		filter.doFilter(request, response, chain);
+		return response;
+	}
+
+}